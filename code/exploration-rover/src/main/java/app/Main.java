@@ -1,9 +1,26 @@
 
+import common.AdaptiveSampling;
+import common.ControlLoop;
+import common.DistanceAccessors;
 import common.EventBus;
+import common.EventBusMetrics;
+import common.LatencyTrace;
 import common.RoverConfig;
+import common.ScheduledTask;
+import common.SensorSample;
+import common.SensorScheduler;
+import common.Topic;
+import distances.model.RangeSensor;
+import distances.services.RangeArrayService;
+import fusion.model.ObstacleState;
+import fusion.services.ObstacleFusion;
+import health.model.SensorId;
+import health.services.SensorHealthMonitor;
 import javafx.application.Platform;
 import javafx.stage.Stage;
 import manette.controller.ManetteController;
+import manette.model.EmergencyStopClick;
+import manette.model.InputFrame;
 import manette.model.ManetteModel;
 import manette.view.ManetteView;
 import mission.controller.MissionController;
@@ -12,6 +29,7 @@ import rover.model.RoverModel;
 import rover.services.Connection;
 import rover.services.MotorService;
 import rover.view.RoverView;
+import simulation.services.SimulatedRover;
 import sonar.model.SonarState;
 import sonar.services.SonarService;
 import sonar.view.SonarView;
@@ -19,13 +37,14 @@ import view.SetupView;
 import view.UiSnapshot;
 import view.View;
 import tof.model.TofState;
-import tof.services.TofService;
 
 import java.io.IOException;
-import java.lang.reflect.Method;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 import capteurs.controller.HumidityController;
@@ -42,23 +61,29 @@ public class Main {
     private static final int TELEOP_LOOP_MS = 50; // 20 FPS
     private static final double MAX_CMD = 1.0; // -1..1
     private static final int ROVER_RECONNECT_MS = 2000;
-
-    // ===== Alerte SONAR / Distance =====
-    private static final double OBSTACLE_ON_MM = 250.0;
-    private static final double OBSTACLE_OFF_DELTA_MM = 60.0;
-    private static final long SONAR_STALE_MS = 1200;
-
+    private static final int UI_UPDATE_MS = 200;
+    private static final int CONSOLE_MS = 100;
+    // Mode input: sans trame manette depuis 3 polls -> arrêt moteurs
+    private static final long INPUT_STALE_NS = 150_000_000L;
+    // Distance capteurs.update: ignorée sans nouvelle valeur depuis 500 ms
+    private static final long CAPTEURS_STALE_NS = 500_000_000L;
+    private static final int BUS_METRICS_DUMP_MS = 10_000;
+
+    // ===== Distance reçue sur capteurs.update (optionnelle) =====
     private static volatile double latestDistanceMm = Double.NaN;
-    private static volatile long latestDistanceAtMs = 0;
-
-    // Pour debug console SonarView
-    private static volatile SonarState latestSonarState = null;
-    private static volatile TofState latestTofLeft = null;
-    private static volatile TofState latestTofRight = null;
+    private static volatile long latestDistanceNanos = 0; // capture (nanoTime) de la dernière distance
 
     public static void main(String[] args) {
+        // -Drover.backend=sim: rover simulé à la place du hub Phidget (avant toute Connection)
+        SimulatedRover sim;
+        try {
+            sim = SimulatedRover.installFromProperties();
+        } catch (IOException e) {
+            System.out.println("[SIM] grotte illisible: " + e.getMessage());
+            return;
+        }
+
         MissionController mission = new MissionController();
-        mission.startNewMission();
 
         // Configuration rover via la vue de demarrage.
         RoverConfig defaults = new RoverConfig("10.18.1.152", 5661, "MaxRover", 4, 3, 2, 1, 5, 0);
@@ -103,8 +128,22 @@ public class Main {
         int sonarHubPort = config.sonarHubPort();
         int temperaturePort = config.temperaturePort();
         int lightHubPort = config.lightHubPort();
-        int tofLeftHubPort = config.tofLeftHubPort();
-        int tofRightHubPort = config.tofRightHubPort();
+        // Capteurs de distance du réseau: -Drover.ranges, sinon ToF gauche/droite de la config
+        List<RangeSensor> rangeSensors;
+        try {
+            rangeSensors = RangeSensor.fromProperties(config);
+        } catch (IllegalArgumentException e) {
+            System.out.println("[TOF] " + e.getMessage());
+            Platform.exit();
+            return;
+        }
+        if (sim != null) {
+            sim.mountDefaults(config);
+            sim.mountRanges(rangeSensors);
+        }
+        // Mission (et son journal) démarrée une fois le réseau de distance connu
+        mission.setRangeSensors(rangeSensors);
+        mission.startNewMission();
 
         // ===== CONFIG ROVER =====
         Connection connection = selectedConnection[0];
@@ -135,17 +174,22 @@ public class Main {
         ManetteView padView = new ManetteView();
         ManetteController pad = new ManetteController(padModel, padView);
 
+        // ===== SANTÉ CAPTEURS (cadence, jitter, péremption) =====
+        // Démarré avant les services: aucun premier échantillon manqué
+        SensorHealthMonitor health = new SensorHealthMonitor();
+        health.start();
+
         // ===== SONAR =====
         // HubPort sonar: adapte si besoin (tu avais 5)
         SonarService sonar = new SonarService(serverName, ip, port, sonarHubPort);
         SonarView sonarView = new SonarView(250);
         sonar.start();
 
-        // ===== TOF gauche/droite =====
-        TofService tofLeft = new TofService(serverName, ip, port, tofLeftHubPort, 0, "tof.left.update");
-        TofService tofRight = new TofService(serverName, ip, port, tofRightHubPort, 0, "tof.right.update");
-        tofLeft.start();
-        tofRight.start();
+        // ===== TOF: réseau de N capteurs, un seul agrégateur =====
+        RangeArrayService ranges = new RangeArrayService(serverName, ip, port, rangeSensors);
+        int tofLeftIndex = ranges.indexOf("left");
+        int tofRightIndex = ranges.indexOf("right");
+        ranges.start();
 
         // ===== Capteur température =====
         HumidityService humService = new HumidityService(serverName, ip, port, temperaturePort);
@@ -159,71 +203,275 @@ public class Main {
         LightView lightView = new LightView(500);
         lightService.start();
 
-        // ===== EventBus: récup distance + état sonar pour debug =====
-        Consumer<Object> sonarSubscriber = payload -> {
-            // 1) Si on reçoit directement un SonarState => on le garde pour affichage
-            if (payload instanceof SonarState s) {
-                latestSonarState = s;
-
-                // Distance pour l'alerte obstacle
-                double d = s.distanceMm();
-                if (!Double.isNaN(d) && d > 0) {
-                    latestDistanceMm = d;
-                    latestDistanceAtMs = System.currentTimeMillis();
-                }
-                return;
-            }
-
-            // 2) Sinon on tente d'extraire une distance (si quelqu'un publie un Number,
-            // etc.)
-            Double d = extractDistanceMm(payload);
-            if (d != null) {
-                latestDistanceMm = d;
-                latestDistanceAtMs = System.currentTimeMillis();
-            }
-        };
+        // ===== Cadences capteurs selon le mouvement (ms: en mouvement / à l'arrêt) =====
+        AdaptiveSampling sampling = new AdaptiveSampling(
+                () -> Math.max(Math.abs(roverModel.getLeftCmd()), Math.abs(roverModel.getRightCmd())))
+                .register(sonar, 100, 500)
+                .register(ranges, 40, 200)
+                .register(humService, 500, 2000)
+                .register(lightService, 500, 2000);
+        sampling.start();
+
+        // ===== Derniers états sonar/TOF =====
+        // Lus par polling dans les slots des services (sans allocation); les records
+        // SonarState/TofState ne sont construits qu'au rythme de l'IHM (~200 ms).
+        SensorSample sonarSample = new SensorSample();
+        SensorSample[] rangeSamples = new SensorSample[rangeSensors.size()];
+        for (int i = 0; i < rangeSamples.length; i++) {
+            rangeSamples[i] = new SensorSample();
+        }
 
-        EventBus.subscribe("sonar.update", sonarSubscriber);
+        // ===== FUSION: estimation unique des obstacles (alerte, vibration, mission, radar) =====
+        ObstacleFusion fusion = new ObstacleFusion();
+        int sonarInput = fusion.addSonar("sonar");
+        int[] rangeInputs = new int[rangeSensors.size()];
+        for (int i = 0; i < rangeInputs.length; i++) {
+            rangeInputs[i] = fusion.addTof(rangeSensors.get(i));
+        }
+        int capteursInput = fusion.addAuxiliary("capteurs");
 
         // (Optionnel) si votre distance vient aussi de capteurs.update
+        // Distance lue par DistanceSource / accesseur en cache (DistanceAccessors), sans réflexion par événement
         Consumer<Object> capteursSubscriber = payload -> {
-            Double d = extractDistanceMm(payload);
-            if (d != null) {
-                latestDistanceMm = d;
-                latestDistanceAtMs = System.currentTimeMillis();
+            if (DistanceAccessors.hasDistance(payload)) {
+                latestDistanceMm = DistanceAccessors.distanceMm(payload);
+                latestDistanceNanos = System.nanoTime();
             }
         };
         EventBus.subscribe("capteurs.update", capteursSubscriber);
 
-        Consumer<Object> tofLeftSubscriber = payload -> {
-            if (payload instanceof TofState s) {
-                latestTofLeft = s;
-            }
-        };
-        Consumer<Object> tofRightSubscriber = payload -> {
-            if (payload instanceof TofState s) {
-                latestTofRight = s;
-            }
-        };
-        EventBus.subscribe("tof.left.update", tofLeftSubscriber);
-        EventBus.subscribe("tof.right.update", tofRightSubscriber);
 
         // ===== START =====
         pad.startDebugLoop();
+        // Débit/latence EventBus dans la console (diagnostic jitter teleop)
+        EventBusMetrics.startReporter(BUS_METRICS_DUMP_MS);
+        SensorScheduler.startReporter(BUS_METRICS_DUMP_MS);
+        LatencyTrace.startReporter(BUS_METRICS_DUMP_MS);
+        // Cadence teleop à échéances fixes (le temps de travail du tour est compensé)
+        ControlLoop teleop = new ControlLoop("teleop", TELEOP_LOOP_MS);
+        teleop.startReporter(BUS_METRICS_DUMP_MS);
         tryConnectRover(rover);
 
-        long nextRoverReconnectAt = 0;
-        boolean obstacleActive = false;
-        long nextUiUpdateAt = 0;
         AtomicBoolean running = new AtomicBoolean(true);
+        // -Drover.teleop=input: moteurs pilotés à chaque poll manette; sinon (loop) par le thread de contrôle
+        boolean inputDriven = "input".equalsIgnoreCase(System.getProperty("rover.teleop", "loop"));
+        // Estimation obstacles publiée par le thread de contrôle au rythme de l'IHM (fusion mono-thread)
+        AtomicReference<ObstacleState> latestObstacle = new AtomicReference<>();
+        AtomicReference<SonarState> latestSonar = new AtomicReference<>();
+        // Fronts montants de l'alerte obstacle, relevés à chaque tour de contrôle (aucun n'est manqué)
+        ConcurrentLinkedQueue<ObstacleState> alertEdges = new ConcurrentLinkedQueue<>();
+
+        // ===== TÂCHES DE FOND (basse priorité, hors thread de contrôle) =====
+        // Une console lente, un rapport de mission en cours (verrou MissionController) ou un
+        // connect() bloquant ne retardent jamais une commande moteur.
+        SensorSample uiSonarSample = new SensorSample();
+        SensorSample[] uiRangeSamples = new SensorSample[rangeSensors.size()];
+        for (int i = 0; i < uiRangeSamples.length; i++) {
+            uiRangeSamples[i] = new SensorSample();
+        }
+        // Latence tracée seulement sur un nouvel échantillon sonar: rover à l'arrêt != hors budget
+        long[] uiTracedSeq = { -1 };
+        ScheduledTask uiTask = SensorScheduler.scheduleBackground("ui-snapshot", UI_UPDATE_MS, () -> {
+            ObstacleState obstacle = latestObstacle.get();
+            if (obstacle == null)
+                return; // pas encore de tour de contrôle
+            sonar.getSlot().read(uiSonarSample);
+            for (int i = 0; i < uiRangeSamples.length; i++) {
+                ranges.getSlot(i).read(uiRangeSamples[i]);
+            }
+            SonarState sonarState = toSonarState(uiSonarSample);
+            latestSonar.set(sonarState);
+            TofState tofLeftState = readTof(uiRangeSamples, tofLeftIndex);
+            TofState tofRightState = readTof(uiRangeSamples, tofRightIndex);
+            HumidityState humState = humController.getLatestState();
+            LightState lightState = lightController.getLatestState();
+            UiSnapshot snap = new UiSnapshot(
+                    roverModel.isConnected(),
+                    roverModel.getSpeedMode(),
+                    roverModel.isEmergencyStop(),
+                    roverModel.getLeftCmd(),
+                    roverModel.getRightCmd(),
+                    sonarState,
+                    tofLeftState,
+                    tofRightState,
+                    humState,
+                    lightState,
+                    obstacle,
+                    health.report(),
+                    System.currentTimeMillis());
+            long uiCapture = 0;
+            if (sonarState != null && uiSonarSample.sequence() != uiTracedSeq[0]) {
+                uiTracedSeq[0] = uiSonarSample.sequence();
+                uiCapture = sonarState.captureNanos();
+            }
+            long uiTraceCapture = uiCapture;
+            Platform.runLater(() -> {
+                ui.updateUi(snap);
+                LatencyTrace.record(LatencyTrace.Stage.UI, uiTraceCapture);
+            });
+        });
+
+        // --- Mission: stats + fil d'Ariane à la cadence teleop (commandes intégrées toutes les 50 ms) ---
+        // Tâche séparée: un rapport en cours (verrou mission) ne fige ni l'IHM ni les moteurs.
+        SensorSample missionSonarSample = new SensorSample();
+        long[] missionTracedSeq = { -1 };
+        SensorSample[] missionRangeSamples = new SensorSample[rangeSensors.size()];
+        for (int i = 0; i < missionRangeSamples.length; i++) {
+            missionRangeSamples[i] = new SensorSample();
+        }
+        ScheduledTask missionTask = SensorScheduler.scheduleBackground("mission", TELEOP_LOOP_MS, () -> {
+            sonar.getSlot().read(missionSonarSample);
+            for (int i = 0; i < missionRangeSamples.length; i++) {
+                ranges.getSlot(i).read(missionRangeSamples[i]);
+            }
+            SonarState sonarState = toSonarState(missionSonarSample);
+            mission.update(
+                    roverModel.getLeftCmd(),
+                    roverModel.getRightCmd(),
+                    sonarState,
+                    readTof(missionRangeSamples, tofLeftIndex),
+                    readTof(missionRangeSamples, tofRightIndex),
+                    humController.getLatestState(),
+                    lightController.getLatestState(),
+                    null); // chocs: fronts relevés par le thread de contrôle
+            ObstacleState edge;
+            while ((edge = alertEdges.poll()) != null) {
+                mission.recordShock(edge);
+            }
+            if (sonarState != null && missionSonarSample.sequence() != missionTracedSeq[0]) {
+                missionTracedSeq[0] = missionSonarSample.sequence();
+                LatencyTrace.record(LatencyTrace.Stage.MISSION, sonarState.captureNanos());
+            }
+        });
+
+        // --- Debug console (throttlé dans chaque vue) ---
+        ScheduledTask consoleTask = SensorScheduler.scheduleBackground("console", CONSOLE_MS, () -> {
+            roverView.render(roverModel);
+            lightView.renderConsole(lightController.getLatestState());
+            humView.renderConsole(humController.getLatestState());
+            sonarView.renderConsole(latestSonar.get());
+        });
+
+        // --- Reconnexion rover (connect() bloquant) ---
+        ScheduledTask reconnectTask = SensorScheduler.scheduleBackground("rover-reconnect", ROVER_RECONNECT_MS, () -> {
+            if (running.get() && padModel.isConnected() && !roverModel.isConnected()) {
+                tryConnectRover(rover);
+            }
+        });
+
+        // ===== TELEOP déclenchée par l'entrée (-Drover.teleop=input) =====
+        // Chaque poll manette complet pilote directement mapping + moteurs (thread de polling),
+        // sans attendre le tour suivant du thread de contrôle (un échantillonnage de moins).
+        Topic<InputFrame> inputTopic = EventBus.topic(ManetteController.INPUT_TOPIC, InputFrame.class);
+        Consumer<InputFrame> inputDriver = frame -> {
+            if (!running.get() || !padModel.isConnected())
+                return;
+            drive(padModel, rover, frame.rightTrigger(), frame.leftTrigger(), frame.leftX(), frame.modeVitesse(),
+                    frame.pollNanos());
+        };
+        // Clic B (voie CRITICAL): e-stop basculé dès le poll, sans attendre un tour de teleop
+        Topic<EmergencyStopClick> estopTopic = EventBus.topic(ManetteController.ESTOP_TOPIC,
+                EmergencyStopClick.class);
+        Consumer<EmergencyStopClick> estopDriver = click -> toggleEmergencyStop(padModel, rover);
+        estopTopic.subscribe(estopDriver);
+        if (inputDriven) {
+            inputTopic.subscribe(inputDriver);
+            System.out.println("[APP] Teleop déclenchée par l'entrée manette (rover.teleop=input).");
+        }
+
+        // ===== TELEOP: thread de contrôle dédié (manette -> moteurs, rien d'autre) =====
+        // En mode "input", il garde la sécurité (fusion, alertes, chien de garde) sans piloter les moteurs.
+        Thread control = new Thread(() -> {
+            long nextObstacleAt = 0;
+            boolean wasTooClose = false;
+            while (running.get()) {
+                // --- Fusion sonar + ToF (fraîcheur: moniteur de santé) ---
+                boolean sonarFresh = health.isFresh(SensorId.SONAR);
+                if (sonar.getSlot().read(sonarSample)) {
+                    fusion.observe(sonarInput, sonarSample, sonarFresh);
+                }
+                boolean rangesFresh = health.isFresh(SensorId.RANGES);
+                for (int i = 0; i < rangeSamples.length; i++) {
+                    if (ranges.getSlot(i).read(rangeSamples[i])) {
+                        fusion.observe(rangeInputs[i], rangeSamples[i], rangesFresh);
+                    }
+                }
+                // Distance "capteurs": valide seulement si elle est elle-même récente
+                long capteursNanos = latestDistanceNanos;
+                boolean capteursFresh = capteursNanos != 0 && System.nanoTime() - capteursNanos <= CAPTEURS_STALE_NS;
+                fusion.observe(capteursInput, latestDistanceMm, capteursFresh, capteursNanos);
+                boolean tooClose = fusion.fuse();
+                if (tooClose && !wasTooClose) {
+                    alertEdges.offer(fusion.snapshot()); // alloue seulement au front montant
+                }
+                wasTooClose = tooClose;
+
+                long now = System.currentTimeMillis();
+                if (now >= nextObstacleAt) {
+                    nextObstacleAt = now + UI_UPDATE_MS;
+                    latestObstacle.set(fusion.snapshot());
+                }
+
+                // --- Manette pas connectée -> stop rover ---
+                if (!padModel.isConnected()) {
+                    try {
+                        rover.stop();
+                    } catch (Exception ignored) {
+                    }
+
+                    padModel.setLinkLost(false);
+                    padModel.setObstacleTooClose(false);
 
-        // ===== TELEOP LOOP =====
+                    if (!teleop.awaitNextTick())
+                        break;
+                    continue;
+                }
+
+                // --- Perte de liaison rover (pour vibration "signal perdu"; reconnexion en tâche de fond) ---
+                boolean roverLinkOk = roverModel.isConnected();
+                padModel.setLinkLost(!roverLinkOk);
+
+                // --- Obstacle trop proche (fusion) => vibration côté manette ---
+                padModel.setObstacleTooClose(fusion.isTooClose(), fusion.captureNanos());
+
+                if (inputDriven) {
+                    // --- Chien de garde: plus de trame manette récente -> arrêt ---
+                    if (System.nanoTime() - padModel.getPollNanos() > INPUT_STALE_NS) {
+                        rover.stop();
+                    }
+                } else {
+                    drive(padModel, rover, padModel.getRightTrigger(), padModel.getLeftTrigger(),
+                            padModel.getLeftX(), padModel.getModeVitesse(), padModel.getPollNanos());
+                }
+
+                if (!teleop.awaitNextTick())
+                    break;
+            }
+            uiTask.cancel();
+            missionTask.cancel();
+            consoleTask.cancel();
+            reconnectTask.cancel();
+        }, "teleop-control");
+        control.setPriority(Thread.MAX_PRIORITY);
+
+        // ===== ARRÊT =====
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             running.set(false);
+            inputTopic.unsubscribe(inputDriver);
+            estopTopic.unsubscribe(estopDriver);
+            try {
+                control.join(2L * TELEOP_LOOP_MS); // dernier applyDriveCommand terminé avant stop()
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
             try {
                 rover.stop();
             } catch (Exception ignored) {
             }
+            try {
+                sampling.stop();
+            } catch (Exception ignored) {
+            }
             try {
                 humService.stop();
             } catch (Exception ignored) {
@@ -241,11 +489,7 @@ public class Main {
             } catch (Exception ignored) {
             }
             try {
-                tofLeft.stop();
-            } catch (Exception ignored) {
-            }
-            try {
-                tofRight.stop();
+                ranges.stop();
             } catch (Exception ignored) {
             }
             try {
@@ -256,180 +500,95 @@ public class Main {
                 lightController.dispose();
             } catch (Exception ignored) {
             }
-
             try {
-                EventBus.unsubscribe("sonar.update", sonarSubscriber);
+                health.stop();
             } catch (Exception ignored) {
             }
+
             try {
                 EventBus.unsubscribe("capteurs.update", capteursSubscriber);
             } catch (Exception ignored) {
             }
             try {
-                EventBus.unsubscribe("tof.left.update", tofLeftSubscriber);
+                humController.dispose();
             } catch (Exception ignored) {
             }
             try {
-                EventBus.unsubscribe("tof.right.update", tofRightSubscriber);
+                mission.closeJournal();
             } catch (Exception ignored) {
             }
-            try {
-                humController.dispose();
-            } catch (Exception ignored) {
+            if (sim != null) {
+                sim.stop();
             }
 
             System.out.println("[APP] Shutdown.");
         }));
 
-        while (running.get()) {
-            long now = System.currentTimeMillis();
-
-            // --- Debug rover (throttlé dans RoverView) ---
-            roverView.render(roverModel);
-
-            // --- Debug sonar (throttlé dans SonarView) ---
-            sonarView.renderConsole(latestSonarState);
-
-            lightView.renderConsole(lightController.getLatestState());
-
-            // --- Debug humidité/température ---
-            humView.renderConsole(humController.getLatestState());
-
-            // --- Mise � jour IHM JavaFX (toutes ~200 ms) ---
-            if (now >= nextUiUpdateAt) {
-                nextUiUpdateAt = now + 200;
-                HumidityState humState = humController.getLatestState();
-                LightState lightState = lightController.getLatestState();
-                UiSnapshot snap = new UiSnapshot(
-                        roverModel.isConnected(),
-                        roverModel.getSpeedMode(),
-                        roverModel.isEmergencyStop(),
-                        roverModel.getLeftCmd(),
-                        roverModel.getRightCmd(),
-                        latestSonarState,
-                        latestTofLeft,
-                        latestTofRight,
-                        humState,
-                        lightState);
-                mission.update(
-                        roverModel.getLeftCmd(),
-                        roverModel.getRightCmd(),
-                        latestSonarState,
-                        latestTofLeft,
-                        latestTofRight,
-                        humState,
-                        lightState);
-                Platform.runLater(() -> ui.updateUi(snap));
-            }
-
-            // --- Manette pas connectée -> stop rover ---
-            if (!padModel.isConnected()) {
-                try {
-                    rover.stop();
-                } catch (Exception ignored) {
-                }
-
-                padModel.setLinkLost(false);
-                padModel.setObstacleTooClose(false);
-                obstacleActive = false;
-
-                sleep(TELEOP_LOOP_MS);
-                continue;
-            }
-
-            // --- Perte de liaison rover (pour vibration "signal perdu") ---
-            boolean roverLinkOk = roverModel.isConnected();
-            padModel.setLinkLost(!roverLinkOk);
-
-            if (!roverLinkOk && now >= nextRoverReconnectAt) {
-                nextRoverReconnectAt = now + ROVER_RECONNECT_MS;
-                tryConnectRover(rover);
-            }
-
-            // --- SONAR: obstacle trop proche => vibration côté manette ---
-            boolean obstacleTooClose = computeObstacleTooClose(now, obstacleActive);
-            obstacleActive = obstacleTooClose;
-            padModel.setObstacleTooClose(obstacleTooClose);
-
-            // --- B (clic) = E-STOP toggle (ON/OFF) ---
-            if (padModel.consumeEmergencyStopClick()) {
-                if (rover.isEmergencyStop())
-                    rover.resetEmergencyStop();
-                else
-                    rover.emergencyStop();
-            }
-
-            // --- Mode vitesse (LB = lent) ---
-            rover.setSpeedMode(
-                    padModel.getModeVitesse() == ManetteModel.ModeVitesse.LENTE
-                            ? RoverModel.SpeedMode.SLOW
-                            : RoverModel.SpeedMode.NORMAL);
-
-            // --- Mapping gâchettes -> vitesse ; LeftX -> direction ---
-            double rt = padModel.getRightTrigger(); // 0..1
-            double lt = padModel.getLeftTrigger(); // 0..1
-            double throttle = clamp(rt - lt, -MAX_CMD, MAX_CMD);
-
-            // Rotation: deadzone + courbe cubique + gain plus doux + atténuation avec la
-            // vitesse
-            // Rotation: deadzone + courbe cubique + gain plus doux + atténuation avec la
-            // vitesse
-            double turnRaw = padModel.getLeftX(); // -1..1
-            if (Math.abs(turnRaw) < 0.12)
-                turnRaw = 0.0;
-            double turn = turnRaw * Math.abs(turnRaw) * Math.abs(turnRaw); // cubique pour plus de finesse
-            turn *= 0.8; // gain rotation global plus doux
-            turn *= (0.5 + 0.5 * (1 - Math.abs(throttle))); // réduit la rotation quand on roule vite
-            turn = clamp(turn, -0.8, 0.8); // évite les pivots brutaux
-
-            double left = clamp(throttle + turn, -MAX_CMD, MAX_CMD);
-            double right = clamp(throttle - turn, -MAX_CMD, MAX_CMD);
-            rover.applyDriveCommand(left, right);
-
-            sleep(TELEOP_LOOP_MS);
+        control.start();
+        try {
+            control.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
-    private static boolean computeObstacleTooClose(long now, boolean wasActive) {
-        if (now - latestDistanceAtMs > SONAR_STALE_MS)
-            return false;
-
-        double d = latestDistanceMm;
-        if (Double.isNaN(d) || d <= 0)
-            return false;
+    /**
+     * Manette -> moteurs: e-stop (clic B), mode vitesse, mapping gâchettes/stick, envoi.
+     * Appelé par le thread de contrôle (mode "loop") ou par le thread de polling manette (mode "input").
+     */
+    private static synchronized void drive(ManetteModel padModel, RoverController rover, double rt, double lt,
+            double turnRaw, ManetteModel.ModeVitesse mode, long pollNanos) {
+        // --- B (clic) = E-STOP toggle (ON/OFF), si la voie CRITICAL ne l'a pas déjà traité ---
+        toggleEmergencyStop(padModel, rover);
+
+        // --- Mode vitesse (LB = lent) ---
+        rover.setSpeedMode(
+                mode == ManetteModel.ModeVitesse.LENTE
+                        ? RoverModel.SpeedMode.SLOW
+                        : RoverModel.SpeedMode.NORMAL);
+
+        // --- Mapping gâchettes -> vitesse ; LeftX -> direction ---
+        double throttle = clamp(rt - lt, -MAX_CMD, MAX_CMD); // rt, lt: 0..1
+
+        // Rotation: deadzone + courbe cubique + gain plus doux + atténuation avec la
+        // vitesse
+        if (Math.abs(turnRaw) < 0.12) // turnRaw: -1..1
+            turnRaw = 0.0;
+        double turn = turnRaw * Math.abs(turnRaw) * Math.abs(turnRaw); // cubique pour plus de finesse
+        turn *= 0.8; // gain rotation global plus doux
+        turn *= (0.5 + 0.5 * (1 - Math.abs(throttle))); // réduit la rotation quand on roule vite
+        turn = clamp(turn, -0.8, 0.8); // évite les pivots brutaux
+
+        double left = clamp(throttle + turn, -MAX_CMD, MAX_CMD);
+        double right = clamp(throttle - turn, -MAX_CMD, MAX_CMD);
+        rover.applyDriveCommand(left, right, pollNanos);
+    }
 
-        if (!wasActive)
-            return d <= OBSTACLE_ON_MM;
-        return d <= (OBSTACLE_ON_MM + OBSTACLE_OFF_DELTA_MM);
+    /** B (clic) = E-STOP toggle (ON/OFF). Le clic n'est consommé qu'une fois (voie CRITICAL ou drive()). */
+    private static synchronized void toggleEmergencyStop(ManetteModel padModel, RoverController rover) {
+        if (padModel.consumeEmergencyStopClick()) {
+            if (rover.isEmergencyStop())
+                rover.resetEmergencyStop();
+            else
+                rover.emergencyStop();
+        }
     }
 
-    private static Double extractDistanceMm(Object payload) {
-        if (payload == null)
+    private static SonarState toSonarState(SensorSample s) {
+        if (s.sequence() == 0)
             return null;
+        return new SonarState(s.value0(), s.value1(), -1.0, s.attached(), s.timestampMs(), s.captureNanos(),
+                s.lastError());
+    }
 
-        if (payload instanceof Number n)
-            return n.doubleValue();
-
-        Double d = invokeDouble(payload, "distanceMm");
-        if (d != null)
-            return d;
-
-        d = invokeDouble(payload, "getDistanceMm");
-        if (d != null)
-            return d;
-
-        return null;
+    /** ToF nommé du réseau (null s'il n'est pas déclaré ou jamais lu). */
+    private static TofState readTof(SensorSample[] samples, int index) {
+        return index >= 0 && samples[index].sequence() > 0 ? toTofState(samples[index]) : null;
     }
 
-    private static Double invokeDouble(Object obj, String methodName) {
-        try {
-            Method m = obj.getClass().getMethod(methodName);
-            Object v = m.invoke(obj);
-            if (v instanceof Number n)
-                return n.doubleValue();
-        } catch (Throwable ignored) {
-        }
-        return null;
+    private static TofState toTofState(SensorSample s) {
+        return new TofState(s.value0(), s.value1(), s.attached(), s.timestampMs(), s.captureNanos(),
+                s.lastError());
     }
 
     private static void tryConnectRover(RoverController rover) {
@@ -440,14 +599,6 @@ public class Main {
         }
     }
 
-    private static void sleep(int ms) {
-        try {
-            Thread.sleep(ms);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-    }
-
     private static double clamp(double v, double min, double max) {
         return Math.max(min, Math.min(max, v));
     }
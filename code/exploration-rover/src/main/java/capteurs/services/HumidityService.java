@@ -1,17 +1,18 @@
 package capteurs.services;
 
-import com.phidget22.HumiditySensor;
-import com.phidget22.Net;
-import com.phidget22.PhidgetException;
-import com.phidget22.TemperatureSensor;
 import common.EventBus;
+import common.PhidgetSensorService;
+import common.SensorException;
+import common.SensorSource;
+import common.Topic;
+import common.TopicPriority;
 import capteurs.model.HumidityState;
 import capteurs.model.TemperatureStatus;
 
 /**
  * Service bas niveau : lit le HUM1000_0 et publie "humidity.update".
  */
-public class HumidityService {
+public class HumidityService extends PhidgetSensorService {
 
     private static final int DEFAULT_PORT = 5661;
     private static final int DEFAULT_HUB_PORT = 0;
@@ -21,17 +22,16 @@ public class HumidityService {
     private static final double TEMP_TOO_LOW_C = 0.0;
     private static final double TEMP_TOO_HIGH_C = 40.0;
 
-    private final String serverName;
-    private final String ip;
-    private final int port;
     private final int hubPort;
 
-    private volatile boolean running = false;
+    // Environnement (500 ms): voie basse priorité, coalescée sous charge
+    private final Topic<HumidityState> topic = EventBus.topic("humidity.update", HumidityState.class)
+            .setPriority(TopicPriority.LOW);
 
-    private HumiditySensor humidity;
-    private TemperatureSensor temperature;
-    private TemperatureStatus tempStatus = TemperatureStatus.OK;
+    private volatile SensorSource humidity;
+    private volatile SensorSource temperature;
 
+    // Dernières valeurs valides, conservées pendant une coupure
     private double lastHumidity = Double.NaN;
     private double lastTemperature = Double.NaN;
 
@@ -40,133 +40,72 @@ public class HumidityService {
     }
 
     public HumidityService(String serverName, String ip, int port, int hubPort) {
-        this.serverName = serverName;
-        this.ip = ip;
-        this.port = port;
+        super("HUM", "humidity", "humidity.update", LOOP_MS, serverName, ip, port);
         this.hubPort = hubPort;
     }
 
-    public synchronized void start() {
-        if (running)
-            return;
-        running = true;
-
-        Thread t = new Thread(() -> {
-            System.out.printf("[HUM] Service démarré server=%s ip=%s:%d hubPort=%d%n",
-                    serverName, ip, port, hubPort);
-
-            while (running) {
-                long ts = System.currentTimeMillis();
-                boolean attached = false;
-                String err = null;
-
-                try {
-                    ensureOpen();
-
-                    if (humidity == null || temperature == null) {
-                        err = "phidget not open";
-                    } else {
-                        
-                            try {
-                                attached = humidity.getAttached() && temperature.getAttached();
-                            } catch (Throwable ignored) {
-                            }
-
-                            try {
-                                double h = humidity.getHumidity();
-                                if (!Double.isNaN(h))
-                                    lastHumidity = h;
-                            } catch (PhidgetException e) {
-                                err = "humidity read: " + e.getDescription() + " (code=" + e.getErrorCode() + ")";
-                            }
-
-                            try {
-                                double tC = temperature.getTemperature();
-                                if (!Double.isNaN(tC))
-                                    lastTemperature = tC;
-
-                                if (tC > TEMP_TOO_HIGH_C) {
-                                    tempStatus = TemperatureStatus.TOO_HIGH;
-                                } else if (tC < TEMP_TOO_LOW_C) {
-                                    tempStatus = TemperatureStatus.TOO_LOW;
-                                }
-                            } catch (PhidgetException e) {
-                                err = "temperature read: " + e.getDescription() + " (code=" + e.getErrorCode() + ")";
-                         }
-                        
-                    }
-                } catch (PhidgetException e) {
-                    err = "humidity error: " + e.getDescription() + " (code=" + e.getErrorCode() + ")";
-                    safeClose();
-                } catch (Throwable t0) {
-                    err = "humidity error: " + t0.getClass().getSimpleName() + " - " + t0.getMessage();
-                    safeClose();
-                }
-
-                TemperatureStatus tempStatus = computeTemperatureStatus(lastTemperature, attached);
-
-                HumidityState state = new HumidityState(
-                        lastHumidity,
-                        lastTemperature,
-                        tempStatus,
-                        attached,
-                        ts,
-                        err);
-
-                EventBus.publish("humidity.update", state);
-
-                sleep(LOOP_MS);
-            }
-
-            safeClose();
-            System.out.println("[HUM] Service arrêté.");
-        });
-
-        t.setDaemon(true);
-        t.start();
-
+    @Override
+    protected boolean isOpen() {
+        return humidity != null && temperature != null;
     }
 
-    public synchronized void stop() {
-        running = false;
-    }
+    @Override
+    protected void sample(long ts) throws SensorException {
+        SensorSource h = humidity;
+        SensorSource t = temperature;
+        boolean attached = h.isAttached() && t.isAttached();
+        String err = null;
 
-    private void ensureOpen() throws PhidgetException {
-        if (humidity != null && temperature != null)
-            return;
+        try {
+            double v = h.read();
+            if (!Double.isNaN(v))
+                lastHumidity = v;
+        } catch (SensorException e) {
+            err = "humidity read: " + e.getDescription() + " (code=" + e.getErrorCode() + ")";
+        }
 
         try {
-            Net.addServer(serverName, ip, port, "", 0);
-        } catch (PhidgetException ignored) {
+            double tC = t.read();
+            if (!Double.isNaN(tC))
+                lastTemperature = tC;
+        } catch (SensorException e) {
+            err = "temperature read: " + e.getDescription() + " (code=" + e.getErrorCode() + ")";
         }
 
-        HumiditySensor h = new HumiditySensor();
-        h.setServerName(serverName);
-        h.setHubPort(hubPort);
-        h.setChannel(HUMIDITY_CHANNEL);
+        publish(attached, ts, err);
+    }
+
+    @Override
+    protected void publishError(long ts, String err) {
+        publish(false, ts, err);
+    }
 
-        TemperatureSensor t = new TemperatureSensor();
-        t.setServerName(serverName);
-        t.setHubPort(hubPort);
-        t.setChannel(TEMPERATURE_CHANNEL);
+    private void publish(boolean attached, long ts, String err) {
+        topic.publish(new HumidityState(
+                lastHumidity,
+                lastTemperature,
+                computeTemperatureStatus(lastTemperature, attached),
+                attached,
+                ts,
+                err));
+    }
+
+    @Override
+    protected void open() throws SensorException {
+        SensorSource h = backend().humidity(hubPort, HUMIDITY_CHANNEL);
+        SensorSource t = backend().temperature(hubPort, TEMPERATURE_CHANNEL);
 
         try {
             h.open(5000);
             t.open(5000);
-        } catch (PhidgetException e) {
-            try {
-                h.close();
-            } catch (Exception ignored) {
-            }
-            try {
-                t.close();
-            } catch (Exception ignored) {
-            }
+        } catch (SensorException e) {
+            closeChannel(h);
+            closeChannel(t);
             throw e;
         }
 
-        humidity = h;
         temperature = t;
+        humidity = h;
 
         System.out.printf("[HUM] Ouvert OK server=%s ip=%s:%d hubPort=%d%n",
                 serverName, ip, port, hubPort);
@@ -185,26 +124,13 @@ public class HumidityService {
         return TemperatureStatus.OK;
     }
 
-    private void safeClose() {
-        try {
-            if (humidity != null)
-                humidity.close();
-        } catch (Exception ignored) {
-        }
-        try {
-            if (temperature != null)
-                temperature.close();
-        } catch (Exception ignored) {
-        }
+    @Override
+    protected void close() {
+        SensorSource h = humidity;
+        SensorSource t = temperature;
         humidity = null;
         temperature = null;
-    }
-
-    private void sleep(int ms) {
-        try {
-            Thread.sleep(ms);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        closeChannel(h);
+        closeChannel(t);
     }
 }
@@ -0,0 +1,80 @@
+package common;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Cadence des capteurs adaptée au mouvement du rover.
+ * En mouvement: capteurs de distance à leur cadence rapide (réactivité de l'alerte obstacle).
+ * À l'arrêt (après IDLE_HOLD_MS sans commande): cadences lentes, y compris environnement
+ * (moins de trafic sur le hub, moins de CPU).
+ * Le passage en MOVING est immédiat, le retour en IDLE temporisé (hystérésis).
+ */
+public final class AdaptiveSampling {
+
+    private static final int EVAL_MS = 100;
+    private static final double MOTION_THRESHOLD = 0.05; // |commande| au-delà = en mouvement
+    private static final long IDLE_HOLD_MS = 2000;
+
+    public enum Mode {
+        MOVING,
+        IDLE
+    }
+
+    private record Profile(PhidgetSensorService service, long movingMs, long idleMs) {
+    }
+
+    private final DoubleSupplier motion; // |commande| moteur 0..1
+    private final List<Profile> profiles = new CopyOnWriteArrayList<>();
+
+    private ScheduledTask task;
+    private volatile Mode mode;
+    private long lastMotionAtMs = 0;
+
+    public AdaptiveSampling(DoubleSupplier motion) {
+        this.motion = motion;
+    }
+
+    /** Enregistre un capteur avec ses périodes en mouvement / à l'arrêt (ms). */
+    public AdaptiveSampling register(PhidgetSensorService service, long movingMs, long idleMs) {
+        profiles.add(new Profile(service, movingMs, idleMs));
+        Mode m = mode;
+        if (m != null)
+            service.setPeriodMs(m == Mode.MOVING ? movingMs : idleMs);
+        return this;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public synchronized void start() {
+        if (task != null)
+            return;
+        task = SensorScheduler.schedule("adaptive-rate", EVAL_MS, this::evaluate);
+    }
+
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    private void evaluate() {
+        long now = System.currentTimeMillis();
+        if (Math.abs(motion.getAsDouble()) > MOTION_THRESHOLD)
+            lastMotionAtMs = now;
+
+        Mode next = now - lastMotionAtMs <= IDLE_HOLD_MS ? Mode.MOVING : Mode.IDLE;
+        if (next == mode)
+            return;
+        mode = next;
+        for (Profile p : profiles) {
+            p.service().setPeriodMs(next == Mode.MOVING ? p.movingMs() : p.idleMs());
+        }
+        System.out.println("[RATE] " + next + " -> cadences capteurs "
+                + (next == Mode.MOVING ? "rapides" : "réduites"));
+    }
+}
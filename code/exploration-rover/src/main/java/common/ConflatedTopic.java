@@ -0,0 +1,80 @@
+package common;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Dernière valeur publiée sur un topic ("latest value"), lisible par polling
+ * sans s'abonner. Chaque {@link Topic} en possède une: publier = un compteur de séquence
+ * + une référence (valeur, séquence).
+ * Un service qui évite d'allouer son payload faute d'abonnés ne fait que {@link #touch()}:
+ * la valeur est alors reconstruite à la lecture par la source fournie.
+ * La valeur retenue ne recule jamais: elle n'est remplacée (CAS) que par une séquence plus récente,
+ * qu'elle vienne d'un publieur ou d'un lecteur qui matérialise la source.
+ */
+public final class ConflatedTopic<T> {
+
+    private final String name;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicReference<Value<T>> latest = new AtomicReference<>(new Value<>(null, 0));
+    private volatile Supplier<? extends T> source;
+
+    /** Valeur et séquence à laquelle elle a été fixée (mises à jour ensemble). */
+    private record Value<T>(T payload, long sequence) {
+    }
+
+    ConflatedTopic(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    void set(T payload) {
+        install(new Value<>(payload, sequence.incrementAndGet()));
+    }
+
+    void setSource(Supplier<? extends T> source) {
+        this.source = source;
+    }
+
+    /** Publication sans payload: la prochaine lecture passe par la source. */
+    void touch() {
+        sequence.incrementAndGet();
+    }
+
+    /** Dernier payload publié, ou null si rien n'a encore été publié. */
+    public T get() {
+        Value<T> v = latest.get();
+        Supplier<? extends T> s = source;
+        long seq = sequence.get();
+        if (s == null || v.sequence() >= seq)
+            return v.payload();
+        // Valeur de la source au moins aussi récente que seq; si une publication plus récente
+        // est déjà retenue, c'est elle qui est lue (tous les lecteurs voient la même valeur)
+        return install(new Value<>(s.get(), seq)).payload();
+    }
+
+    /** Remplace la valeur retenue seulement par une séquence plus récente; retourne la valeur retenue. */
+    private Value<T> install(Value<T> next) {
+        Value<T> cur = latest.get();
+        while (cur.sequence() < next.sequence()) {
+            if (latest.compareAndSet(cur, next))
+                return next;
+            cur = latest.get();
+        }
+        return cur;
+    }
+
+    /** Nombre de publications depuis le démarrage (0 = jamais publié). */
+    public long sequence() {
+        return sequence.get();
+    }
+
+    /** Retourne la dernière valeur si elle est plus récente que lastSeenSequence, sinon null. */
+    public T getIfNewer(long lastSeenSequence) {
+        return sequence.get() > lastSeenSequence ? get() : null;
+    }
+}
@@ -0,0 +1,153 @@
+package common;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Cadence fixe à échéances pour une boucle de contrôle (teleop): les échéances sont
+ * start + k * période, le temps de travail du tour est donc compensé (pas de dérive comme
+ * avec "travail puis sleep(période)").
+ * - attente: park jusqu'à ~SPIN_NS de l'échéance puis attente active (précision sub-ms)
+ * - dépassement (travail fini après l'échéance suivante): le tour suivant part aussitôt, sans
+ *   rattrapage en rafale; la grille est recalée et les tours sautés sont comptés
+ * - métriques sans allocation: période réelle, jitter (retard au réveil), durée du travail
+ * Utilisation: appeler {@link #awaitNextTick()} à la fin de chaque tour, depuis un seul thread.
+ */
+public final class ControlLoop {
+
+    public record LoopMetrics(
+            String loop,
+            long periodMs,
+            long ticks,
+            long overruns,
+            long skipped,
+            long periodP50Micros,
+            long periodP99Micros,
+            long periodMaxMicros,
+            long jitterP99Micros,
+            long jitterMaxMicros,
+            long workP99Micros,
+            long workMaxMicros) {
+    }
+
+    private static final long SPIN_NS = 200_000; // dernière portion attendue en actif
+
+    private final String name;
+    private volatile long periodNs;
+
+    private final LatencyHistogram period = new LatencyHistogram();
+    private final LatencyHistogram jitter = new LatencyHistogram();
+    private final LatencyHistogram work = new LatencyHistogram();
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder overruns = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    // Thread de la boucle uniquement
+    private long deadlineNs = 0; // échéance du tour en cours
+    private long tickStartNs = 0;
+    private long lastStartNs = 0;
+
+    private ScheduledTask reporter;
+
+    public ControlLoop(String name, long periodMs) {
+        this.name = name;
+        this.periodNs = Math.max(1, periodMs) * 1_000_000L;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long periodMs() {
+        return periodNs / 1_000_000L;
+    }
+
+    /** Nouvelle période, appliquée à partir de la prochaine échéance. */
+    public void setPeriodMs(long periodMs) {
+        this.periodNs = Math.max(1, periodMs) * 1_000_000L;
+    }
+
+    /**
+     * Fin du tour: attend l'échéance suivante (ou repart aussitôt si elle est dépassée).
+     * Retourne false si le thread a été interrompu pendant l'attente (flag conservé).
+     */
+    public boolean awaitNextTick() {
+        long p = periodNs;
+        long now = System.nanoTime();
+        if (deadlineNs == 0) {
+            deadlineNs = now; // premier appel: la grille part d'ici
+        } else {
+            work.recordNanos(now - tickStartNs);
+        }
+
+        long next = deadlineNs + p;
+        if (now >= next) {
+            overruns.increment();
+            long late = (now - deadlineNs) / p - 1; // échéances entièrement manquées
+            if (late > 0)
+                skipped.add(late);
+            next = now;
+        } else {
+            long remaining;
+            while ((remaining = next - System.nanoTime()) > 0) {
+                if (remaining > SPIN_NS) {
+                    LockSupport.parkNanos(remaining - SPIN_NS);
+                } else {
+                    Thread.onSpinWait();
+                }
+                if (Thread.currentThread().isInterrupted())
+                    return false;
+            }
+        }
+
+        long start = System.nanoTime();
+        jitter.recordNanos(start - next);
+        if (lastStartNs != 0)
+            period.recordNanos(start - lastStartNs);
+        lastStartNs = start;
+        tickStartNs = start;
+        deadlineNs = next;
+        ticks.increment();
+        return true;
+    }
+
+    public LoopMetrics snapshot() {
+        return new LoopMetrics(name, periodMs(), ticks.sum(), overruns.sum(), skipped.sum(),
+                period.percentileMicros(50), period.percentileMicros(99), period.maxMicros(),
+                jitter.percentileMicros(99), jitter.maxMicros(), work.percentileMicros(99), work.maxMicros());
+    }
+
+    public static String format(LoopMetrics m) {
+        return String.format(Locale.US,
+                "[CTRL] %-10s period=%dms ticks=%d overruns=%d skipped=%d period.p50=%dus p99=%dus max=%dus"
+                        + " jitter.p99=%dus max=%dus work.p99=%dus max=%dus%n",
+                m.loop(), m.periodMs(), m.ticks(), m.overruns(), m.skipped(), m.periodP50Micros(),
+                m.periodP99Micros(), m.periodMaxMicros(), m.jitterP99Micros(), m.jitterMaxMicros(),
+                m.workP99Micros(), m.workMaxMicros());
+    }
+
+    public void reset() {
+        period.reset();
+        jitter.reset();
+        work.reset();
+        ticks.reset();
+        overruns.reset();
+        skipped.reset();
+    }
+
+    /** Dump console périodique, sur le thread des tâches de fond (app-bg). */
+    public synchronized void startReporter(int periodMs) {
+        if (reporter != null)
+            return;
+        long p = Math.max(1000, periodMs);
+        reporter = SensorScheduler.scheduleBackground("ctrl-report." + name, p, () -> System.out.print(format(snapshot())));
+    }
+
+    public synchronized void stopReporter() {
+        if (reporter != null) {
+            reporter.cancel();
+            reporter = null;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package common;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Lecture de la distance d'un payload quelconque (ex: "capteurs.update").
+ * - {@link DistanceSource} et Number: appel direct
+ * - autre classe: accesseur public distanceMm() / getDistanceMm() résolu une seule fois par classe
+ *   en MethodHandle (ClassValue), absence comprise: un payload sans distance ne coûte plus
+ *   ni getMethod() ni exception à chaque événement
+ */
+public final class DistanceAccessors {
+
+    private static final MethodType GETTER = MethodType.methodType(double.class, Object.class);
+    private static final String[] NAMES = { "distanceMm", "getDistanceMm" };
+
+    // Résultat négatif en cache: (Object) -> NaN
+    private static final MethodHandle NONE = MethodHandles.dropArguments(
+            MethodHandles.constant(double.class, Double.NaN), 0, Object.class);
+
+    private static final ClassValue<MethodHandle> CACHE = new ClassValue<>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> type) {
+            return resolve(type);
+        }
+    };
+
+    private DistanceAccessors() {
+    }
+
+    /** true si le payload expose une distance (interface, Number ou accesseur public). */
+    public static boolean hasDistance(Object payload) {
+        if (payload == null)
+            return false;
+        if (payload instanceof DistanceSource || payload instanceof Number)
+            return true;
+        return CACHE.get(payload.getClass()) != NONE;
+    }
+
+    /** Distance du payload en mm, NaN si absente ou illisible. */
+    public static double distanceMm(Object payload) {
+        if (payload instanceof DistanceSource ds)
+            return ds.distanceMm();
+        if (payload instanceof Number n)
+            return n.doubleValue();
+        if (payload == null)
+            return Double.NaN;
+        MethodHandle getter = CACHE.get(payload.getClass());
+        if (getter == NONE)
+            return Double.NaN;
+        try {
+            return (double) getter.invokeExact(payload);
+        } catch (Throwable t) {
+            return Double.NaN; // l'accesseur lui-même a échoué (pas un simple "absent")
+        }
+    }
+
+    private static MethodHandle resolve(Class<?> type) {
+        for (String name : NAMES) {
+            try {
+                Method m = type.getMethod(name);
+                if (Modifier.isStatic(m.getModifiers()))
+                    continue;
+                MethodHandle h = MethodHandles.publicLookup().unreflect(m);
+                Class<?> rt = m.getReturnType();
+                if (rt.isPrimitive() && rt != boolean.class && rt != char.class && rt != void.class) {
+                    return h.asType(GETTER);
+                }
+                if (Number.class.isAssignableFrom(rt)) {
+                    MethodHandle toDouble = MethodHandles.lookup().findStatic(DistanceAccessors.class,
+                            "toDouble", MethodType.methodType(double.class, Number.class));
+                    return MethodHandles.filterReturnValue(h.asType(h.type().changeReturnType(Number.class)),
+                            toDouble).asType(GETTER);
+                }
+            } catch (NoSuchMethodException | IllegalAccessException ignored) {
+                // essai suivant
+            }
+        }
+        return NONE;
+    }
+
+    /** Number (éventuellement null) -> double. */
+    private static double toDouble(Number n) {
+        return n == null ? Double.NaN : n.doubleValue();
+    }
+}
@@ -0,0 +1,165 @@
+package common;
+
+/**
+ * Filtre en flux pour une distance (mm), sans allocation par échantillon.
+ * Étages, dans l'ordre (chacun désactivable par sa config):
+ * 1. rejet des aberrations: écart à la médiane de la fenêtre > gate => remplacé par la médiane
+ *    (si l'écart persiste plus d'une demi-fenêtre, c'est un vrai saut: le filtre repart de la mesure)
+ * 2. médiane glissante sur N (buffer circulaire de primitives)
+ * 3. moyenne exponentielle (alpha < 1)
+ * 4. Kalman 1D (distance supposée constante + bruit de process proportionnel au temps écoulé)
+ * Mesure absente (NaN): on garde la dernière valeur filtrée, puis remise à zéro après N absences.
+ * Non thread-safe: un filtre par capteur, appelé depuis le point d'écriture sérialisé du service.
+ */
+public final class DistanceFilter {
+
+    /**
+     * medianWindow: taille de la fenêtre (1 = pas de médiane, max 15)
+     * outlierGateMm / outlierGateRel: écart toléré à la médiane = max(mm, rel * médiane), 0 = pas de rejet
+     * emaAlpha: poids de la nouvelle mesure (1 = pas de lissage)
+     * kalmanQ: bruit de process (mm²/s), 0 = pas de Kalman; kalmanR: bruit de mesure (mm²)
+     */
+    public record Config(int medianWindow, double outlierGateMm, double outlierGateRel, double emaAlpha,
+            double kalmanQ, double kalmanR) {
+
+        /** Sonar DST1200 (~10 Hz): médiane 5 + rejet des échos parasites + EMA légère. */
+        public static final Config SONAR = new Config(5, 150, 0.25, 0.6, 0, 0);
+        /**
+         * DST1001 (25 Hz): médiane 3 + Kalman (bruit ~5 mm). Q = 400 mm²/s donne un gain stable
+         * ~0.55 à 40 ms (constante de temps ~2 échantillons); un vrai saut passe par le relock.
+         */
+        public static final Config TOF = new Config(3, 80, 0.3, 1.0, 400, 25);
+        /** Valeurs brutes. */
+        public static final Config NONE = new Config(1, 0, 0, 1.0, 0, 0);
+
+        public Config {
+            if (medianWindow < 1 || medianWindow > 15)
+                throw new IllegalArgumentException("medianWindow hors [1, 15]: " + medianWindow);
+            if (!(emaAlpha > 0 && emaAlpha <= 1))
+                throw new IllegalArgumentException("emaAlpha hors ]0, 1]: " + emaAlpha);
+        }
+    }
+
+    private final Config config;
+    private final double[] window;
+    private final double[] sorted; // tampon de tri réutilisé
+    private final int relockAfter;
+    private int count = 0;
+    private int head = 0;
+    private int misses = 0;
+    private int streak = 0; // aberrations consécutives
+
+    private double ema = Double.NaN;
+    private double kx = Double.NaN; // estimée Kalman
+    private double kp = 0; // variance de l'estimée
+    private long lastTs = 0;
+    private double last = Double.NaN;
+    private long rejected = 0;
+
+    public DistanceFilter(Config config) {
+        this.config = config;
+        this.window = new double[config.medianWindow()];
+        this.sorted = new double[config.medianWindow()];
+        this.relockAfter = Math.max(2, config.medianWindow() / 2 + 1);
+    }
+
+    public Config config() {
+        return config;
+    }
+
+    /** Ajoute une mesure brute (mm, NaN si absente) et renvoie la valeur filtrée. */
+    public double update(double raw, long timestampMs) {
+        if (Double.isNaN(raw) || raw <= 0) {
+            if (++misses >= window.length) {
+                reset();
+            }
+            return last;
+        }
+        misses = 0;
+
+        double x = raw;
+        if (count == window.length && config.outlierGateMm() > 0) {
+            double med = median();
+            double gate = Math.max(config.outlierGateMm(), config.outlierGateRel() * med);
+            if (Math.abs(x - med) <= gate) {
+                streak = 0;
+            } else if (++streak < relockAfter) {
+                rejected++; // mesure isolée: aberration
+                x = med;
+            } else {
+                // écart persistant: vrai saut de distance (virage, obstacle qui surgit), on repart de la mesure
+                relock();
+            }
+        }
+
+        window[head] = x;
+        head = (head + 1) % window.length;
+        if (count < window.length)
+            count++;
+        double y = window.length > 1 ? median() : x;
+
+        if (config.emaAlpha() < 1.0) {
+            ema = Double.isNaN(ema) ? y : ema + config.emaAlpha() * (y - ema);
+            y = ema;
+        }
+
+        if (config.kalmanQ() > 0) {
+            if (Double.isNaN(kx)) {
+                kx = y;
+                kp = config.kalmanR();
+            } else {
+                double dt = Math.max(0.001, (timestampMs - lastTs) / 1000.0);
+                kp += config.kalmanQ() * dt;
+                double k = kp / (kp + config.kalmanR());
+                kx += k * (y - kx);
+                kp *= (1 - k);
+            }
+            y = kx;
+        }
+
+        lastTs = timestampMs;
+        last = y;
+        return y;
+    }
+
+    /** Dernière valeur filtrée (NaN si aucune). */
+    public double last() {
+        return last;
+    }
+
+    /** Mesures remplacées par la médiane depuis la création. */
+    public long rejected() {
+        return rejected;
+    }
+
+    /** Oublie l'historique (capteur détaché, erreur, nouvelle mission). */
+    public void reset() {
+        relock();
+        misses = 0;
+        last = Double.NaN;
+    }
+
+    private void relock() {
+        count = 0;
+        head = 0;
+        streak = 0;
+        ema = Double.NaN;
+        kx = Double.NaN;
+        kp = 0;
+    }
+
+    private double median() {
+        int n = count;
+        // tri par insertion: n <= 15, plus rapide qu'Arrays.sort et sans allocation
+        for (int i = 0; i < n; i++) {
+            double v = window[i];
+            int j = i - 1;
+            while (j >= 0 && sorted[j] > v) {
+                sorted[j + 1] = sorted[j];
+                j--;
+            }
+            sorted[j + 1] = v;
+        }
+        return (n & 1) == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+    }
+}
@@ -0,0 +1,12 @@
+package common;
+
+/**
+ * Payload EventBus porteur d'une distance (sonar, ToF, réseau de capteurs, fusion).
+ * Les records d'état l'implémentent directement via leur composant distanceMm:
+ * les abonnés lisent la distance par un appel d'interface, sans réflexion.
+ */
+public interface DistanceSource {
+
+    /** Distance en mm (NaN si inconnue). */
+    double distanceMm();
+}
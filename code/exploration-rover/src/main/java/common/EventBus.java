@@ -1,31 +1,185 @@
 package common;
 
+import java.util.Collection;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 
 public class EventBus {
-    private static final ConcurrentHashMap<String, CopyOnWriteArrayList<Consumer<Object>>> listeners = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Topic<?>> topics = new ConcurrentHashMap<>();
+
+    // Abonnements par motif ("tof.*.update", "#"), résolus à la création des topics
+    private static final Object patternLock = new Object();
+    private static final TopicTrie patterns = new TopicTrie();
+    private static volatile boolean hasPatterns = false;
+
+    // Chien de garde: un listener bloqué dans un appel direct n'atteint jamais son bilan de fin d'appel
+    private static final long WATCHDOG_MS = 50;
+    private static volatile ScheduledTask watchdog;
+
+    /**
+     * Handle typé pour un topic. À récupérer une fois (champ final) puis publier
+     * via {@link Topic#publish(Object)} sur les chemins fréquents (TOF, sonar).
+     */
+    public static <T> Topic<T> topic(String eventName, Class<T> type) {
+        if (TopicTrie.isPattern(eventName))
+            throw new IllegalArgumentException("Un topic ne peut pas être un motif: " + eventName);
+        return getOrCreate(eventName).bind(type);
+    }
+
+    /** Dernière valeur d'un topic, à lire par polling (UI, boucle teleop). */
+    public static <T> ConflatedTopic<T> latest(String eventName, Class<T> type) {
+        return topic(eventName, type).latest();
+    }
+
+    /** Fixe la voie de distribution d'un topic (voir {@link TopicPriority}). */
+    public static void setPriority(String eventName, TopicPriority priority) {
+        rawTopic(eventName).setPriority(priority);
+    }
+
+    /** Budget par appel des listeners synchrones d'un topic (voir {@link Topic#setListenerBudgetMicros(long)}). */
+    public static void setListenerBudgetMicros(String eventName, long micros) {
+        rawTopic(eventName).setListenerBudgetMicros(micros);
+    }
+
+    /**
+     * Sort un listener de quarantaine (motif accepté: tous les topics correspondants).
+     * Retourne le nombre de topics où il a été réadmis.
+     */
+    public static int readmit(String eventName, Consumer<Object> listener) {
+        int n = 0;
+        for (Topic<?> t : topics.values()) {
+            boolean match = TopicTrie.isPattern(eventName) ? TopicTrie.matches(eventName, t.name())
+                    : t.name().equals(eventName);
+            if (match && raw(t).readmit(listener))
+                n++;
+        }
+        return n;
+    }
+
+    /** Sort tous les listeners de tous les topics de quarantaine. */
+    public static int readmitAll() {
+        int n = 0;
+        for (Topic<?> t : topics.values()) {
+            n += t.readmitAll();
+        }
+        return n;
+    }
+
+    /**
+     * Abonnement hiérarchique: "*" = un segment, "#" = zéro ou plusieurs segments
+     * (ex: "tof.*.update", "capteurs.#", "#"). S'applique aux topics existants et futurs.
+     * Indépendant des abonnements directs: un listener abonné des deux façons reçoit deux fois.
+     */
+    public static void subscribePattern(String pattern, Consumer<Object> listener) {
+        synchronized (patternLock) {
+            patterns.insert(pattern, listener);
+            hasPatterns = true;
+            for (Topic<?> t : topics.values()) {
+                if (TopicTrie.matches(pattern, t.name()))
+                    raw(t).subscribeFromPattern(listener);
+            }
+        }
+    }
+
+    /** Retire un motif; les abonnements directs du listener et ses autres motifs restent. */
+    public static void unsubscribePattern(String pattern, Consumer<Object> listener) {
+        synchronized (patternLock) {
+            patterns.remove(pattern, listener);
+            for (Topic<?> t : topics.values()) {
+                if (TopicTrie.matches(pattern, t.name()) && !patterns.match(t.name()).contains(listener))
+                    raw(t).unsubscribeFromPattern(listener);
+            }
+        }
+    }
+
+    // ===== API String (compatibilité) =====
 
     public static void subscribe(String eventName, Consumer<Object> listener) {
-        listeners.computeIfAbsent(eventName, k -> new CopyOnWriteArrayList<>()).add(listener);
+        if (TopicTrie.isPattern(eventName)) {
+            subscribePattern(eventName, listener);
+            return;
+        }
+        rawTopic(eventName).subscribe(listener);
+    }
+
+    public static void subscribeAsync(String eventName, Consumer<Object> listener, int capacity,
+            OverflowPolicy policy) {
+        rawTopic(eventName).subscribeAsync(listener, capacity, policy);
     }
 
     public static void unsubscribe(String eventName, Consumer<Object> listener) {
-        var list = listeners.get(eventName);
-        if (list != null) list.remove(listener);
+        if (TopicTrie.isPattern(eventName)) {
+            unsubscribePattern(eventName, listener);
+            return;
+        }
+        var topic = topics.get(eventName);
+        if (topic != null) raw(topic).unsubscribe(listener);
     }
 
     public static void publish(String eventName, Object payload) {
-        var list = listeners.get(eventName);
-        if (list != null) {
-            for (Consumer<Object> l : list) {
-                try {
-                    l.accept(payload);
-                } catch (Exception e) {
-                    System.err.println("[EventBus] listener error for " + eventName + ": " + e);
-                }
-            }
+        var topic = topics.get(eventName);
+        if (topic == null) {
+            if (!hasPatterns) return;
+            topic = createIfPatternMatches(eventName); // seulement si un motif l'attend
+            if (topic == null) return;
+        }
+        topic.publishUntyped(payload);
+    }
+
+    /** Démarré au premier abonnement (thread "app-bg"): quarantaine des listeners bloqués. */
+    static void startWatchdog() {
+        if (watchdog != null)
+            return;
+        synchronized (EventBus.class) {
+            if (watchdog == null)
+                watchdog = SensorScheduler.scheduleBackground("eventbus-watchdog", WATCHDOG_MS, () -> {
+                    long now = System.nanoTime();
+                    for (Topic<?> t : topics.values()) {
+                        t.checkStuckListeners(now);
+                    }
+                });
+        }
+    }
+
+    static Collection<Topic<?>> allTopics() {
+        return topics.values();
+    }
+
+    private static Topic<Object> rawTopic(String eventName) {
+        return raw(getOrCreate(eventName));
+    }
+
+    private static Topic<?> getOrCreate(String eventName) {
+        Topic<?> t = topics.get(eventName);
+        if (t != null)
+            return t;
+        synchronized (patternLock) {
+            return topics.computeIfAbsent(eventName, EventBus::create);
+        }
+    }
+
+    /** Publication String sur un nom inconnu: pas de topic créé si aucun motif ne le couvre. */
+    private static Topic<?> createIfPatternMatches(String eventName) {
+        if (TopicTrie.isPattern(eventName))
+            return null;
+        synchronized (patternLock) {
+            Topic<?> t = topics.get(eventName);
+            if (t != null || patterns.match(eventName).isEmpty())
+                return t;
+            return topics.computeIfAbsent(eventName, EventBus::create);
+        }
+    }
+
+    private static Topic<?> create(String eventName) {
+        Topic<Object> created = new Topic<>(eventName, null);
+        for (Consumer<Object> l : patterns.match(eventName)) {
+            created.subscribeFromPattern(l);
         }
+        return created;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Topic<Object> raw(Topic<?> topic) {
+        return (Topic<Object>) topic;
     }
 }
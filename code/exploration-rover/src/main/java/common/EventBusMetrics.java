@@ -0,0 +1,121 @@
+package common;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Instrumentation de l'EventBus: débit par topic, appels/erreurs/latence par listener.
+ * Lecture via {@link #snapshot()}, ou dump console périodique via {@link #startReporter(int)}.
+ */
+public final class EventBusMetrics {
+
+    public record ListenerMetrics(
+            String listener,
+            ListenerState state,
+            long invocations,
+            long errors,
+            long p50Micros,
+            long p99Micros,
+            long maxMicros,
+            long dropped, // async uniquement
+            int queued) { // async uniquement
+    }
+
+    public record TopicMetrics(
+            String topic,
+            TopicPriority priority,
+            long publishCount,
+            double ratePerSec, // sur la dernière fenêtre (~1 s) observée
+            List<ListenerMetrics> listeners) {
+    }
+
+    /** Voies CRITICAL/LOW: délai publish -> début de livraison. */
+    public record LaneMetrics(
+            TopicPriority lane,
+            long p50Micros,
+            long p99Micros,
+            long maxMicros,
+            long shed) { // CRITICAL: publieurs bloqués (file pleine, rien n'est perdu) ; LOW: coalescés
+    }
+
+    private static volatile boolean enabled = true;
+    private static ScheduledTask reporter;
+
+    private EventBusMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Désactive la mesure de latence par listener (les compteurs de publication restent). */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    public static List<TopicMetrics> snapshot() {
+        List<TopicMetrics> out = new ArrayList<>();
+        for (Topic<?> t : EventBus.allTopics()) {
+            out.add(t.metrics());
+        }
+        out.sort(Comparator.comparing(TopicMetrics::topic));
+        return out;
+    }
+
+    public static List<LaneMetrics> lanes() {
+        return List.of(
+                lane(TopicPriority.CRITICAL, PriorityDispatcher.criticalLatency, PriorityDispatcher.criticalCoalesced.get()),
+                lane(TopicPriority.LOW, PriorityDispatcher.lowLatency, PriorityDispatcher.lowCoalesced.get()));
+    }
+
+    /** Nombre total de mises en quarantaine depuis le démarrage. */
+    public static long quarantines() {
+        return ListenerSlot.quarantines.get();
+    }
+
+    private static LaneMetrics lane(TopicPriority p, LatencyHistogram h, long shed) {
+        return new LaneMetrics(p, h.percentileMicros(50), h.percentileMicros(99), h.maxMicros(), shed);
+    }
+
+    public static String format(List<TopicMetrics> snap) {
+        StringBuilder sb = new StringBuilder();
+        for (LaneMetrics l : lanes()) {
+            sb.append(String.format(Locale.US, "[EventBus] lane %-8s p50=%dus p99=%dus max=%dus shed=%d%n",
+                    l.lane(), l.p50Micros(), l.p99Micros(), l.maxMicros(), l.shed()));
+        }
+        long q = quarantines();
+        if (q > 0)
+            sb.append("[EventBus] quarantaines=").append(q).append(System.lineSeparator());
+        for (TopicMetrics t : snap) {
+            sb.append(String.format(Locale.US, "[EventBus] %-20s %-8s pub=%d rate=%.1f/s%n",
+                    t.topic(), t.priority(), t.publishCount(), t.ratePerSec()));
+            for (ListenerMetrics l : t.listeners()) {
+                sb.append(String.format(Locale.US,
+                        "[EventBus]   %s%s calls=%d err=%d p50=%dus p99=%dus max=%dus%s%n",
+                        l.listener(), l.state() == ListenerState.ACTIVE ? "" : " [" + l.state() + "]",
+                        l.invocations(), l.errors(), l.p50Micros(), l.p99Micros(), l.maxMicros(),
+                        l.dropped() > 0 || l.queued() > 0
+                                ? " dropped=" + l.dropped() + " queued=" + l.queued()
+                                : ""));
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Dump console périodique, sur le thread des tâches de fond (app-bg). Sans effet si déjà démarré. */
+    public static synchronized void startReporter(int periodMs) {
+        if (reporter != null)
+            return;
+        int period = Math.max(1000, periodMs);
+        reporter = SensorScheduler.scheduleBackground("bus-report", period, () -> System.out.print(format(snapshot())));
+    }
+
+    public static synchronized void stopReporter() {
+        if (reporter != null) {
+            reporter.cancel();
+            reporter = null;
+        }
+    }
+}
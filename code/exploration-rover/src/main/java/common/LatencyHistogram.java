@@ -0,0 +1,58 @@
+package common;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogramme de latences à buckets puissance de 2 (en µs), sans allocation à l'enregistrement.
+ * Bucket i = [2^(i-1), 2^i[ µs ; le bucket 0 contient les mesures < 1 µs.
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+        long micros = nanos / 1000;
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        counts.incrementAndGet(bucket);
+        if (nanos > maxNanos.get())
+            maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++)
+            total += counts.get(i);
+        return total;
+    }
+
+    /** Borne haute (µs) du bucket contenant le percentile demandé (0..100), 0 si vide. */
+    public long percentileMicros(double percentile) {
+        long total = count();
+        if (total == 0)
+            return 0;
+        long rank = (long) Math.ceil(total * Math.max(0.0, Math.min(100.0, percentile)) / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank && seen > 0)
+                return Math.min(1L << i, Math.max(1L, maxMicros())); // borne de bucket plafonnée au max observé
+        }
+        return 1L << (BUCKETS - 1);
+    }
+
+    public long maxMicros() {
+        return maxNanos.get() / 1000;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++)
+            counts.set(i, 0);
+        maxNanos.set(0);
+    }
+}
@@ -0,0 +1,98 @@
+package common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Latences de bout en bout, mesurées depuis l'instant de capture (System.nanoTime(), monotone)
+ * jusqu'à chaque point de trace. Un histogramme par étape, sans allocation à l'enregistrement.
+ * Chaque étape a un budget (ms): le dump console signale les p99 hors budget.
+ */
+public final class LatencyTrace {
+
+    public enum Stage {
+        PUBLISH("capteur->publication", 5),
+        MISSION("capteur->mission", 300),
+        UI("capteur->IHM", 400),
+        HAPTIC("capteur->vibration", 150),
+        DRIVE("poll->setTargetVelocity", 60);
+
+        private final String label;
+        private final long budgetMs;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        Stage(String label, long budgetMs) {
+            this.label = label;
+            this.budgetMs = budgetMs;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        public long budgetMs() {
+            return budgetMs;
+        }
+    }
+
+    public record StageMetrics(Stage stage, long count, long p50Micros, long p99Micros, long maxMicros) {
+
+        public boolean withinBudget() {
+            return p99Micros <= stage.budgetMs() * 1000;
+        }
+    }
+
+    private static ScheduledTask reporter;
+
+    private LatencyTrace() {
+    }
+
+    /** Enregistre l'âge (maintenant - captureNanos) pour l'étape. captureNanos = 0: inconnu, ignoré. */
+    public static void record(Stage stage, long captureNanos) {
+        if (captureNanos == 0)
+            return;
+        stage.histogram.recordNanos(System.nanoTime() - captureNanos);
+    }
+
+    public static List<StageMetrics> snapshot() {
+        List<StageMetrics> out = new ArrayList<>();
+        for (Stage s : Stage.values()) {
+            LatencyHistogram h = s.histogram;
+            out.add(new StageMetrics(s, h.count(), h.percentileMicros(50), h.percentileMicros(99), h.maxMicros()));
+        }
+        return out;
+    }
+
+    public static String format(List<StageMetrics> snap) {
+        StringBuilder sb = new StringBuilder();
+        for (StageMetrics m : snap) {
+            if (m.count() == 0)
+                continue;
+            sb.append(String.format(Locale.US, "[LAT] %-22s n=%d p50=%dus p99=%dus max=%dus budget=%dms%s%n",
+                    m.stage().label(), m.count(), m.p50Micros(), m.p99Micros(), m.maxMicros(),
+                    m.stage().budgetMs(), m.withinBudget() ? "" : " HORS BUDGET"));
+        }
+        return sb.toString();
+    }
+
+    public static void reset() {
+        for (Stage s : Stage.values())
+            s.histogram.reset();
+    }
+
+    /** Dump console périodique, sur le thread des tâches de fond (app-bg). */
+    public static synchronized void startReporter(int periodMs) {
+        if (reporter != null)
+            return;
+        long period = Math.max(1000, periodMs);
+        reporter = SensorScheduler.scheduleBackground("latency-report", period, () -> System.out.print(format(snapshot())));
+    }
+
+    public static synchronized void stopReporter() {
+        if (reporter != null) {
+            reporter.cancel();
+            reporter = null;
+        }
+    }
+}
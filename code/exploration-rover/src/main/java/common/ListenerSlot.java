@@ -0,0 +1,275 @@
+package common;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Listener abonné à un topic + ses compteurs (appels, erreurs, latence)
+ * et son disjoncteur: dépassements de budget / exceptions répétés => quarantaine.
+ * Un listener trop lent (ou bloqué: appel en cours vu par le chien de garde de l'EventBus)
+ * passe sur une boîte aux lettres qui ne bloque jamais le publieur; s'il ne suit toujours pas
+ * (boîte pleine), il est désactivé. Il revient tout seul en appel direct quand ses appels
+ * retombent dans le budget, une fois la boîte vidée.
+ */
+final class ListenerSlot {
+
+    static final int MAX_STRIKES = 3; // fautes consécutives avant quarantaine
+    static final int READMIT_AFTER = 50; // appels async dans le budget, file vide, avant réadmission
+    private static final int QUARANTINE_CAPACITY = 256; // pleine => DISABLED (jamais de blocage du publieur)
+    static final int STUCK_FACTOR = 20; // appel en cours depuis 20x le budget => bloqué
+    static final long STUCK_MIN_NANOS = 100_000_000L;
+
+    static final AtomicLong quarantines = new AtomicLong();
+
+    final Consumer<?> listener;
+    final String label;
+    final boolean fromPattern; // ajouté par EventBus.subscribePattern, retiré seulement par motif
+    final LongAdder invocations = new LongAdder();
+    final LongAdder errors = new LongAdder();
+    final LatencyHistogram latency = new LatencyHistogram();
+
+    private final String topicName;
+    private final long budgetOverrideNanos; // < 0: budget du topic
+    private final AtomicInteger strikes = new AtomicInteger();
+    private final AtomicLong inFlightSince = new AtomicLong(); // début de l'appel direct en cours, 0 = aucun
+    private int okStreak; // worker de la boîte de quarantaine uniquement
+    private volatile boolean readmitRequested;
+    private volatile long budgetNanos;
+    private volatile Consumer<?> target;
+    private volatile ListenerState state = ListenerState.ACTIVE;
+
+    ListenerSlot(String topicName, Consumer<?> listener) {
+        this(topicName, listener, -1L, false);
+    }
+
+    ListenerSlot(String topicName, Consumer<?> listener, long budgetOverrideNanos, boolean fromPattern) {
+        this.topicName = topicName;
+        this.listener = listener;
+        this.budgetOverrideNanos = budgetOverrideNanos;
+        this.fromPattern = fromPattern;
+        this.target = listener;
+        Object delegate = listener instanceof Mailbox<?> m ? m.delegate() : listener;
+        String cls = delegate.getClass().getName();
+        int lambda = cls.indexOf("$$Lambda");
+        this.label = (lambda > 0 ? cls.substring(0, lambda) + "$lambda@" + Integer.toHexString(System.identityHashCode(delegate))
+                : cls) + (listener instanceof Mailbox<?> ? " (async)" : "") + (fromPattern ? " (motif)" : "");
+        if (listener instanceof Mailbox<?> m)
+            m.setOwner(this);
+    }
+
+    boolean matches(Consumer<?> candidate) {
+        return listener.equals(candidate) || (listener instanceof Mailbox<?> m && m.delegate().equals(candidate));
+    }
+
+    /** Consumer à appeler par dispatch (le listener, ou sa boîte de quarantaine). */
+    Consumer<?> target() {
+        return target;
+    }
+
+    ListenerState state() {
+        return state;
+    }
+
+    /** Budget effectif: celui fixé à l'abonnement, sinon celui du topic. */
+    long budgetNanos(long topicBudgetNanos) {
+        return budgetOverrideNanos >= 0 ? budgetOverrideNanos : topicBudgetNanos;
+    }
+
+    /** Début d'un appel direct (vu par le chien de garde). Retourne le jeton à passer à {@link #exit}. */
+    long enter(long t0) {
+        return inFlightSince.compareAndSet(0, t0) ? t0 : 0; // appels concurrents: le premier est surveillé
+    }
+
+    void exit(long token) {
+        if (token != 0)
+            inFlightSince.compareAndSet(token, 0);
+    }
+
+    /**
+     * Worker de quarantaine, avant chaque livraison: attend la fin de l'appel direct encore en cours
+     * (listener bloqué au moment de la quarantaine), pour ne jamais l'appeler sur deux threads.
+     */
+    void awaitDirectCall() throws InterruptedException {
+        while (inFlightSince.get() != 0)
+            Thread.sleep(1);
+    }
+
+    /**
+     * Chien de garde: un appel direct toujours en cours depuis {@value #STUCK_FACTOR}x le budget
+     * (100 ms min) n'atteindra jamais afterCall(): le listener passe en quarantaine tout de suite,
+     * les publications suivantes ne l'attendent plus.
+     */
+    void checkStuck(long now, long topicBudgetNanos) {
+        long since = inFlightSince.get();
+        long budget = budgetNanos(topicBudgetNanos);
+        if (since == 0 || budget <= 0 || state != ListenerState.ACTIVE || listener instanceof Mailbox<?>)
+            return;
+        long stuck = now - since;
+        if (stuck > Math.max(budget * STUCK_FACTOR, STUCK_MIN_NANOS)) {
+            this.budgetNanos = budget;
+            quarantine(ListenerState.ASYNC, String.format("appel bloqué depuis %d ms (budget %d us)",
+                    stuck / 1_000_000, budget / 1000));
+        }
+    }
+
+    /**
+     * Bilan d'un appel synchrone. Seuls les listeners ACTIVE appelés directement sont jugés:
+     * une boîte aux lettres ne coûte qu'un offer() au thread qui publie.
+     */
+    void afterCall(long elapsedNanos, Exception error, long budgetNanos) {
+        if (state != ListenerState.ACTIVE || listener instanceof Mailbox<?>)
+            return;
+        this.budgetNanos = budgetNanos;
+        boolean over = budgetNanos > 0 && elapsedNanos > budgetNanos;
+        if (!over && error == null) {
+            if (strikes.get() != 0)
+                strikes.set(0);
+            return;
+        }
+        int s = strikes.incrementAndGet();
+        if (error != null && s == 1)
+            System.err.println("[EventBus] listener error for " + topicName + " (" + label + "): " + error);
+
+        if (error != null) {
+            if (s >= MAX_STRIKES)
+                quarantine(ListenerState.DISABLED, s + " exceptions consécutives, dernière: " + error);
+        } else if (s >= MAX_STRIKES) {
+            quarantine(ListenerState.ASYNC, String.format("%d dépassements consécutifs, dernier %d us > budget %d us",
+                    s, elapsedNanos / 1000, budgetNanos / 1000));
+        }
+    }
+
+    /** Exception levée sur le worker d'une boîte aux lettres (abonné async ou quarantaine). */
+    void asyncError(Exception error) {
+        errors.increment();
+        int s = strikes.incrementAndGet();
+        if (s == 1)
+            System.err.println("[EventBus] async listener error for " + topicName + " (" + label + "): " + error);
+        if (s >= MAX_STRIKES && state != ListenerState.DISABLED)
+            quarantine(ListenerState.DISABLED, s + " exceptions consécutives (async), dernière: " + error);
+    }
+
+    /**
+     * Bilan d'un appel réussi sur le worker d'une boîte aux lettres. En quarantaine ASYNC,
+     * {@value #READMIT_AFTER} appels de suite dans le budget ramènent le listener en appel
+     * direct, dès que la boîte est vide.
+     */
+    void asyncSuccess(long elapsedNanos, Mailbox<?> box) {
+        if (strikes.get() != 0)
+            strikes.set(0);
+        if (state != ListenerState.ASYNC || box == listener)
+            return;
+        long budget = budgetNanos;
+        if (budget > 0 && elapsedNanos > budget) {
+            okStreak = 0;
+            return;
+        }
+        if (++okStreak >= READMIT_AFTER || readmitRequested)
+            handOff(box);
+    }
+
+    /** Worker réveillé sans événement (réadmission manuelle demandée). */
+    void asyncIdle(Mailbox<?> box) {
+        if (readmitRequested && state == ListenerState.ASYNC)
+            handOff(box);
+    }
+
+    /** Boîte de quarantaine pleine: le listener ne suit pas même en async, on le désactive. */
+    void quarantineFull(int queued) {
+        quarantine(ListenerState.DISABLED, "boîte de quarantaine pleine (" + queued + " en attente)");
+    }
+
+    /** Retour à l'appel direct, sur le worker de la boîte et seulement file vide (ordre conservé). */
+    private void handOff(Mailbox<?> box) {
+        box.handOff(() -> {
+            synchronized (this) {
+                if (target != box)
+                    return;
+                target = listener;
+                state = ListenerState.ACTIVE;
+                strikes.set(0);
+                okStreak = 0;
+                readmitRequested = false;
+            }
+            System.out.println("[EventBus] " + topicName + " (" + label + ") réadmis.");
+        });
+    }
+
+    private synchronized void quarantine(ListenerState to, String reason) {
+        if (state == to || state == ListenerState.DISABLED)
+            return;
+        Consumer<?> previous = target;
+        if (to == ListenerState.ASYNC) {
+            okStreak = 0;
+            readmitRequested = false;
+            target = new Mailbox<>(topicName, listener, QUARANTINE_CAPACITY, OverflowPolicy.DROP_NEWEST, this);
+        } else {
+            target = null;
+        }
+        state = to;
+        strikes.set(0);
+        closeQuarantineMailbox(previous);
+        if (to == ListenerState.DISABLED && listener instanceof Mailbox<?> m)
+            m.close();
+        quarantines.incrementAndGet();
+        System.err.println("[EventBus] QUARANTAINE " + to + " " + topicName + " (" + label + "): " + reason
+                + (to == ListenerState.ASYNC ? " -> réadmission auto après " + READMIT_AFTER + " appels dans le budget"
+                        : " -> EventBus.readmit() pour réactiver"));
+    }
+
+    /**
+     * Sortie de quarantaine. ASYNC: demandée au worker de la boîte, effective une fois la file
+     * livrée. DISABLED: retour immédiat à l'appel direct. Retourne false si déjà actif.
+     */
+    synchronized boolean readmit() {
+        if (state == ListenerState.ACTIVE)
+            return false;
+        if (listener instanceof Mailbox<?> m && !m.isOpen())
+            return false; // un abonné async désactivé se réabonne via subscribeAsync
+        if (state == ListenerState.ASYNC && target instanceof Mailbox<?> box) {
+            readmitRequested = true;
+            box.wake();
+            return true;
+        }
+        target = listener;
+        state = ListenerState.ACTIVE;
+        strikes.set(0);
+        System.out.println("[EventBus] " + topicName + " (" + label + ") réadmis.");
+        return true;
+    }
+
+    synchronized void close() {
+        closeQuarantineMailbox(target);
+        if (listener instanceof Mailbox<?> m)
+            m.close();
+    }
+
+    private void closeQuarantineMailbox(Consumer<?> c) {
+        if (c instanceof Mailbox<?> m && c != listener)
+            m.close();
+    }
+
+    EventBusMetrics.ListenerMetrics snapshot() {
+        long dropped = 0;
+        int queued = 0;
+        if (target instanceof Mailbox<?> m) {
+            dropped = m.getDropped();
+            queued = m.getQueued();
+        } else if (listener instanceof Mailbox<?> m) {
+            dropped = m.getDropped();
+            queued = m.getQueued();
+        }
+        return new EventBusMetrics.ListenerMetrics(
+                label,
+                state,
+                invocations.sum(),
+                errors.sum(),
+                latency.percentileMicros(50),
+                latency.percentileMicros(99),
+                latency.maxMicros(),
+                dropped,
+                queued);
+    }
+}
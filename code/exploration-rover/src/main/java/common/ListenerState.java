@@ -0,0 +1,13 @@
+package common;
+
+/**
+ * État d'un listener vis-à-vis du disjoncteur de l'EventBus.
+ * ACTIVE: appelé directement par le thread qui publie.
+ * ASYNC: en quarantaine, déporté sur une boîte aux lettres (trop lent).
+ * DISABLED: en quarantaine, plus appelé (exceptions répétées).
+ */
+public enum ListenerState {
+    ACTIVE,
+    ASYNC,
+    DISABLED
+}
@@ -0,0 +1,196 @@
+package common;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Boîte aux lettres bornée d'un abonné asynchrone.
+ * Le thread qui publie ne fait qu'un offer(); un worker dédié appelle le listener.
+ * Boîte de quarantaine (créée par un {@link ListenerSlot}): jamais bloquante, une file pleine
+ * est signalée au slot (désactivation), et la sortie de quarantaine se fait par
+ * {@link #handOff(Runnable)}, seulement file vide: le listener n'est jamais appelé par deux
+ * threads à la fois et l'ordre des événements est conservé.
+ */
+final class Mailbox<T> implements Consumer<T> {
+
+    private static final Object NULL_PAYLOAD = new Object();
+    private static final Object WAKE = new Object();
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    private final String topicName;
+    private final Consumer<? super T> delegate;
+    private final OverflowPolicy policy;
+    private final ArrayBlockingQueue<Object> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final boolean quarantine;
+    private final Thread worker;
+
+    private volatile boolean running = true;
+    private volatile ListenerSlot owner; // reçoit les exceptions du worker (disjoncteur)
+
+    Mailbox(String topicName, Consumer<? super T> delegate, int capacity, OverflowPolicy policy) {
+        this(topicName, delegate, capacity, policy, null);
+    }
+
+    /** owner != null: boîte de quarantaine de ce slot (politique DROP_NEWEST + signalement). */
+    Mailbox(String topicName, Consumer<? super T> delegate, int capacity, OverflowPolicy policy, ListenerSlot owner) {
+        this.topicName = topicName;
+        this.owner = owner;
+        this.quarantine = owner != null;
+        this.delegate = delegate;
+        this.policy = quarantine ? OverflowPolicy.DROP_NEWEST : policy == null ? OverflowPolicy.DROP_OLDEST : policy;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+
+        worker = new Thread(this::drain, "EventBus-" + topicName + "-async-" + SEQ.incrementAndGet());
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void accept(T payload) {
+        if (quarantine) {
+            acceptQuarantined(payload);
+            return;
+        }
+        if (!running)
+            return;
+        Object item = payload == null ? NULL_PAYLOAD : payload;
+
+        switch (policy) {
+            case DROP_NEWEST -> {
+                if (!queue.offer(item))
+                    dropped.incrementAndGet();
+            }
+            case DROP_OLDEST -> {
+                while (!queue.offer(item)) {
+                    if (queue.poll() != null)
+                        dropped.incrementAndGet();
+                }
+            }
+            case BLOCK -> {
+                try {
+                    queue.put(item);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Publieur d'une boîte de quarantaine: offer() sous le verrou de handOff(), jamais bloquant.
+     * Après la sortie de quarantaine, l'événement suit la nouvelle cible du slot (le worker a fini).
+     */
+    @SuppressWarnings("unchecked")
+    private void acceptQuarantined(T payload) {
+        boolean full;
+        synchronized (this) {
+            if (running) {
+                full = !queue.offer(payload == null ? NULL_PAYLOAD : payload);
+                if (!full)
+                    return;
+                dropped.incrementAndGet();
+            } else {
+                full = false;
+            }
+        }
+        ListenerSlot o = owner;
+        if (full) {
+            o.quarantineFull(queue.size());
+            return;
+        }
+        Consumer<T> next = (Consumer<T>) o.target();
+        if (next != null && next != this)
+            next.accept(payload); // publié juste après le handOff: la file a déjà été livrée
+    }
+
+    Consumer<? super T> delegate() {
+        return delegate;
+    }
+
+    void setOwner(ListenerSlot owner) {
+        this.owner = owner;
+    }
+
+    boolean isOpen() {
+        return running;
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+
+    int getQueued() {
+        return queue.size();
+    }
+
+    /**
+     * Sortie de quarantaine, sur le worker uniquement: si la file est vide, switchTarget
+     * (retour à l'appel direct) et arrêt du worker, atomiquement vis-à-vis des publieurs.
+     * Retourne false si des événements restent à livrer.
+     */
+    boolean handOff(Runnable switchTarget) {
+        synchronized (this) {
+            if (!queue.isEmpty())
+                return false;
+            switchTarget.run();
+            running = false;
+        }
+        return true;
+    }
+
+    /** Réveille le worker (demande de réadmission manuelle); sans effet si la file est pleine. */
+    void wake() {
+        queue.offer(WAKE);
+    }
+
+    void close() {
+        running = false;
+        queue.clear();
+        worker.interrupt();
+    }
+
+    private void drain() {
+        while (running) {
+            Object item;
+            try {
+                item = queue.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+            ListenerSlot o = owner;
+            if (item == WAKE) {
+                if (o != null)
+                    o.asyncIdle(this);
+                continue;
+            }
+            if (quarantine) {
+                try {
+                    o.awaitDirectCall();
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+            deliver(item);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void deliver(Object item) {
+        ListenerSlot o = owner;
+        long t0 = System.nanoTime();
+        try {
+            delegate.accept(item == NULL_PAYLOAD ? null : (T) item);
+            if (o != null)
+                o.asyncSuccess(System.nanoTime() - t0, this);
+        } catch (Exception e) {
+            if (o != null)
+                o.asyncError(e);
+            else
+                System.err.println("[EventBus] async listener error for " + topicName + ": " + e);
+        }
+    }
+}
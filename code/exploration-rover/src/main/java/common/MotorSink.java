@@ -0,0 +1,15 @@
+package common;
+
+/**
+ * Un canal moteur (vitesse cible -1..1), Phidget DCMotor ou simulé.
+ */
+public interface MotorSink {
+
+    /** Ouvre le canal (bloquant). */
+    void open(int timeoutMs) throws SensorException;
+
+    /** Ferme le canal sans lever d'exception. */
+    void close();
+
+    void setTargetVelocity(double velocity) throws SensorException;
+}
@@ -0,0 +1,13 @@
+package common;
+
+/**
+ * Comportement d'une boîte aux lettres asynchrone pleine.
+ * DROP_OLDEST: on jette le plus ancien (capteurs: seul le récent compte)
+ * DROP_NEWEST: on jette l'événement qui arrive
+ * BLOCK: le publieur attend (à éviter sur les threads capteurs)
+ */
+public enum OverflowPolicy {
+    DROP_OLDEST,
+    DROP_NEWEST,
+    BLOCK
+}
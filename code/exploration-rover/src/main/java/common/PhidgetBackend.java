@@ -0,0 +1,271 @@
+package common;
+
+import com.phidget22.DCMotor;
+import com.phidget22.DistanceSensor;
+import com.phidget22.HumiditySensor;
+import com.phidget22.LightSensor;
+import com.phidget22.Phidget;
+import com.phidget22.PhidgetException;
+import com.phidget22.TemperatureSensor;
+
+import java.util.function.DoubleConsumer;
+
+/**
+ * Backend matériel: canaux com.phidget22 sur la {@link PhidgetSession} partagée du serveur.
+ * Seul endroit (avec PhidgetSession) qui dépend de la lib Phidget.
+ */
+final class PhidgetBackend implements SensorBackend {
+
+    @FunctionalInterface
+    private interface Factory<T extends Phidget> {
+        T create() throws PhidgetException;
+    }
+
+    @FunctionalInterface
+    private interface Getter<T extends Phidget, R> {
+        R get(T ch) throws PhidgetException;
+    }
+
+    @FunctionalInterface
+    private interface Setter<T extends Phidget> {
+        void set(T ch, int value) throws PhidgetException;
+    }
+
+    private final PhidgetSession session;
+
+    PhidgetBackend(String serverName, String ip, int port) {
+        this.session = PhidgetSession.of(serverName, ip, port);
+    }
+
+    static SensorException wrap(PhidgetException e) {
+        return new SensorException(e.getDescription(), String.valueOf(e.getErrorCode()), e);
+    }
+
+    @Override
+    public String serverName() {
+        return session.serverName();
+    }
+
+    @Override
+    public void acquire() throws SensorException {
+        try {
+            session.acquire();
+        } catch (PhidgetException e) {
+            throw wrap(e);
+        }
+    }
+
+    @Override
+    public void release() {
+        session.release();
+    }
+
+    @Override
+    public boolean isLinkDown() {
+        return session.isDown();
+    }
+
+    @Override
+    public SensorSource distance(int hubPort, int channel) {
+        return new DistanceChannel(hubPort, channel);
+    }
+
+    @Override
+    public SensorSource humidity(int hubPort, int channel) {
+        return new Channel<>(HumiditySensor::new, HumiditySensor::getHumidity,
+                HumiditySensor::getMinDataInterval, HumiditySensor::setDataInterval, hubPort, channel);
+    }
+
+    @Override
+    public SensorSource temperature(int hubPort, int channel) {
+        return new Channel<>(TemperatureSensor::new, TemperatureSensor::getTemperature,
+                TemperatureSensor::getMinDataInterval, TemperatureSensor::setDataInterval, hubPort, channel);
+    }
+
+    @Override
+    public SensorSource light(int hubPort, int channel) {
+        return new Channel<>(LightSensor::new, LightSensor::getIlluminance,
+                LightSensor::getMinDataInterval, LightSensor::setDataInterval, hubPort, channel);
+    }
+
+    @Override
+    public MotorSink motor(int hubPort, int channel) {
+        return new Motor(hubPort, channel);
+    }
+
+    /** Canal capteur générique: création + bind à l'open(), fermeture via la session. */
+    private class Channel<T extends Phidget> implements SensorSource {
+
+        private final Factory<T> factory;
+        private final Getter<T, Double> reader;
+        private final Getter<T, Integer> minInterval;
+        private final Setter<T> interval;
+        private final int hubPort;
+        private final int channel;
+
+        protected volatile T ch;
+
+        Channel(Factory<T> factory, Getter<T, Double> reader, Getter<T, Integer> minInterval, Setter<T> interval,
+                int hubPort, int channel) {
+            this.factory = factory;
+            this.reader = reader;
+            this.minInterval = minInterval;
+            this.interval = interval;
+            this.hubPort = hubPort;
+            this.channel = channel;
+        }
+
+        /** Réglages avant open() (listeners, hub-port device...). */
+        protected void configure(T c) throws PhidgetException {
+        }
+
+        @Override
+        public void open(int timeoutMs) throws SensorException {
+            T c = null;
+            try {
+                c = session.bind(factory.create(), hubPort, channel);
+                configure(c);
+                c.open(timeoutMs);
+            } catch (PhidgetException e) {
+                session.close(c);
+                throw wrap(e);
+            }
+            ch = c;
+        }
+
+        @Override
+        public void close() {
+            T c = ch;
+            ch = null;
+            session.close(c);
+        }
+
+        @Override
+        public boolean isAttached() {
+            T c = ch;
+            try {
+                return c != null && c.getAttached();
+            } catch (PhidgetException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public double read() throws SensorException {
+            return get(reader);
+        }
+
+        @Override
+        public int getMinDataInterval() throws SensorException {
+            return get(minInterval);
+        }
+
+        @Override
+        public void setDataInterval(int ms) throws SensorException {
+            try {
+                interval.set(opened(), ms);
+            } catch (PhidgetException e) {
+                throw wrap(e);
+            }
+        }
+
+        protected final <R> R get(Getter<T, R> getter) throws SensorException {
+            try {
+                return getter.get(opened());
+            } catch (PhidgetException e) {
+                throw wrap(e);
+            }
+        }
+
+        private T opened() throws SensorException {
+            T c = ch;
+            if (c == null)
+                throw new SensorException("channel closed", "CLOSED");
+            return c;
+        }
+    }
+
+    /** DST1001 / DST1200: événements DistanceChange + seuil de déclenchement. */
+    private final class DistanceChannel extends Channel<DistanceSensor> {
+
+        private volatile DoubleConsumer listener;
+
+        DistanceChannel(int hubPort, int channel) {
+            super(DistanceSensor::new, s -> (double) s.getDistance(), DistanceSensor::getMinDataInterval,
+                    DistanceSensor::setDataInterval, hubPort, channel);
+        }
+
+        @Override
+        public void setChangeListener(DoubleConsumer listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        protected void configure(DistanceSensor s) throws PhidgetException {
+            // Certains modules exigent de se déclarer comme device hub-port (par ex. DST1200)
+            try {
+                s.setIsHubPortDevice(true);
+            } catch (PhidgetException ignored) {
+            }
+            DoubleConsumer l = listener;
+            if (l != null) {
+                s.addDistanceChangeListener(e -> l.accept(e.getDistance()));
+            }
+        }
+
+        @Override
+        public void setChangeTrigger(double trigger) throws SensorException {
+            int min = get(DistanceSensor::getMinDistanceChangeTrigger);
+            int t = (int) Math.max(min, Math.round(trigger));
+            get(s -> {
+                s.setDistanceChangeTrigger(t);
+                return null;
+            });
+        }
+    }
+
+    private final class Motor implements MotorSink {
+
+        private final int hubPort;
+        private final int channel;
+        private volatile DCMotor motor;
+
+        Motor(int hubPort, int channel) {
+            this.hubPort = hubPort;
+            this.channel = channel;
+        }
+
+        @Override
+        public void open(int timeoutMs) throws SensorException {
+            DCMotor m = null;
+            try {
+                // IMPORTANT: ne pas appeler setIsHubPortDevice(true) ici
+                m = session.bind(new DCMotor(), hubPort, channel);
+                m.open(timeoutMs);
+            } catch (PhidgetException e) {
+                session.close(m);
+                throw wrap(e);
+            }
+            motor = m;
+        }
+
+        @Override
+        public void close() {
+            DCMotor m = motor;
+            motor = null;
+            session.close(m);
+        }
+
+        @Override
+        public void setTargetVelocity(double velocity) throws SensorException {
+            DCMotor m = motor;
+            if (m == null)
+                return;
+            try {
+                m.setTargetVelocity(velocity);
+            } catch (PhidgetException e) {
+                throw wrap(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package common;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base commune des services capteurs (sonar, TOF, humidité, lumière).
+ * Le cycle ouverture / lecture / fermeture sur erreur est géré ici, une fois:
+ * - lecture périodique sur {@link SensorScheduler} (pas de thread par service)
+ * - open() exécuté hors des threads de lecture; en attendant, publishError() est publié
+ * - échec d'ouverture ou de lecture: réouverture avec backoff exponentiel + jitter (plafonné),
+ *   l'état "détaché" continue d'être publié à la cadence normale pendant ce temps
+ * - canaux et lien obtenus du {@link SensorBackend} (Phidget ou simulé): lien perdu,
+ *   les canaux restent ouverts et le backend se charge de la reconnexion
+ */
+public abstract class PhidgetSensorService {
+
+    /** Machine d'état de l'ouverture des canaux. */
+    public enum OpenState {
+        CLOSED, // pas encore tenté (ou service arrêté)
+        OPENING, // open() en cours sur le thread "sensor-open"
+        OPEN,
+        BACKOFF // échec, prochaine tentative planifiée
+    }
+
+    private static final long BACKOFF_BASE_MS = 500;
+    private static final long BACKOFF_CAP_MS = 30_000;
+    private static final long START_JITTER_MS = 300; // étale les ouvertures au démarrage
+
+    protected final String serverName;
+    protected final String ip;
+    protected final int port;
+
+    private final String tag; // préfixe console, ex: "TOF"
+    private final String kind; // préfixe des messages d'erreur publiés, ex: "tof"
+    private final String name; // nom de la tâche (métriques)
+    private volatile long periodMs;
+
+    private final SensorBackend backend;
+    private volatile boolean acquired = false;
+    private volatile ScheduledTask task;
+    private volatile OpenState openState = OpenState.CLOSED;
+    private final AtomicInteger failures = new AtomicInteger(); // échecs consécutifs (open ou lecture)
+    private volatile long nextOpenAtMs = 0;
+    private volatile String openError;
+
+    protected PhidgetSensorService(String tag, String kind, String name, long periodMs,
+            String serverName, String ip, int port) {
+        this.tag = tag;
+        this.kind = kind;
+        this.name = name;
+        this.periodMs = periodMs;
+        this.serverName = serverName;
+        this.ip = ip;
+        this.port = port;
+        this.backend = SensorBackends.of(serverName, ip, port);
+    }
+
+    /** Canaux ouverts et prêts à être lus. */
+    protected abstract boolean isOpen();
+
+    /** Crée et ouvre les canaux (bloquant). En cas d'échec: referme ce qui a été créé et relance. */
+    protected abstract void open() throws SensorException;
+
+    /** Ferme les canaux sans lever d'exception. */
+    protected abstract void close();
+
+    /** Lit et publie un échantillon (canaux ouverts). Une exception propagée => fermeture + réouverture. */
+    protected abstract void sample(long ts) throws SensorException;
+
+    /** Publie un état "non disponible" (canaux fermés ou en erreur). */
+    protected abstract void publishError(long ts, String err);
+
+    public synchronized void start() {
+        if (task != null)
+            return;
+        System.out.printf("[%s] Service démarré (%s, %d ms) server=%s ip=%s:%d%n",
+                tag, name, periodMs, serverName, ip, port);
+        nextOpenAtMs = System.currentTimeMillis() + ThreadLocalRandom.current().nextLong(START_JITTER_MS + 1);
+        task = SensorScheduler.schedule(name, periodMs, this::cycle);
+    }
+
+    public synchronized void stop() {
+        if (task == null)
+            return;
+        task.cancel();
+        task = null;
+        SensorScheduler.submitBlocking(() -> {
+            close();
+            openState = OpenState.CLOSED;
+            if (acquired) {
+                acquired = false;
+                backend.release();
+            }
+            System.out.println("[" + tag + "] Service arrêté (" + name + ").");
+        });
+    }
+
+    /** Période de lecture courante (ms). */
+    public long periodMs() {
+        return periodMs;
+    }
+
+    /**
+     * Change la période de lecture à chaud (voir {@link AdaptiveSampling}).
+     * Les sous-classes répercutent la cadence sur le matériel via {@link #onPeriodChanged(long)}.
+     */
+    public void setPeriodMs(long periodMs) {
+        long p = Math.max(1, periodMs);
+        if (p == this.periodMs)
+            return;
+        this.periodMs = p;
+        ScheduledTask t = task;
+        if (t != null)
+            t.setPeriodMs(p);
+        if (isOpen()) {
+            SensorScheduler.submitBlocking(() -> {
+                try {
+                    if (isOpen())
+                        onPeriodChanged(p);
+                } catch (Throwable e) {
+                    System.out.println("[" + tag + "] changement de cadence: " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    /** Appelé (thread "sensor-open") quand la période change, canaux ouverts. Ex: setDataInterval. */
+    protected void onPeriodChanged(long periodMs) throws SensorException {
+    }
+
+    /** Intervalle de données du canal adapté à la période courante (3/4 de la période, borné par le min matériel). */
+    protected final int dataIntervalMs(int minDataInterval) {
+        return (int) Math.max(minDataInterval, periodMs * 3 / 4);
+    }
+
+    public OpenState getOpenState() {
+        return openState;
+    }
+
+    /** Échecs consécutifs d'ouverture / lecture (0 = capteur sain). */
+    public int getConsecutiveFailures() {
+        return failures.get();
+    }
+
+    protected final String tag() {
+        return tag;
+    }
+
+    /** Fabrique des canaux de ce service (créés non ouverts, à ouvrir dans {@link #open()}). */
+    protected final SensorBackend backend() {
+        return backend;
+    }
+
+    /** Ferme un canal (null accepté, sans exception). */
+    protected static void closeChannel(SensorSource channel) {
+        if (channel != null)
+            channel.close();
+    }
+
+    private void cycle() {
+        long ts = System.currentTimeMillis();
+        if (openState != OpenState.OPEN || !isOpen()) { // BACKOFF: fermeture peut-être encore en cours
+            if (openState != OpenState.OPENING && ts >= nextOpenAtMs)
+                requestOpen();
+            String err = openError;
+            publishError(ts, err != null ? err : kind + " not open");
+            return;
+        }
+        if (backend.isLinkDown()) {
+            // Pas de close/open par capteur: le backend rattache tous les canaux d'un coup
+            publishError(ts, kind + " link down (" + backend.serverName() + ")");
+            return;
+        }
+        try {
+            sample(ts);
+            if (failures.get() != 0)
+                failures.set(0);
+        } catch (SensorException e) {
+            fail(ts, kind + " error: " + e.getDescription() + " (code=" + e.getErrorCode() + ")");
+        } catch (Throwable t) {
+            fail(ts, kind + " error: " + t.getClass().getSimpleName() + " - " + t.getMessage());
+        }
+    }
+
+    /** Erreur de lecture: fermeture (bloquante) sur le thread "sensor-open", avant la réouverture. */
+    private void fail(long ts, String err) {
+        ScheduledTask t = task;
+        if (t != null)
+            t.markError();
+        openState = OpenState.BACKOFF; // plus de sample() d'ici la réouverture
+        SensorScheduler.submitBlocking(this::close);
+        long delay = scheduleRetry(ts);
+        System.out.println("[" + tag + "] " + err + " -> réouverture dans " + delay + " ms (" + name + ")");
+        publishError(ts, err);
+    }
+
+    /**
+     * Backoff exponentiel (BASE * 2^(échecs-1), plafonné) avec "equal jitter": [d/2, d].
+     * Après un reboot du hub, les capteurs ne retentent pas tous au même instant.
+     */
+    private long scheduleRetry(long now) {
+        int n = failures.incrementAndGet();
+        long d = Math.min(BACKOFF_CAP_MS, BACKOFF_BASE_MS << Math.min(n - 1, 16));
+        long delay = d / 2 + ThreadLocalRandom.current().nextLong(d / 2 + 1);
+        nextOpenAtMs = now + delay;
+        return delay;
+    }
+
+    private void requestOpen() {
+        openState = OpenState.OPENING;
+        SensorScheduler.submitBlocking(() -> {
+            String failure = null;
+            try {
+                if (task == null || isOpen()) {
+                    openState = isOpen() ? OpenState.OPEN : OpenState.CLOSED;
+                    return; // arrêté entre-temps, ou déjà ouvert
+                }
+                if (!acquired) {
+                    backend.acquire();
+                    acquired = true;
+                }
+                open();
+                openError = null;
+                openState = OpenState.OPEN;
+            } catch (SensorException e) {
+                openError = kind + " error: " + e.getDescription() + " (code=" + e.getErrorCode() + ")";
+                failure = e.getDescription() + " (code=" + e.getErrorCode() + ")";
+            } catch (Throwable t) {
+                openError = kind + " error: " + t.getClass().getSimpleName() + " - " + t.getMessage();
+                failure = t.getClass().getSimpleName() + " - " + t.getMessage();
+            }
+            if (failure != null) {
+                openState = OpenState.BACKOFF;
+                long delay = scheduleRetry(System.currentTimeMillis());
+                System.out.println("[" + tag + "] open FAILED: " + failure + " server=" + serverName + " ip=" + ip
+                        + ":" + port + " (" + name + ") -> nouvel essai dans " + delay + " ms (échec " + failures.get()
+                        + ")");
+            }
+        });
+    }
+}
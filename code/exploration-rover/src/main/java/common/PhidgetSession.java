@@ -0,0 +1,220 @@
+package common;
+
+import com.phidget22.AttachListener;
+import com.phidget22.DetachListener;
+import com.phidget22.Net;
+import com.phidget22.Phidget;
+import com.phidget22.PhidgetException;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Session réseau Phidget partagée (une par serverName): moteurs et capteurs passent tous par ici.
+ * - Net.addServer une seule fois (premier acquire), Net.removeServer au dernier release
+ * - santé du lien déduite des attach/detach des canaux liés via {@link #bind}
+ * - lien perdu: les canaux restent ouverts (la lib Phidget les rattache seule); si le serveur
+ *   ne revient pas, UNE ré-inscription pour toute la session, au lieu d'un close/open par capteur
+ */
+public final class PhidgetSession {
+
+    public enum Health {
+        CONNECTING, // aucun canal encore attaché
+        UP,
+        DOWN // des canaux étaient attachés, plus aucun ne l'est
+    }
+
+    private static final long WATCH_MS = 500;
+    private static final long RESET_AFTER_MS = 3000; // DOWN depuis -> ré-inscription du serveur
+    private static final long RESET_PERIOD_MS = 5000; // au plus une ré-inscription toutes les 5 s
+
+    private static final Map<String, PhidgetSession> sessions = new ConcurrentHashMap<>();
+
+    private final String serverName;
+    private volatile String ip;
+    private volatile int port;
+
+    private int refs = 0;
+    private boolean registered = false;
+    private ScheduledTask watchdog;
+
+    private final Set<Phidget> bound = ConcurrentHashMap.newKeySet();
+    private final Set<Phidget> attached = ConcurrentHashMap.newKeySet();
+    private volatile Health health = Health.CONNECTING;
+    private volatile long healthSinceMs = System.currentTimeMillis();
+    private long lastResetAtMs = 0;
+
+    private final AttachListener onAttach = e -> onAttach(e.getSource());
+    private final DetachListener onDetach = e -> onDetach(e.getSource());
+
+    private PhidgetSession(String serverName, String ip, int port) {
+        this.serverName = serverName;
+        this.ip = ip;
+        this.port = port;
+    }
+
+    /**
+     * Session du serveur. Un serverName = un serveur: si la session est déjà utilisée avec
+     * une autre adresse, l'adresse existante est conservée.
+     */
+    public static PhidgetSession of(String serverName, String ip, int port) {
+        PhidgetSession s = sessions.computeIfAbsent(serverName, k -> new PhidgetSession(k, ip, port));
+        s.retarget(ip, port);
+        return s;
+    }
+
+    private synchronized void retarget(String ip, int port) {
+        if (ip.equals(this.ip) && port == this.port)
+            return;
+        if (refs > 0) {
+            System.out.println("[NET] " + serverName + " déjà ouvert sur " + this.ip + ":" + this.port
+                    + " (ignoré: " + ip + ":" + port + ")");
+            return;
+        }
+        this.ip = ip;
+        this.port = port;
+    }
+
+    public String serverName() {
+        return serverName;
+    }
+
+    public Health health() {
+        return health;
+    }
+
+    /** Instant (ms) du dernier changement d'état. */
+    public long healthSinceMs() {
+        return healthSinceMs;
+    }
+
+    public boolean isDown() {
+        return health == Health.DOWN;
+    }
+
+    /** Prend une référence sur la session (inscrit le serveur au premier appel). */
+    public synchronized void acquire() throws PhidgetException {
+        if (!registered) {
+            register();
+        }
+        refs++;
+        if (watchdog == null) {
+            watchdog = SensorScheduler.schedule("net." + serverName, WATCH_MS, this::watch);
+        }
+    }
+
+    /** Rend une référence; le serveur est désinscrit quand plus personne ne l'utilise. */
+    public synchronized void release() {
+        if (refs == 0)
+            return;
+        refs--;
+        if (refs > 0)
+            return;
+        if (watchdog != null) {
+            watchdog.cancel();
+            watchdog = null;
+        }
+        try {
+            Net.removeServer(serverName);
+        } catch (Exception ignored) {
+        }
+        registered = false;
+        setHealth(Health.CONNECTING);
+        System.out.println("[NET] " + serverName + " désinscrit.");
+    }
+
+    /** Prépare un canal sur ce serveur et le rattache au suivi de santé (avant open()). */
+    public <T extends Phidget> T bind(T channel, int hubPort, int channelIndex) throws PhidgetException {
+        channel.setServerName(serverName);
+        channel.setHubPort(hubPort);
+        channel.setChannel(channelIndex);
+        channel.addAttachListener(onAttach);
+        channel.addDetachListener(onDetach);
+        bound.add(channel);
+        return channel;
+    }
+
+    /** Ferme un canal lié (sans exception) et le retire du suivi. */
+    public void close(Phidget channel) {
+        if (channel == null)
+            return;
+        bound.remove(channel);
+        attached.remove(channel);
+        try {
+            channel.close();
+        } catch (Exception ignored) {
+        }
+        refreshHealth();
+    }
+
+    private void register() throws PhidgetException {
+        try {
+            Net.addServer(serverName, ip, port, "", 0);
+        } catch (PhidgetException e) {
+            // Déjà présent (relance dans la même JVM): on le remplace pour repartir propre
+            try {
+                Net.removeServer(serverName);
+            } catch (Exception ignored) {
+            }
+            Net.addServer(serverName, ip, port, "", 0);
+        }
+        registered = true;
+        System.out.println("[NET] " + serverName + " inscrit (" + ip + ":" + port + ")");
+    }
+
+    private void onAttach(Phidget ch) {
+        if (bound.contains(ch))
+            attached.add(ch);
+        refreshHealth();
+    }
+
+    private void onDetach(Phidget ch) {
+        attached.remove(ch);
+        refreshHealth();
+    }
+
+    private void refreshHealth() {
+        Health h = health;
+        if (!attached.isEmpty()) {
+            setHealth(Health.UP);
+        } else if (h == Health.UP && !bound.isEmpty()) {
+            setHealth(Health.DOWN);
+        }
+    }
+
+    private void setHealth(Health next) {
+        if (health == next)
+            return;
+        health = next;
+        healthSinceMs = System.currentTimeMillis();
+        System.out.println("[NET] " + serverName + " " + next + " (" + attached.size() + "/" + bound.size()
+                + " canaux attachés)");
+    }
+
+    /** Lien perdu trop longtemps: une ré-inscription pour toute la session. */
+    private synchronized void watch() {
+        long now = System.currentTimeMillis();
+        if (health != Health.DOWN || !registered)
+            return;
+        if (now - healthSinceMs < RESET_AFTER_MS || now - lastResetAtMs < RESET_PERIOD_MS)
+            return;
+        lastResetAtMs = now;
+        System.out.println("[NET] " + serverName + " DOWN depuis " + (now - healthSinceMs) + " ms -> ré-inscription");
+        SensorScheduler.submitBlocking(this::reregister);
+    }
+
+    private synchronized void reregister() {
+        if (!registered)
+            return;
+        try {
+            Net.removeServer(serverName);
+        } catch (Exception ignored) {
+        }
+        try {
+            Net.addServer(serverName, ip, port, "", 0);
+        } catch (PhidgetException e) {
+            System.out.println("[NET] ré-inscription " + serverName + " FAILED: " + e.getDescription());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package common;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dispatchers des voies CRITICAL et LOW (un thread chacun, démarrés à la demande).
+ * La latence publish -> début de livraison est mesurée par voie.
+ * La voie CRITICAL (alertes obstacle, arrêt d'urgence) ne bloque jamais le publieur (thread
+ * manette, boucle de contrôle) et ne lève jamais d'exception: file pleine, chaque topic garde sa
+ * dernière valeur (coalescée, comptée) et la voie passe en débordement jusqu'à ce que la file soit
+ * vidée; les valeurs coalescées sont alors livrées, toujours après les plus anciennes du même topic.
+ */
+final class PriorityDispatcher {
+
+    private static final int CRITICAL_CAPACITY = 256;
+    private static final long OVERFLOW_CHECK_MS = 10;
+
+    private record CriticalItem(Topic<?> topic, Object payload, long enqueuedAtNs) {
+    }
+
+    private static final ArrayBlockingQueue<CriticalItem> criticalQueue = new ArrayBlockingQueue<>(CRITICAL_CAPACITY);
+    private static final ConcurrentLinkedQueue<Topic<?>> overflowTopics = new ConcurrentLinkedQueue<>();
+    private static final LinkedBlockingQueue<Topic<?>> lowQueue = new LinkedBlockingQueue<>();
+
+    static final LatencyHistogram criticalLatency = new LatencyHistogram();
+    static final LatencyHistogram lowLatency = new LatencyHistogram();
+    static final AtomicLong criticalCoalesced = new AtomicLong(); // valeurs remplacées avant livraison
+    static final AtomicLong lowCoalesced = new AtomicLong();
+
+    private static volatile boolean overflowing = false;
+    private static Thread criticalThread;
+    private static Thread lowThread;
+
+    private PriorityDispatcher() {
+    }
+
+    static void critical(Topic<?> topic, Object payload) {
+        ensureStarted();
+        long now = System.nanoTime();
+        // Débordement en cours (ou valeur du topic déjà en attente): on coalesce, sans doubler les anciennes
+        if (!overflowing && !topic.hasCriticalOverflow()
+                && criticalQueue.offer(new CriticalItem(topic, payload, now)))
+            return;
+        if (!overflowing) {
+            overflowing = true;
+            System.err.println("[EventBus] voie CRITICAL pleine (" + CRITICAL_CAPACITY + ") sur " + topic.name()
+                    + ": dernière valeur par topic conservée jusqu'à livraison");
+        }
+        if (topic.coalesceCritical(payload, now)) {
+            criticalCoalesced.incrementAndGet();
+        } else {
+            overflowTopics.add(topic);
+        }
+    }
+
+    /** Le topic garde lui-même la valeur en attente; ici on ne met en file que le topic. */
+    static void low(Topic<?> topic, boolean alreadyPending) {
+        if (alreadyPending) {
+            lowCoalesced.incrementAndGet();
+            return;
+        }
+        ensureStarted();
+        lowQueue.offer(topic);
+    }
+
+    /** File vide: livre les valeurs coalescées (ordre de premier débordement), puis fin du débordement. */
+    private static void drainOverflow() {
+        Topic<?> t;
+        while ((t = overflowTopics.poll()) != null) {
+            Topic.Pending p = t.takeCriticalOverflow();
+            if (p == null)
+                continue;
+            criticalLatency.recordNanos(System.nanoTime() - p.sinceNs());
+            t.dispatchUntyped(p.payload());
+        }
+        if (overflowing) {
+            overflowing = false;
+            System.err.println("[EventBus] voie CRITICAL rétablie (" + criticalCoalesced.get() + " valeurs coalescées)");
+        }
+    }
+
+    private static synchronized void ensureStarted() {
+        if (criticalThread != null)
+            return;
+
+        criticalThread = new Thread(() -> {
+            while (true) {
+                CriticalItem item;
+                try {
+                    // Réveil périodique: une valeur coalescée juste après un drainOverflow() n'attend pas
+                    item = criticalQueue.poll(OVERFLOW_CHECK_MS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (item == null) {
+                    if (overflowing || !overflowTopics.isEmpty())
+                        drainOverflow();
+                    continue;
+                }
+                criticalLatency.recordNanos(System.nanoTime() - item.enqueuedAtNs());
+                item.topic().dispatchUntyped(item.payload());
+            }
+        }, "EventBus-critical");
+        criticalThread.setPriority(Thread.MAX_PRIORITY);
+        criticalThread.setDaemon(true);
+        criticalThread.start();
+
+        lowThread = new Thread(() -> {
+            while (true) {
+                Topic<?> topic;
+                try {
+                    topic = lowQueue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                topic.drainPending(lowLatency);
+            }
+        }, "EventBus-low");
+        lowThread.setPriority(Thread.MIN_PRIORITY);
+        lowThread.setDaemon(true);
+        lowThread.start();
+    }
+}
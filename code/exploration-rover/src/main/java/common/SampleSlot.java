@@ -0,0 +1,66 @@
+package common;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * Dernier échantillon d'un capteur encodé en primitives. Un seul écrivain à la fois
+ * (le service sérialise ses écritures: thread de polling / thread d'événements Phidget).
+ * Lecture sans verrou ni allocation (seqlock) dans un {@link SensorSample} réutilisé par le lecteur.
+ */
+public final class SampleSlot {
+
+    private volatile long seq; // impair = écriture en cours
+
+    private double value0 = Double.NaN;
+    private double value1 = Double.NaN;
+    private boolean attached;
+    private long timestampMs;
+    private long captureNanos;
+    private String lastError;
+
+    /** Écriture (sérialisée par le service). captureNanos: System.nanoTime() à la réception de la mesure. */
+    public void write(double value0, double value1, boolean attached, long timestampMs, long captureNanos,
+            String lastError) {
+        long s = seq;
+        seq = s + 1;
+        VarHandle.storeStoreFence();
+        this.value0 = value0;
+        this.value1 = value1;
+        this.attached = attached;
+        this.timestampMs = timestampMs;
+        this.captureNanos = captureNanos;
+        this.lastError = lastError;
+        seq = s + 2;
+    }
+
+    /** Nombre d'écritures terminées (0 = jamais écrit). */
+    public long sequence() {
+        return seq >>> 1;
+    }
+
+    /**
+     * Copie le dernier échantillon dans out. Retourne false si rien n'a encore été écrit.
+     */
+    public boolean read(SensorSample out) {
+        while (true) {
+            long s1 = seq;
+            if ((s1 & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (s1 == 0)
+                return false;
+            double v0 = value0;
+            double v1 = value1;
+            boolean a = attached;
+            long ts = timestampMs;
+            long cap = captureNanos;
+            String err = lastError;
+            VarHandle.loadLoadFence();
+            if (seq == s1) {
+                out.set(s1 >>> 1, v0, v1, a, ts, cap, err);
+                return true;
+            }
+        }
+    }
+}
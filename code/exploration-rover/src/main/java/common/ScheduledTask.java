@@ -0,0 +1,108 @@
+package common;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tâche périodique de {@link SensorScheduler}: durée d'exécution et retard au démarrage
+ * (par rapport à l'instant prévu) mesurés à chaque tour.
+ */
+public final class ScheduledTask {
+
+    private final String name;
+    private volatile long periodMs;
+    private final Runnable body;
+    private final ScheduledThreadPoolExecutor executor; // file d'origine (capteurs ou arrière-plan)
+
+    final LatencyHistogram duration = new LatencyHistogram();
+    final LatencyHistogram lateness = new LatencyHistogram();
+    final LongAdder runs = new LongAdder();
+    final LongAdder errors = new LongAdder();
+
+    private volatile ScheduledFuture<?> future;
+    private volatile long expectedStartNs;
+    private boolean cancelled = false;
+
+    ScheduledTask(String name, long periodMs, Runnable body, long firstStartNs,
+            ScheduledThreadPoolExecutor executor) {
+        this.name = name;
+        this.periodMs = periodMs;
+        this.body = body;
+        this.expectedStartNs = firstStartNs;
+        this.executor = executor;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long periodMs() {
+        return periodMs;
+    }
+
+    ScheduledThreadPoolExecutor executor() {
+        return executor;
+    }
+
+    void bind(ScheduledFuture<?> future) {
+        this.future = future;
+    }
+
+    /**
+     * Change la période (cadence adaptative). La tâche est replanifiée, ses métriques sont conservées;
+     * le prochain tour a lieu une nouvelle période plus tard.
+     */
+    public synchronized void setPeriodMs(long periodMs) {
+        long p = Math.max(1, periodMs);
+        if (cancelled || p == this.periodMs)
+            return;
+        ScheduledFuture<?> f = future;
+        if (f != null)
+            f.cancel(false);
+        this.periodMs = p;
+        expectedStartNs = System.nanoTime() + p * 1_000_000L;
+        future = executor.scheduleAtFixedRate(this::run, p, p, TimeUnit.MILLISECONDS);
+    }
+
+    /** Appelé par l'exécuteur. Une exception ne doit jamais annuler la tâche périodique. */
+    void run() {
+        long t0 = System.nanoTime();
+        lateness.recordNanos(t0 - expectedStartNs);
+        expectedStartNs += periodMs * 1_000_000L;
+        try {
+            body.run();
+        } catch (Throwable t) {
+            errors.increment();
+            System.out.println("[SCHED] " + name + " erreur: " + t.getClass().getSimpleName() + " - " + t.getMessage());
+        }
+        runs.increment();
+        duration.recordNanos(System.nanoTime() - t0);
+    }
+
+    /** Signale une erreur gérée par le corps de la tâche (capteur en défaut, etc.). */
+    public void markError() {
+        errors.increment();
+    }
+
+    public synchronized void cancel() {
+        cancelled = true;
+        ScheduledFuture<?> f = future;
+        if (f != null)
+            f.cancel(false);
+        SensorScheduler.forget(this);
+    }
+
+    SensorScheduler.TaskMetrics snapshot() {
+        return new SensorScheduler.TaskMetrics(
+                name,
+                periodMs,
+                runs.sum(),
+                errors.sum(),
+                duration.percentileMicros(50),
+                duration.percentileMicros(99),
+                duration.maxMicros(),
+                lateness.percentileMicros(99));
+    }
+}
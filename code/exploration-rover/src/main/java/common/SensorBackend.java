@@ -0,0 +1,30 @@
+package common;
+
+/**
+ * Accès au matériel d'un serveur (un par serverName): lien réseau + fabrique de canaux.
+ * Les services ne voient plus com.phidget22: le backend est choisi par {@link SensorBackends}
+ * (Phidget par défaut, simulateur pour les tests de charge / soak / CI).
+ */
+public interface SensorBackend {
+
+    String serverName();
+
+    /** Prend une référence sur le lien (premier appel: connexion au serveur). */
+    void acquire() throws SensorException;
+
+    /** Rend une référence; le lien est fermé quand plus personne ne l'utilise. */
+    void release();
+
+    /** Lien perdu: les canaux restent ouverts, le backend se charge de la reconnexion. */
+    boolean isLinkDown();
+
+    SensorSource distance(int hubPort, int channel);
+
+    SensorSource humidity(int hubPort, int channel);
+
+    SensorSource temperature(int hubPort, int channel);
+
+    SensorSource light(int hubPort, int channel);
+
+    MotorSink motor(int hubPort, int channel);
+}
@@ -0,0 +1,35 @@
+package common;
+
+/**
+ * Choix du backend matériel pour tout le process.
+ * Par défaut: Phidget (réseau). Le simulateur s'installe via {@link #use(Factory, String)}
+ * AVANT la création des services et de la Connection.
+ */
+public final class SensorBackends {
+
+    @FunctionalInterface
+    public interface Factory {
+        SensorBackend create(String serverName, String ip, int port);
+    }
+
+    private static volatile Factory factory = PhidgetBackend::new;
+    private static volatile String label = "phidget";
+
+    private SensorBackends() {
+    }
+
+    public static SensorBackend of(String serverName, String ip, int port) {
+        return factory.create(serverName, ip, port);
+    }
+
+    public static void use(Factory f, String name) {
+        factory = f;
+        label = name;
+        System.out.println("[NET] backend capteurs/moteurs: " + name);
+    }
+
+    /** Nom du backend courant ("phidget", "sim"...). */
+    public static String current() {
+        return label;
+    }
+}
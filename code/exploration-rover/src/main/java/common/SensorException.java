@@ -0,0 +1,31 @@
+package common;
+
+/**
+ * Erreur d'un canal capteur / moteur, indépendante du backend (Phidget ou simulé).
+ * Garde la description et le code d'origine pour les messages publiés ("... (code=TIMEOUT)").
+ */
+public class SensorException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String description;
+    private final String errorCode;
+
+    public SensorException(String description, String errorCode) {
+        this(description, errorCode, null);
+    }
+
+    public SensorException(String description, String errorCode, Throwable cause) {
+        super(description + " (code=" + errorCode + ")", cause);
+        this.description = description;
+        this.errorCode = errorCode;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+}
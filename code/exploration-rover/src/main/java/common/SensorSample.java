@@ -0,0 +1,61 @@
+package common;
+
+/**
+ * Échantillon capteur mutable, possédé par le lecteur et rempli par {@link SampleSlot#read(SensorSample)}.
+ * value0 = mesure principale (distance filtrée mm), value1 = mesure secondaire (distance brute).
+ * captureNanos = System.nanoTime() à la réception (monotone, pour l'âge de la mesure).
+ */
+public final class SensorSample {
+
+    private long sequence;
+    private double value0 = Double.NaN;
+    private double value1 = Double.NaN;
+    private boolean attached;
+    private long timestampMs;
+    private long captureNanos;
+    private String lastError;
+
+    void set(long sequence, double value0, double value1, boolean attached, long timestampMs, long captureNanos,
+            String lastError) {
+        this.sequence = sequence;
+        this.value0 = value0;
+        this.value1 = value1;
+        this.attached = attached;
+        this.timestampMs = timestampMs;
+        this.captureNanos = captureNanos;
+        this.lastError = lastError;
+    }
+
+    public long sequence() {
+        return sequence;
+    }
+
+    public double value0() {
+        return value0;
+    }
+
+    public double value1() {
+        return value1;
+    }
+
+    public boolean attached() {
+        return attached;
+    }
+
+    public long timestampMs() {
+        return timestampMs;
+    }
+
+    public long captureNanos() {
+        return captureNanos;
+    }
+
+    /** Âge de la mesure (ns), Long.MAX_VALUE si jamais reçue. */
+    public long ageNanos() {
+        return captureNanos == 0 ? Long.MAX_VALUE : System.nanoTime() - captureNanos;
+    }
+
+    public String lastError() {
+        return lastError;
+    }
+}
@@ -0,0 +1,154 @@
+package common;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ordonnanceur partagé des boucles capteurs et manette (remplace un Thread + sleep par service).
+ * - WORKERS threads pour les lectures périodiques (courtes, non bloquantes)
+ * - un thread "sensor-open" séparé pour les open() Phidget (bloquants jusqu'à 5 s),
+ *   pour qu'un capteur absent ne retarde jamais les autres lectures
+ * - BACKGROUND_WORKERS threads basse priorité "app-bg" pour le travail applicatif lent
+ *   (IHM, mission, console): jamais sur les threads capteurs ni sur le thread de contrôle
+ * - {@link #scheduleDedicated}: une tâche sur son propre thread (manette: peut piloter les moteurs)
+ */
+public final class SensorScheduler {
+
+    private static final int WORKERS = 2;
+    private static final int BACKGROUND_WORKERS = 3; // IHM, mission, console/reconnexion
+
+    /** Durée d'exécution et retard au démarrage (p99) par tâche. */
+    public record TaskMetrics(
+            String task,
+            long periodMs,
+            long runs,
+            long errors,
+            long p50Micros,
+            long p99Micros,
+            long maxMicros,
+            long lateP99Micros) {
+    }
+
+    private static final ScheduledThreadPoolExecutor exec = createExecutor(WORKERS, "sensor-sched", Thread.NORM_PRIORITY);
+    private static final ScheduledThreadPoolExecutor background = createExecutor(BACKGROUND_WORKERS, "app-bg",
+            Thread.MIN_PRIORITY);
+    private static final ExecutorService opener = Executors.newSingleThreadExecutor(daemon("sensor-open"));
+    private static final List<ScheduledTask> tasks = new CopyOnWriteArrayList<>();
+    private static ScheduledTask reporter;
+
+    private SensorScheduler() {
+    }
+
+    private static ScheduledThreadPoolExecutor createExecutor(int threads, String prefix, int priority) {
+        ScheduledThreadPoolExecutor e = new ScheduledThreadPoolExecutor(threads, daemon(prefix, priority));
+        e.setRemoveOnCancelPolicy(true);
+        return e;
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        return daemon(prefix, Thread.NORM_PRIORITY);
+    }
+
+    private static ThreadFactory daemon(String prefix, int priority) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(priority);
+            return t;
+        };
+    }
+
+    /** Exécute body toutes les periodMs (cadence fixe), à partir de maintenant. */
+    public static ScheduledTask schedule(String name, long periodMs, Runnable body) {
+        return schedule(exec, name, periodMs, body);
+    }
+
+    /**
+     * Comme {@link #schedule}, sur les threads basse priorité "app-bg" (IHM, mission, console).
+     * Une tâche lente ou bloquée ici ne retarde ni les capteurs ni la boucle de contrôle.
+     */
+    public static ScheduledTask scheduleBackground(String name, long periodMs, Runnable body) {
+        return schedule(background, name, periodMs, body);
+    }
+
+    /**
+     * Comme {@link #schedule}, sur un thread dédié (nommé comme la tâche, priorité donnée).
+     * Pour une boucle dont le corps peut faire des E/S réseau (ex: commande moteurs déclenchée par la
+     * manette): elle ne retarde jamais les lectures capteurs. Le thread s'arrête avec cancel().
+     */
+    public static ScheduledTask scheduleDedicated(String name, long periodMs, int priority, Runnable body) {
+        return schedule(createExecutor(1, name, priority), name, periodMs, body);
+    }
+
+    private static ScheduledTask schedule(ScheduledThreadPoolExecutor executor, String name, long periodMs,
+            Runnable body) {
+        long period = Math.max(1, periodMs);
+        ScheduledTask task = new ScheduledTask(name, period, body, System.nanoTime(), executor);
+        task.bind(executor.scheduleAtFixedRate(task::run, 0, period, TimeUnit.MILLISECONDS));
+        tasks.add(task);
+        return task;
+    }
+
+    /** Action ponctuelle différée (ex: fin d'une impulsion de vibration). */
+    public static ScheduledFuture<?> delay(long delayMs, Runnable action) {
+        return exec.schedule(action, Math.max(0, delayMs), TimeUnit.MILLISECONDS);
+    }
+
+    /** Opération bloquante (open/close Phidget), sérialisée hors des threads de lecture. */
+    public static void submitBlocking(Runnable action) {
+        opener.execute(action);
+    }
+
+    static void forget(ScheduledTask task) {
+        tasks.remove(task);
+        ScheduledThreadPoolExecutor e = task.executor();
+        if (e != exec && e != background)
+            e.shutdown(); // thread dédié
+    }
+
+    public static List<TaskMetrics> snapshot() {
+        List<TaskMetrics> out = new ArrayList<>();
+        for (ScheduledTask t : tasks) {
+            out.add(t.snapshot());
+        }
+        out.sort(Comparator.comparing(TaskMetrics::task));
+        return out;
+    }
+
+    public static String format(List<TaskMetrics> snap) {
+        StringBuilder sb = new StringBuilder();
+        for (TaskMetrics m : snap) {
+            sb.append(String.format(Locale.US,
+                    "[SCHED] %-20s period=%dms runs=%d err=%d p50=%dus p99=%dus max=%dus late.p99=%dus%n",
+                    m.task(), m.periodMs(), m.runs(), m.errors(), m.p50Micros(), m.p99Micros(), m.maxMicros(),
+                    m.lateP99Micros()));
+        }
+        return sb.toString();
+    }
+
+    /** Dump console périodique, sur le thread des tâches de fond (app-bg), pas sur les workers capteurs. */
+    public static synchronized void startReporter(int periodMs) {
+        if (reporter != null)
+            return;
+        long period = Math.max(1000, periodMs);
+        reporter = scheduleBackground("sched-report", period, () -> System.out.print(format(snapshot())));
+    }
+
+    public static synchronized void stopReporter() {
+        if (reporter != null) {
+            reporter.cancel();
+            reporter = null;
+        }
+    }
+}
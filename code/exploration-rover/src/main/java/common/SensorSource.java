@@ -0,0 +1,34 @@
+package common;
+
+import java.util.function.DoubleConsumer;
+
+/**
+ * Un canal de mesure (distance, humidité, température, lumière) vu par les services.
+ * Implémenté par le matériel Phidget ({@link PhidgetBackend}) ou par le simulateur.
+ * Unités: mm, %HR, °C, lux selon le canal.
+ */
+public interface SensorSource {
+
+    /** Ouvre le canal (bloquant, appelé sur le thread "sensor-open"). */
+    void open(int timeoutMs) throws SensorException;
+
+    /** Ferme le canal sans lever d'exception. */
+    void close();
+
+    boolean isAttached();
+
+    /** Valeur courante (NaN si pas encore de mesure). */
+    double read() throws SensorException;
+
+    /** Callback sur changement de valeur, à poser avant open(). Ignoré si le canal n'a pas d'événements. */
+    default void setChangeListener(DoubleConsumer listener) {
+    }
+
+    int getMinDataInterval() throws SensorException;
+
+    void setDataInterval(int ms) throws SensorException;
+
+    /** Variation minimale déclenchant un événement (bornée par le min matériel). */
+    default void setChangeTrigger(double trigger) throws SensorException {
+    }
+}
@@ -0,0 +1,318 @@
+package common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Canal typé de l'EventBus, résolu une seule fois via {@link EventBus#topic(String, Class)}.
+ * publish() parcourt directement un tableau de listeners (copie à l'écriture):
+ * pas de lookup par nom, pas de cast ni d'instanceof côté abonné.
+ */
+public final class Topic<T> {
+
+    private static final ListenerSlot[] NO_LISTENERS = new ListenerSlot[0];
+    private static final long RATE_WINDOW_NS = 1_000_000_000L;
+    private static final long DEFAULT_BUDGET_NANOS = 5_000_000L; // 5 ms: 1/8 de la boucle TOF (40 ms)
+
+    private final String name;
+    private volatile Class<T> type;
+    private final ConflatedTopic<T> latest;
+    private volatile ListenerSlot[] listeners = NO_LISTENERS;
+    private volatile TopicPriority priority = TopicPriority.NORMAL;
+    private volatile long listenerBudgetNanos = DEFAULT_BUDGET_NANOS;
+
+    /** Valeur en attente de livraison + instant de mise en attente (publiés ensemble). */
+    record Pending(Object payload, long sinceNs) {
+    }
+
+    // Voie LOW: dernière valeur en attente de livraison (coalescée), depuis la plus ancienne
+    private final AtomicReference<Pending> pending = new AtomicReference<>();
+    // Voie CRITICAL saturée: dernière valeur coalescée, livrée après la file (voir PriorityDispatcher)
+    private final AtomicReference<Pending> criticalOverflow = new AtomicReference<>();
+
+    // Métriques
+    private final LongAdder publishCount = new LongAdder();
+    private long rateWindowStartNs = System.nanoTime();
+    private long rateWindowStartCount = 0;
+    private double lastRatePerSec = 0.0;
+
+    Topic(String name, Class<T> type) {
+        this.name = name;
+        this.type = type;
+        this.latest = new ConflatedTopic<>(name);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /** Type déclaré du payload, ou null si le topic n'est utilisé que via l'API String. */
+    public Class<T> type() {
+        return type;
+    }
+
+    /** Slot "dernière valeur" du topic, pour les lecteurs qui pollent. */
+    public ConflatedTopic<T> latest() {
+        return latest;
+    }
+
+    /**
+     * Source de la dernière valeur pour un service qui ne construit son payload que si le topic
+     * a des abonnés: sans abonné il appelle {@link #markPublished()}, latest() relit la source.
+     */
+    public Topic<T> setLatestSource(Supplier<? extends T> source) {
+        latest.setSource(source);
+        return this;
+    }
+
+    /** Publication sans payload (aucun abonné): compteurs et latest() restent à jour. */
+    public void markPublished() {
+        latest.touch();
+        publishCount.increment();
+    }
+
+    public TopicPriority priority() {
+        return priority;
+    }
+
+    /** Voie de distribution (NORMAL par défaut). À fixer par le service qui publie. */
+    public Topic<T> setPriority(TopicPriority priority) {
+        this.priority = priority == null ? TopicPriority.NORMAL : priority;
+        return this;
+    }
+
+    /**
+     * Budget de temps d'un appel de listener synchrone (0 = pas de limite).
+     * Dépassé {@value ListenerSlot#MAX_STRIKES} fois de suite (ou appel bloqué), le listener est
+     * déporté sur une boîte aux lettres asynchrone jusqu'à ce qu'il retombe dans le budget;
+     * boîte pleine, il est désactivé. Le publieur n'attend jamais un listener en quarantaine.
+     */
+    public Topic<T> setListenerBudgetMicros(long micros) {
+        this.listenerBudgetNanos = Math.max(0L, micros) * 1000L;
+        return this;
+    }
+
+    public void subscribe(Consumer<? super T> listener) {
+        addSlot(listener, -1L, false);
+    }
+
+    /**
+     * Abonnement avec son propre budget (0 = jamais mis en quarantaine pour lenteur),
+     * pour un listener dont le coût est connu et qui ne doit perdre aucun événement.
+     */
+    public void subscribe(Consumer<? super T> listener, long budgetMicros) {
+        addSlot(listener, Math.max(0L, budgetMicros) * 1000L, false);
+    }
+
+    /**
+     * Abonnement posé par un motif (EventBus.subscribePattern): au plus un par listener,
+     * indépendant d'un éventuel abonnement direct du même listener.
+     */
+    synchronized void subscribeFromPattern(Consumer<? super T> listener) {
+        if (indexOf(listener, true) < 0)
+            addSlot(listener, -1L, true);
+    }
+
+    synchronized void unsubscribeFromPattern(Consumer<? super T> listener) {
+        removeSlot(indexOf(listener, true));
+    }
+
+    private synchronized void addSlot(Consumer<? super T> listener, long budgetOverrideNanos, boolean fromPattern) {
+        if (listener == null)
+            return;
+        ListenerSlot[] cur = listeners;
+        ListenerSlot[] next = Arrays.copyOf(cur, cur.length + 1);
+        next[cur.length] = new ListenerSlot(name, listener, budgetOverrideNanos, fromPattern);
+        listeners = next;
+        EventBus.startWatchdog();
+    }
+
+    /**
+     * Abonnement asynchrone: le listener tourne sur son propre worker avec une
+     * boîte aux lettres bornée, le thread capteur qui publie n'est jamais bloqué
+     * (sauf politique BLOCK).
+     */
+    public void subscribeAsync(Consumer<? super T> listener, int capacity, OverflowPolicy policy) {
+        if (listener == null)
+            return;
+        subscribe(new Mailbox<T>(name, listener, capacity, policy));
+    }
+
+    /** Retire un abonnement direct (les abonnements par motif restent: EventBus.unsubscribePattern). */
+    public synchronized void unsubscribe(Consumer<? super T> listener) {
+        removeSlot(indexOf(listener, false));
+    }
+
+    private int indexOf(Consumer<?> listener, boolean fromPattern) {
+        ListenerSlot[] cur = listeners;
+        for (int i = 0; i < cur.length; i++) {
+            if (cur[i].fromPattern == fromPattern && cur[i].matches(listener))
+                return i;
+        }
+        return -1;
+    }
+
+    private void removeSlot(int i) {
+        if (i < 0)
+            return;
+        ListenerSlot[] cur = listeners;
+        cur[i].close();
+        ListenerSlot[] next = new ListenerSlot[cur.length - 1];
+        System.arraycopy(cur, 0, next, 0, i);
+        System.arraycopy(cur, i + 1, next, i, cur.length - i - 1);
+        listeners = next.length == 0 ? NO_LISTENERS : next;
+    }
+
+    /** Sort un listener de quarantaine. Retourne false s'il n'était pas en quarantaine. */
+    public boolean readmit(Consumer<? super T> listener) {
+        for (ListenerSlot slot : listeners) {
+            if (slot.matches(listener))
+                return slot.readmit();
+        }
+        return false;
+    }
+
+    /** Sort tous les listeners de quarantaine. Retourne le nombre réadmis. */
+    public int readmitAll() {
+        int n = 0;
+        for (ListenerSlot slot : listeners) {
+            if (slot.readmit())
+                n++;
+        }
+        return n;
+    }
+
+    public boolean hasListeners() {
+        return listeners.length > 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void publish(T payload) {
+        latest.set(payload);
+        publishCount.increment();
+        switch (priority) {
+            case NORMAL -> dispatch(payload);
+            case CRITICAL -> PriorityDispatcher.critical(this, payload);
+            case LOW -> {
+                long now = System.nanoTime();
+                Pending prev;
+                do {
+                    prev = pending.get();
+                } while (!pending.compareAndSet(prev, new Pending(payload, prev == null ? now : prev.sinceNs())));
+                PriorityDispatcher.low(this, prev != null);
+            }
+        }
+    }
+
+    /** Voie LOW: livre la valeur en attente (appelé par le dispatcher basse priorité). */
+    @SuppressWarnings("unchecked")
+    void drainPending(LatencyHistogram waitLatency) {
+        Pending p = pending.getAndSet(null);
+        if (p == null)
+            return;
+        waitLatency.recordNanos(System.nanoTime() - p.sinceNs());
+        dispatch((T) p.payload());
+    }
+
+    /** Voie CRITICAL: une valeur coalescée attend déjà (les suivantes la remplacent, ordre conservé). */
+    boolean hasCriticalOverflow() {
+        return criticalOverflow.get() != null;
+    }
+
+    /** Voie CRITICAL saturée: remplace la valeur coalescée. Retourne true si le topic était déjà en attente. */
+    boolean coalesceCritical(Object payload, long nowNs) {
+        return criticalOverflow.getAndSet(new Pending(payload, nowNs)) != null;
+    }
+
+    /** Dispatcher critique: valeur coalescée à livrer, null si aucune. */
+    Pending takeCriticalOverflow() {
+        return criticalOverflow.getAndSet(null);
+    }
+
+
+    @SuppressWarnings("unchecked")
+    void dispatchUntyped(Object payload) {
+        dispatch((T) payload);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void dispatch(T payload) {
+        ListenerSlot[] ls = listeners;
+        boolean timed = EventBusMetrics.isEnabled();
+        long budget = listenerBudgetNanos;
+        for (ListenerSlot slot : ls) {
+            Consumer<? super T> target = (Consumer<? super T>) slot.target();
+            if (target == null)
+                continue; // quarantaine DISABLED
+            Exception error = null;
+            long t0 = System.nanoTime();
+            long token = slot.enter(t0);
+            try {
+                target.accept(payload);
+            } catch (Exception e) {
+                error = e;
+                slot.errors.increment();
+            } finally {
+                slot.exit(token);
+            }
+            long elapsed = System.nanoTime() - t0;
+            slot.invocations.increment();
+            if (timed)
+                slot.latency.recordNanos(elapsed);
+            slot.afterCall(elapsed, error, slot.budgetNanos(budget));
+        }
+    }
+
+    /** Chien de garde de l'EventBus: listeners bloqués dans un appel direct. */
+    void checkStuckListeners(long now) {
+        long budget = listenerBudgetNanos;
+        for (ListenerSlot slot : listeners) {
+            slot.checkStuck(now, budget);
+        }
+    }
+
+    /** Chemin de l'API String: vérifie le type déclaré avant de dispatcher. */
+    @SuppressWarnings("unchecked")
+    void publishUntyped(Object payload) {
+        Class<T> t = type;
+        if (t != null && payload != null && !t.isInstance(payload)) {
+            System.err.println("[EventBus] payload " + payload.getClass().getSimpleName()
+                    + " ignoré pour " + name + " (attendu " + t.getSimpleName() + ")");
+            return;
+        }
+        publish((T) payload);
+    }
+
+    synchronized EventBusMetrics.TopicMetrics metrics() {
+        long now = System.nanoTime();
+        long count = publishCount.sum();
+        long elapsed = now - rateWindowStartNs;
+        if (elapsed >= RATE_WINDOW_NS) {
+            lastRatePerSec = (count - rateWindowStartCount) * 1e9 / elapsed;
+            rateWindowStartNs = now;
+            rateWindowStartCount = count;
+        }
+        List<EventBusMetrics.ListenerMetrics> ls = new ArrayList<>();
+        for (ListenerSlot slot : listeners) {
+            ls.add(slot.snapshot());
+        }
+        return new EventBusMetrics.TopicMetrics(name, priority, count, lastRatePerSec, ls);
+    }
+
+    /** Fixe le type à la première déclaration typée (topic créé via l'API String). */
+    @SuppressWarnings("unchecked")
+    synchronized <U> Topic<U> bind(Class<U> expected) {
+        if (type == null) {
+            type = (Class<T>) expected;
+        } else if (!expected.isAssignableFrom(type)) {
+            throw new IllegalArgumentException("Topic " + name + " déjà déclaré avec le type "
+                    + type.getSimpleName() + " (demandé: " + expected.getSimpleName() + ")");
+        }
+        return (Topic<U>) this;
+    }
+}
@@ -0,0 +1,13 @@
+package common;
+
+/**
+ * Voie de distribution d'un topic.
+ * CRITICAL: dispatcher dédié haute priorité, sans perte (alertes obstacle, arrêt d'urgence)
+ * NORMAL: synchrone sur le thread qui publie (comportement historique)
+ * LOW: dispatcher basse priorité, coalescé (seule la dernière valeur en attente est livrée)
+ */
+public enum TopicPriority {
+    CRITICAL,
+    NORMAL,
+    LOW
+}
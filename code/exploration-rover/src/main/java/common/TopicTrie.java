@@ -0,0 +1,110 @@
+package common;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Trie des abonnements par motif sur les noms de topics hiérarchiques ("a.b.c").
+ * "*" = exactement un segment, "#" = zéro ou plusieurs segments (en dernier uniquement).
+ * Utilisé seulement à la création d'un topic / à l'abonnement: la résolution est ensuite
+ * mise en cache dans le tableau de listeners du topic (publish reste O(listeners)).
+ */
+final class TopicTrie {
+
+    private static final String ONE = "*";
+    private static final String ANY = "#";
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>();
+        final List<Consumer<Object>> listeners = new ArrayList<>();
+    }
+
+    private final Node root = new Node();
+
+    static boolean isPattern(String name) {
+        for (String seg : split(name)) {
+            if (seg.equals(ONE) || seg.equals(ANY))
+                return true;
+        }
+        return false;
+    }
+
+    void insert(String pattern, Consumer<Object> listener) {
+        String[] segs = validate(pattern);
+        Node n = root;
+        for (String seg : segs) {
+            n = n.children.computeIfAbsent(seg, k -> new Node());
+        }
+        n.listeners.add(listener);
+    }
+
+    void remove(String pattern, Consumer<Object> listener) {
+        Node n = root;
+        for (String seg : split(pattern)) {
+            n = n.children.get(seg);
+            if (n == null)
+                return;
+        }
+        n.listeners.remove(listener);
+    }
+
+    /** Listeners (sans doublon) dont un motif correspond au nom de topic. */
+    Set<Consumer<Object>> match(String topic) {
+        Set<Consumer<Object>> out = new LinkedHashSet<>();
+        collect(root, split(topic), 0, out);
+        return out;
+    }
+
+    private static void collect(Node n, String[] segs, int i, Set<Consumer<Object>> out) {
+        Node any = n.children.get(ANY);
+        if (any != null)
+            out.addAll(any.listeners); // "#" couvre le reste (y compris rien)
+
+        if (i == segs.length) {
+            out.addAll(n.listeners);
+            return;
+        }
+        Node exact = n.children.get(segs[i]);
+        if (exact != null)
+            collect(exact, segs, i + 1, out);
+        Node one = n.children.get(ONE);
+        if (one != null)
+            collect(one, segs, i + 1, out);
+    }
+
+    /** Test direct d'un motif (pour appliquer un nouveau motif aux topics existants). */
+    static boolean matches(String pattern, String topic) {
+        String[] p = split(pattern);
+        String[] t = split(topic);
+        int i = 0;
+        for (; i < p.length; i++) {
+            if (p[i].equals(ANY))
+                return true;
+            if (i >= t.length)
+                return false;
+            if (!p[i].equals(ONE) && !p[i].equals(t[i]))
+                return false;
+        }
+        return i == t.length;
+    }
+
+    private static String[] validate(String pattern) {
+        String[] segs = split(pattern);
+        for (int i = 0; i < segs.length; i++) {
+            if (segs[i].isEmpty())
+                throw new IllegalArgumentException("Motif de topic invalide (segment vide): " + pattern);
+            if (segs[i].equals(ANY) && i != segs.length - 1)
+                throw new IllegalArgumentException("'#' doit être le dernier segment: " + pattern);
+        }
+        return segs;
+    }
+
+    private static String[] split(String name) {
+        return name.split("\\.", -1);
+    }
+}
@@ -0,0 +1,30 @@
+package distances.model;
+
+import java.util.List;
+
+/**
+ * Snapshot du réseau de capteurs de distance: une mesure par capteur déclaré, même ordre que la déclaration.
+ * Publié une fois par cycle sur "ranges.update".
+ */
+public record RangeArrayState(
+        List<RangeReading> readings,
+        long timestampMs) {
+
+    /** Mesure du capteur nommé, null s'il n'est pas déclaré. */
+    public RangeReading get(String name) {
+        for (RangeReading r : readings) {
+            if (r.sensor().name().equals(name))
+                return r;
+        }
+        return null;
+    }
+
+    /** Au moins une mesure exploitable dans ce cycle. */
+    public boolean anyValid() {
+        for (RangeReading r : readings) {
+            if (r.isValid())
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,21 @@
+package distances.model;
+
+import common.DistanceSource;
+
+/**
+ * Mesure d'un capteur du réseau dans un cycle de l'agrégateur.
+ * distanceMm: distance filtrée (mm), rawDistanceMm: mesure brute.
+ */
+public record RangeReading(
+        RangeSensor sensor,
+        double distanceMm,
+        double rawDistanceMm,
+        boolean attached,
+        long captureNanos,
+        String lastError) implements DistanceSource {
+
+    /** Distance exploitable (capteur attaché, sans erreur, valeur filtrée disponible). */
+    public boolean isValid() {
+        return attached && lastError == null && !Double.isNaN(distanceMm) && distanceMm > 0;
+    }
+}
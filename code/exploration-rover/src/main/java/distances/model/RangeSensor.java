@@ -0,0 +1,119 @@
+package distances.model;
+
+import common.RoverConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Déclaration d'un capteur de distance (DST1001) du réseau: canal VINT + position sur le rover.
+ * angleDeg: orientation par rapport à l'avant (positif = vers la gauche)
+ * forwardMm / leftMm: décalage depuis le centre du rover
+ * Chaque capteur republie aussi ses mesures sur {@link #topic()} (ex: "tof.left.update").
+ */
+public record RangeSensor(
+        String name,
+        int hubPort,
+        int channel,
+        double angleDeg,
+        double forwardMm,
+        double leftMm) {
+
+    private static final double DEFAULT_FORWARD_MM = 140;
+    private static final double MAX_OFFSET_MM = 1000; // position de montage: dans l'emprise du rover
+    private static final int MAX_HUB_PORT = 5; // ports VINT d'un hub
+
+    /** Topic individuel du capteur (compatibilité journal, mission, santé). */
+    public String topic() {
+        return "tof." + name + ".update";
+    }
+
+    /**
+     * Capteurs déclarés par -Drover.ranges, sinon les deux ToF de la config (gauche/droite à ±20°).
+     * Format: "nom:hubPort:canal:angle[:avantMm:gaucheMm]" séparés par ';'. Sans position, le capteur
+     * est au nez du rover dans l'axe (capteur tourné vers l'avant uniquement).
+     * ex: -Drover.ranges="left:5:0:20:140:90;right:0:0:-20:140:-90;rear:2:1:180:-140:0"
+     */
+    public static List<RangeSensor> fromProperties(RoverConfig config) {
+        String spec = System.getProperty("rover.ranges");
+        if (spec == null || spec.isBlank()) {
+            return defaults(config.tofLeftHubPort(), config.tofRightHubPort());
+        }
+        return parse(spec);
+    }
+
+    /**
+     * Implantation du rover: ToF "left" / "right" orientés à ±20° (montage matériel, ex-RadarView
+     * ANGLE_LEFT/RIGHT), 90 mm de l'axe. Autre montage: le déclarer par -Drover.ranges.
+     */
+    public static List<RangeSensor> defaults(int leftHubPort, int rightHubPort) {
+        return List.of(
+                new RangeSensor("left", leftHubPort, 0, 20, DEFAULT_FORWARD_MM, 90),
+                new RangeSensor("right", rightHubPort, 0, -20, DEFAULT_FORWARD_MM, -90));
+    }
+
+    /** Voir {@link #fromProperties(RoverConfig)} pour le format. */
+    public static List<RangeSensor> parse(String spec) {
+        List<RangeSensor> list = new ArrayList<>();
+        for (String item : spec.split(";")) {
+            String s = item.trim();
+            if (!s.isEmpty())
+                list.add(parseOne(s));
+        }
+        if (list.isEmpty())
+            throw new IllegalArgumentException("rover.ranges: aucun capteur déclaré");
+        return List.copyOf(list);
+    }
+
+    private static RangeSensor parseOne(String s) {
+        String[] f = s.split(":");
+        if (f.length != 4 && f.length != 6)
+            throw new IllegalArgumentException("capteur de distance invalide: '" + s
+                    + "' (attendu nom:hubPort:canal:angle[:avantMm:gaucheMm])");
+        String name = f[0].trim();
+        if (name.isEmpty())
+            throw new IllegalArgumentException("capteur de distance sans nom: '" + s + "'");
+        int hubPort = parseInt(s, "hubPort", f[1]);
+        int channel = parseInt(s, "canal", f[2]);
+        double angle = parseDouble(s, "angle", f[3]);
+        if (hubPort < 0 || hubPort > MAX_HUB_PORT)
+            throw new IllegalArgumentException("hubPort hors [0, " + MAX_HUB_PORT + "]: '" + s + "'");
+        if (channel < 0)
+            throw new IllegalArgumentException("canal négatif: '" + s + "'");
+        if (angle < -180 || angle > 180)
+            throw new IllegalArgumentException("angle hors [-180, 180]: '" + s + "'");
+
+        double forward = DEFAULT_FORWARD_MM;
+        double left = 0.0;
+        if (f.length == 6) {
+            forward = parseDouble(s, "avantMm", f[4]);
+            left = parseDouble(s, "gaucheMm", f[5]);
+            if (Math.abs(forward) > MAX_OFFSET_MM || Math.abs(left) > MAX_OFFSET_MM)
+                throw new IllegalArgumentException("position hors du rover (±" + (int) MAX_OFFSET_MM + " mm): '" + s + "'");
+        } else if (Math.abs(angle) > 90) {
+            // Au nez par défaut: un capteur tourné vers l'arrière y verrait le châssis
+            throw new IllegalArgumentException("capteur non frontal sans position: '" + s
+                    + "' (ajouter :avantMm:gaucheMm)");
+        }
+        return new RangeSensor(name, hubPort, channel, angle, forward, left);
+    }
+
+    private static int parseInt(String spec, String field, String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " invalide dans '" + spec + "': " + value);
+        }
+    }
+
+    private static double parseDouble(String spec, String field, String value) {
+        try {
+            double d = Double.parseDouble(value.trim());
+            if (!Double.isFinite(d))
+                throw new NumberFormatException();
+            return d;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " invalide dans '" + spec + "': " + value);
+        }
+    }
+}
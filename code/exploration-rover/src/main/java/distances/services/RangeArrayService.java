@@ -0,0 +1,354 @@
+package distances.services;
+
+import common.DistanceFilter;
+import common.EventBus;
+import common.LatencyTrace;
+import common.PhidgetSensorService;
+import common.SampleSlot;
+import common.SensorException;
+import common.SensorSample;
+import common.SensorScheduler;
+import common.SensorSource;
+import common.Topic;
+import distances.model.RangeArrayState;
+import distances.model.RangeReading;
+import distances.model.RangeSensor;
+import tof.model.TofState;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Agrégateur d'un réseau de capteurs de distance (N x DST1001): une seule tâche de lecture
+ * pour tous les canaux, un {@link RangeArrayState} publié par cycle sur "ranges.update".
+ * - ajouter un capteur = une ligne de déclaration ({@link RangeSensor}), ni classe ni thread
+ * - un canal absent ou en erreur est rouvert seul (les autres continuent d'être lus)
+ * - chaque mesure est aussi écrite dans le SampleSlot du capteur (value0 = filtrée, value1 = brute)
+ *   et republiée en TofState sur le topic du capteur si quelqu'un l'écoute
+ * - mode événementiel (défaut): chaque DistanceChange d'un canal est publié dès réception; la boucle
+ *   ne republie un canal que si ses événements se taisent (filet de sécurité), et agrège sinon
+ *   la dernière mesure de son slot dans le RangeArrayState
+ */
+public class RangeArrayService extends PhidgetSensorService {
+
+    public static final String TOPIC = "ranges.update";
+
+    private static final int LOOP_MS = 40; // proche du 25 Hz max du DST1001
+    private static final long CHANNEL_RETRY_MS = 2000; // réouverture d'un canal isolé
+    private static final int OPEN_TIMEOUT_MS = 5000;
+    private static final long EVENT_FALLBACK_MS = 200; // sans événement depuis -> le canal repasse au polling
+    private static final double CHANGE_TRIGGER_MM = 10;
+
+    private final List<RangeSensor> sensors;
+    private final int n;
+    private final AtomicReferenceArray<SensorSource> sources;
+    private final DistanceFilter[] filters;
+    private final SampleSlot[] slots;
+    private final Object[] writeLocks; // un seul écrivain par canal (polling ou événements)
+    private final AtomicLongArray lastEventAtMs;
+    private final List<Topic<TofState>> sensorTopics = new ArrayList<>();
+    private final Topic<RangeArrayState> topic = EventBus.topic(TOPIC, RangeArrayState.class);
+
+    // Thread de lecture uniquement
+    private final long[] nextRetryAtMs;
+    private final SensorSample slotSample = new SensorSample();
+    private long lastLogAt = 0;
+
+    private volatile boolean eventDriven = true;
+    private volatile boolean opened = false;
+
+    public RangeArrayService(String serverName, String ip, int port, List<RangeSensor> sensors) {
+        super("TOF", "tof", TOPIC, LOOP_MS, serverName, ip, port);
+        Set<String> names = new HashSet<>();
+        for (RangeSensor s : sensors) {
+            if (!names.add(s.name()))
+                throw new IllegalArgumentException("capteur de distance déclaré deux fois: " + s.name());
+        }
+        this.sensors = List.copyOf(sensors);
+        this.n = this.sensors.size();
+        this.sources = new AtomicReferenceArray<>(n);
+        this.filters = new DistanceFilter[n];
+        this.slots = new SampleSlot[n];
+        this.writeLocks = new Object[n];
+        this.lastEventAtMs = new AtomicLongArray(n);
+        this.nextRetryAtMs = new long[n];
+        for (int i = 0; i < n; i++) {
+            filters[i] = new DistanceFilter(DistanceFilter.Config.TOF);
+            slots[i] = new SampleSlot();
+            writeLocks[i] = new Object();
+            int idx = i;
+            sensorTopics.add(EventBus.topic(this.sensors.get(i).topic(), TofState.class)
+                    .setLatestSource(() -> readState(idx)));
+        }
+        topic.setLatestSource(this::readArray);
+    }
+
+    /** Publication sur événement DistanceChange (défaut) ou polling seul. À appeler avant start(). */
+    public void setEventDriven(boolean eventDriven) {
+        this.eventDriven = eventDriven;
+    }
+
+    /** Réglage du filtre de tous les capteurs (DistanceFilter.Config.NONE = valeurs brutes). Avant start(). */
+    public void setFilter(DistanceFilter.Config config) {
+        for (int i = 0; i < n; i++) {
+            filters[i] = new DistanceFilter(config);
+        }
+    }
+
+    public List<RangeSensor> sensors() {
+        return sensors;
+    }
+
+    /** Index du capteur nommé dans la déclaration, -1 s'il n'existe pas. */
+    public int indexOf(String name) {
+        for (int i = 0; i < n; i++) {
+            if (sensors.get(i).name().equals(name))
+                return i;
+        }
+        return -1;
+    }
+
+    /** Dernière mesure du capteur i, lisible sans allocation (polling teleop/UI). */
+    public SampleSlot getSlot(int i) {
+        return slots[i];
+    }
+
+    @Override
+    protected boolean isOpen() {
+        return opened;
+    }
+
+    /** Ouvre tous les canaux; échoue seulement si aucun ne répond (les absents sont rouverts un par un). */
+    @Override
+    protected void open() throws SensorException {
+        SensorException firstError = null;
+        int ok = 0;
+        for (int i = 0; i < n; i++) {
+            try {
+                sources.set(i, openChannel(i));
+                ok++;
+            } catch (SensorException e) {
+                if (firstError == null)
+                    firstError = e;
+                System.out.println("[TOF] " + sensors.get(i).name() + " open FAILED: " + e.getDescription());
+            }
+        }
+        if (ok == 0 && firstError != null)
+            throw firstError;
+        opened = true;
+        System.out.println("[TOF] Réseau ouvert: " + ok + "/" + n + " capteurs server=" + serverName);
+    }
+
+    private SensorSource openChannel(int i) throws SensorException {
+        RangeSensor rs = sensors.get(i);
+        SensorSource s = backend().distance(rs.hubPort(), rs.channel());
+        // Listener posé avant open() pour ne pas manquer la première mesure
+        if (eventDriven) {
+            s.setChangeListener(d -> onDistanceChange(i, d));
+        }
+        try {
+            s.open(OPEN_TIMEOUT_MS);
+        } catch (SensorException e) {
+            closeChannel(s);
+            throw e;
+        }
+        try {
+            s.setDataInterval(Math.max(30, dataIntervalMs(s.getMinDataInterval())));
+        } catch (SensorException e) {
+            System.out.println("[TOF] " + rs.name() + " dataInterval warn: " + e.getDescription());
+        }
+        if (eventDriven) {
+            try {
+                s.setChangeTrigger(CHANGE_TRIGGER_MM); // borné par le min matériel
+            } catch (SensorException e) {
+                System.out.println("[TOF] " + rs.name() + " changeTrigger warn: " + e.getDescription());
+            }
+        }
+        return s;
+    }
+
+    /** Thread "sensor-open": rouvre un canal isolé, sauf si le service a été fermé entre-temps. */
+    private void reopen(int i) {
+        SensorSource s;
+        try {
+            s = openChannel(i);
+        } catch (SensorException e) {
+            return; // nouvel essai au prochain CHANNEL_RETRY_MS
+        }
+        synchronized (this) {
+            if (opened && sources.get(i) == null) {
+                sources.set(i, s);
+                System.out.println("[TOF] " + sensors.get(i).name() + " rouvert (hubPort=" + sensors.get(i).hubPort()
+                        + ")");
+                return;
+            }
+        }
+        closeChannel(s);
+    }
+
+    @Override
+    protected void close() {
+        synchronized (this) {
+            opened = false;
+        }
+        for (int i = 0; i < n; i++) {
+            closeChannel(sources.getAndSet(i, null));
+        }
+    }
+
+    @Override
+    protected void onPeriodChanged(long periodMs) throws SensorException {
+        for (int i = 0; i < n; i++) {
+            SensorSource s = sources.get(i);
+            if (s != null)
+                s.setDataInterval(Math.max(30, dataIntervalMs(s.getMinDataInterval())));
+        }
+    }
+
+    @Override
+    protected void sample(long ts) {
+        List<RangeReading> readings = topic.hasListeners() ? new ArrayList<>(n) : null;
+        long fallbackMs = Math.max(EVENT_FALLBACK_MS, 2 * periodMs()); // cadence lente à l'arrêt
+        for (int i = 0; i < n; i++) {
+            SensorSource s = sources.get(i);
+            if (s == null) {
+                if (ts >= nextRetryAtMs[i]) {
+                    nextRetryAtMs[i] = ts + CHANNEL_RETRY_MS;
+                    int idx = i;
+                    SensorScheduler.submitBlocking(() -> reopen(idx));
+                }
+                publishSample(i, Double.NaN, false, ts, System.nanoTime(), "tof not open", readings);
+                continue;
+            }
+
+            boolean attached = s.isAttached();
+            try {
+                double d = s.read(); // mm
+                double distance = (!Double.isNaN(d) && d > 0) ? d : Double.NaN;
+                // Liveness: si les événements du canal arrivent, le polling ne republie pas
+                if (eventDriven && attached && ts - lastEventAtMs.get(i) <= fallbackMs) {
+                    if (readings != null)
+                        readings.add(readSlot(i));
+                } else {
+                    publishSample(i, distance, attached, ts, System.nanoTime(), null, readings);
+                }
+            } catch (SensorException e) {
+                // Canal en erreur: on le ferme seul (hors thread de lecture), les autres capteurs restent lus
+                if (sources.compareAndSet(i, s, null))
+                    SensorScheduler.submitBlocking(() -> closeChannel(s));
+                nextRetryAtMs[i] = ts + CHANNEL_RETRY_MS;
+                publishSample(i, Double.NaN, false, ts, System.nanoTime(),
+                        "tof getDistance: " + e.getDescription() + " (code=" + e.getErrorCode() + ")", readings);
+            }
+        }
+        if (readings != null)
+            topic.publish(new RangeArrayState(List.copyOf(readings), ts));
+        else
+            topic.markPublished();
+
+        // Log léger pour diagnostic (1 Hz max)
+        if (ts - lastLogAt >= 1000) {
+            lastLogAt = ts;
+            System.out.println("[TOF] " + formatLine());
+        }
+    }
+
+    @Override
+    protected void publishError(long ts, String err) {
+        List<RangeReading> readings = topic.hasListeners() ? new ArrayList<>(n) : null;
+        long cap = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            publishSample(i, Double.NaN, false, ts, cap, err, readings);
+        }
+        if (readings != null)
+            topic.publish(new RangeArrayState(List.copyOf(readings), ts));
+        else
+            topic.markPublished();
+    }
+
+    /** Thread d'événements du backend: publie la mesure du canal i dès son arrivée. */
+    private void onDistanceChange(int i, double d) {
+        long cap = System.nanoTime();
+        long ts = System.currentTimeMillis();
+        lastEventAtMs.set(i, ts);
+        publishSample(i, d > 0 ? d : Double.NaN, true, ts, cap, null, null);
+    }
+
+    /** Dernière mesure du canal i, relue dans son slot (thread de lecture). */
+    private RangeReading readSlot(int i) {
+        slots[i].read(slotSample);
+        return new RangeReading(sensors.get(i), slotSample.value0(), slotSample.value1(), slotSample.attached(),
+                slotSample.captureNanos(), slotSample.lastError());
+    }
+
+    /** Dernière mesure du canal i en TofState, depuis n'importe quel thread (latest() sans abonnés). */
+    private TofState readState(int i) {
+        SensorSample sample = new SensorSample();
+        if (!slots[i].read(sample))
+            return null;
+        return new TofState(sample.value0(), sample.value1(), sample.attached(), sample.timestampMs(),
+                sample.captureNanos(), sample.lastError());
+    }
+
+    /** Instantané de tous les slots (latest() de TOPIC sans abonnés). */
+    private RangeArrayState readArray() {
+        SensorSample sample = new SensorSample();
+        List<RangeReading> readings = new ArrayList<>(n);
+        long ts = 0;
+        for (int i = 0; i < n; i++) {
+            if (slots[i].read(sample)) {
+                ts = Math.max(ts, sample.timestampMs());
+                readings.add(new RangeReading(sensors.get(i), sample.value0(), sample.value1(), sample.attached(),
+                        sample.captureNanos(), sample.lastError()));
+            } else {
+                readings.add(new RangeReading(sensors.get(i), Double.NaN, Double.NaN, false, 0, null));
+            }
+        }
+        return new RangeArrayState(List.copyOf(readings), ts);
+    }
+
+    /**
+     * Écriture d'une mesure: filtre, slot, topic individuel, snapshot (readings: thread de lecture seulement).
+     * Thread de lecture et thread d'événements du backend: un écrivain à la fois par canal.
+     */
+    private void publishSample(int i, double rawMm, boolean attached, long ts, long captureNanos, String err,
+            List<RangeReading> readings) {
+        double filtered;
+        synchronized (writeLocks[i]) {
+            if (attached && err == null) {
+                filtered = filters[i].update(rawMm, captureNanos / 1_000_000); // horloge monotone (Kalman)
+            } else {
+                filters[i].reset();
+                filtered = Double.NaN;
+            }
+            slots[i].write(filtered, rawMm, attached, ts, captureNanos, err);
+            Topic<TofState> t = sensorTopics.get(i);
+            if (t.hasListeners()) {
+                t.publish(new TofState(filtered, rawMm, attached, ts, captureNanos, err));
+            } else {
+                t.markPublished(); // latest() relit le slot (readState)
+            }
+        }
+        if (readings != null) {
+            readings.add(new RangeReading(sensors.get(i), filtered, rawMm, attached, captureNanos, err));
+        }
+        if (attached && err == null)
+            LatencyTrace.record(LatencyTrace.Stage.PUBLISH, captureNanos);
+    }
+
+    private String formatLine() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            double d = filters[i].last();
+            if (i > 0)
+                sb.append(' ');
+            sb.append(sensors.get(i).name()).append('=');
+            sb.append(sources.get(i) == null ? "HS" : Double.isNaN(d) ? "?" : String.format("%.0f", d));
+        }
+        return sb.toString();
+    }
+}
@@ -18,7 +18,11 @@ public class FilArianeController {
     }
 
     public void updateFromCommands(double leftCmd, double rightCmd) {
-        long now = System.currentTimeMillis();
+        updateFromCommands(leftCmd, rightCmd, System.currentTimeMillis());
+    }
+
+    /** Variante à horloge explicite (replay de journal: temps enregistré). */
+    public void updateFromCommands(double leftCmd, double rightCmd, long now) {
         if (lastUpdateAtMs == 0) {
             lastUpdateAtMs = now;
             return;
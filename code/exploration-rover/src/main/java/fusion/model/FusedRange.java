@@ -0,0 +1,16 @@
+package fusion.model;
+
+import common.DistanceSource;
+
+/**
+ * Mesure d'un capteur après fusion (entrée du radar).
+ * confirmed: un autre capteur voit un point à moins de la tolérance de confirmation.
+ */
+public record FusedRange(
+        String sensor,
+        double angleDeg,
+        double distanceMm,
+        Sector sector,
+        double confidence,
+        boolean confirmed) implements DistanceSource {
+}
@@ -0,0 +1,13 @@
+package fusion.model;
+
+/**
+ * Changement d'état de l'alerte obstacle (front montant ou descendant), publié sur la voie CRITICAL.
+ * captureNanos: capture (nanoTime) de la mesure qui fixe la distance libre (latence capteur -> vibration).
+ */
+public record ObstacleAlert(
+        boolean tooClose,
+        double pathClearanceMm,
+        double pathConfidence,
+        long captureNanos,
+        long timestampMs) {
+}
@@ -0,0 +1,39 @@
+package fusion.model;
+
+import java.util.List;
+
+/**
+ * Estimation unique des obstacles, calculée par {@link fusion.services.ObstacleFusion}.
+ * Consommée telle quelle par la sécurité (alerte + vibration), la mission (chocs) et le radar.
+ * - sectors: un {@link SectorEstimate} par {@link Sector}, dans l'ordre de l'enum
+ * - pathClearanceMm: distance libre devant le rover dans sa largeur (NaN: rien dans le couloir)
+ * - tooClose: alerte obstacle (seuil + hystérésis sur pathClearanceMm)
+ * - captureNanos: capture (nanoTime) de la mesure la plus proche dans le couloir (latences)
+ */
+public record ObstacleState(
+        List<SectorEstimate> sectors,
+        List<FusedRange> ranges,
+        double pathClearanceMm,
+        double pathConfidence,
+        double pathClosingSpeedMmS,
+        boolean tooClose,
+        long captureNanos,
+        long timestampMs) {
+
+    public SectorEstimate sector(Sector s) {
+        return sectors.get(s.ordinal());
+    }
+
+    /** Distance au plus proche dans le secteur, +infini si rien. */
+    public double rangeOr(Sector s, double ifNone) {
+        double r = sector(s).rangeMm();
+        return Double.isNaN(r) ? ifNone : r;
+    }
+
+    /** Temps avant contact dans le couloir (s), +infini si rien ou si l'obstacle ne se rapproche pas. */
+    public double timeToContactS() {
+        if (Double.isNaN(pathClearanceMm) || !(pathClosingSpeedMmS > 0))
+            return Double.POSITIVE_INFINITY;
+        return pathClearanceMm / pathClosingSpeedMmS;
+    }
+}
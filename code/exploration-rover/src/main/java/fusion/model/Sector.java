@@ -0,0 +1,25 @@
+package fusion.model;
+
+/**
+ * Secteurs autour du rover (angle de montage du capteur, positif = vers la gauche).
+ */
+public enum Sector {
+    FRONT, // |angle| < 15°
+    LEFT, // 15° <= angle <= 110° (ToF gauche du rover: 20°)
+    RIGHT, // -110° <= angle <= -15° (ToF droit: -20°)
+    REAR;
+
+    private static final double FRONT_HALF_DEG = 15.0;
+    private static final double SIDE_MAX_DEG = 110.0;
+
+    public static Sector of(double angleDeg) {
+        double a = Math.IEEEremainder(angleDeg, 360.0); // -180..180
+        if (Math.abs(a) < FRONT_HALF_DEG)
+            return FRONT;
+        if (a > 0 && a <= SIDE_MAX_DEG)
+            return LEFT;
+        if (a < 0 && a >= -SIDE_MAX_DEG)
+            return RIGHT;
+        return REAR;
+    }
+}
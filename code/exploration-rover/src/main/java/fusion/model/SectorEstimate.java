@@ -0,0 +1,19 @@
+package fusion.model;
+
+/**
+ * Obstacle le plus proche d'un secteur.
+ * rangeMm: NaN si aucun capteur du secteur n'a de mesure exploitable
+ * confidence: 0..1 (1 = mesure confirmée par un second capteur)
+ * closingSpeedMmS: vitesse de rapprochement (positive = l'obstacle se rapproche)
+ */
+public record SectorEstimate(
+        Sector sector,
+        double rangeMm,
+        double confidence,
+        double closingSpeedMmS,
+        String source) {
+
+    public boolean hasObstacle() {
+        return !Double.isNaN(rangeMm);
+    }
+}
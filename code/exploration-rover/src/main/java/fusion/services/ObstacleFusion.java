@@ -0,0 +1,289 @@
+package fusion.services;
+
+import common.EventBus;
+import common.SensorSample;
+import common.Topic;
+import common.TopicPriority;
+import fusion.model.ObstacleAlert;
+import distances.model.RangeSensor;
+import fusion.model.FusedRange;
+import fusion.model.ObstacleState;
+import fusion.model.Sector;
+import fusion.model.SectorEstimate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fusion sonar + ToF: une seule estimation des obstacles à partir de toutes les mesures de distance,
+ * de leur position de montage et de leur instant de capture.
+ * - par secteur: obstacle le plus proche, confiance, vitesse de rapprochement
+ * - couloir du rover (sa largeur, devant lui): distance libre + alerte avec hystérésis
+ * - confirmation: deux capteurs voient un point à moins de CONFIRM_MM (repère rover)
+ * Utilisation: observe() pour chaque capteur puis fuse(), depuis un seul thread (boucle teleop).
+ * fuse() n'alloue pas; l'{@link ObstacleState} n'est construit que si "obstacle.update" a des abonnés
+ * ou sur demande ({@link #snapshot()}, aussi source de latest() du topic: lu hors du thread de fusion,
+ * l'instantané peut mêler deux fuse() successifs).
+ * Chaque changement de l'alerte est publié sur "obstacle.alert" (voie CRITICAL, vibration manette).
+ */
+public class ObstacleFusion {
+
+    public static final String TOPIC = "obstacle.update";
+    public static final String ALERT_TOPIC = "obstacle.alert";
+
+    private static final double OBSTACLE_ON_MM = 250.0;
+    private static final double OBSTACLE_OFF_DELTA_MM = 60.0;
+    private static final double ROVER_HALF_WIDTH_MM = 150.0;
+    private static final double NOSE_MM = 150.0; // avant du rover (position du sonar)
+    private static final double CONFIRM_MM = 150.0;
+    private static final double CONFIRMED_CONFIDENCE = 1.0;
+    private static final double SPEED_ALPHA = 0.5;
+    private static final long SPEED_MAX_GAP_NS = 1_000_000_000L; // au-delà: vitesse remise à zéro
+
+    /** Confiance d'une mesure seule: sonar (cone large, position angulaire incertaine). */
+    public static final double SONAR_CONFIDENCE = 0.5;
+    /** Confiance d'une mesure seule: ToF (faisceau étroit). */
+    public static final double TOF_CONFIDENCE = 0.7;
+    /** Confiance d'une distance auxiliaire (source et position inconnues). */
+    public static final double AUXILIARY_CONFIDENCE = 0.3;
+
+    private final Topic<ObstacleState> topic = EventBus.topic(TOPIC, ObstacleState.class);
+    private final Topic<ObstacleAlert> alertTopic = EventBus.topic(ALERT_TOPIC, ObstacleAlert.class)
+            .setPriority(TopicPriority.CRITICAL);
+    private final List<Input> inputs = new ArrayList<>();
+    private final Track[] sectorTracks = new Track[Sector.values().length];
+    private final Track pathTrack = new Track();
+
+    // Résultat du dernier fuse()
+    private final int[] sectorNearest = new int[Sector.values().length];
+    private int pathNearest = -1;
+    private double pathClearanceMm = Double.NaN;
+    private boolean tooClose = false;
+    private long timestampMs = 0;
+
+    public ObstacleFusion() {
+        for (int i = 0; i < sectorTracks.length; i++) {
+            sectorTracks[i] = new Track();
+        }
+        topic.setLatestSource(this::snapshot);
+    }
+
+    /**
+     * Déclare un capteur (angle positif = gauche, décalage depuis le centre du rover).
+     * Retourne son index pour {@link #observe}.
+     */
+    public int addSensor(String name, double angleDeg, double forwardMm, double leftMm, double confidence) {
+        inputs.add(new Input(name, angleDeg, forwardMm, leftMm, confidence, true));
+        return inputs.size() - 1;
+    }
+
+    /**
+     * Distance de provenance inconnue (ex: "capteurs.update"), comptée devant le rover dans l'axe.
+     * Elle entre dans l'alerte et les secteurs mais ne confirme jamais une autre mesure (et n'est
+     * jamais confirmée): ce peut être le même capteur republié.
+     */
+    public int addAuxiliary(String name) {
+        inputs.add(new Input(name, 0.0, NOSE_MM, 0.0, AUXILIARY_CONFIDENCE, false));
+        return inputs.size() - 1;
+    }
+
+    /** Sonar DST1200 à l'avant, dans l'axe. */
+    public int addSonar(String name) {
+        return addSensor(name, 0.0, NOSE_MM, 0.0, SONAR_CONFIDENCE);
+    }
+
+    /** Capteur ToF déclaré dans le réseau de distances (à sa position de montage). */
+    public int addTof(RangeSensor rs) {
+        return addSensor(rs.name(), rs.angleDeg(), rs.forwardMm(), rs.leftMm(), TOF_CONFIDENCE);
+    }
+
+    /** Dernière mesure du capteur i (valid = exploitable et fraîche, voir SensorHealthMonitor). */
+    public void observe(int i, double distanceMm, boolean valid, long captureNanos) {
+        Input in = inputs.get(i);
+        in.valid = valid && !Double.isNaN(distanceMm) && distanceMm > 0;
+        in.distanceMm = distanceMm;
+        in.captureNanos = captureNanos;
+    }
+
+    /** Mesure lue dans un SampleSlot (value0 = distance filtrée). */
+    public void observe(int i, SensorSample s, boolean fresh) {
+        observe(i, s.value0(), fresh && s.attached() && s.lastError() == null, s.captureNanos());
+    }
+
+    /** Calcule l'estimation à partir des dernières observations. Retourne l'alerte obstacle. */
+    public boolean fuse() {
+        int n = inputs.size();
+        for (int i = 0; i < n; i++) {
+            Input in = inputs.get(i);
+            if (in.valid) {
+                in.hitX = in.forwardMm + in.cos * in.distanceMm;
+                in.hitY = in.leftMm + in.sin * in.distanceMm;
+            }
+            in.confirmed = false;
+        }
+        for (int i = 0; i < n; i++) {
+            Input a = inputs.get(i);
+            if (!a.valid || !a.confirmable)
+                continue;
+            for (int j = i + 1; j < n; j++) {
+                Input b = inputs.get(j);
+                if (b.valid && b.confirmable && Math.hypot(a.hitX - b.hitX, a.hitY - b.hitY) <= CONFIRM_MM) {
+                    a.confirmed = true;
+                    b.confirmed = true;
+                }
+            }
+        }
+
+        // Plus proche par secteur / dans le couloir
+        Arrays.fill(sectorNearest, -1);
+        pathNearest = -1;
+        double bestPath = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            Input in = inputs.get(i);
+            if (!in.valid)
+                continue;
+            int s = in.sector.ordinal();
+            if (sectorNearest[s] < 0 || in.distanceMm < inputs.get(sectorNearest[s]).distanceMm)
+                sectorNearest[s] = i;
+            // Couloir: capteurs tournés vers l'avant seulement (un capteur arrière verrait le rover lui-même)
+            if (in.facesForward && in.hitX > 0 && Math.abs(in.hitY) <= ROVER_HALF_WIDTH_MM) {
+                double clearance = Math.max(0.0, in.hitX - NOSE_MM);
+                if (clearance < bestPath) {
+                    bestPath = clearance;
+                    pathNearest = i;
+                }
+            }
+        }
+        for (int s = 0; s < sectorTracks.length; s++) {
+            int idx = sectorNearest[s];
+            sectorTracks[s].update(idx, idx < 0 ? Double.NaN : inputs.get(idx).distanceMm,
+                    idx < 0 ? 0 : inputs.get(idx).captureNanos);
+        }
+        pathClearanceMm = pathNearest < 0 ? Double.NaN : bestPath;
+        pathTrack.update(pathNearest, pathClearanceMm, pathNearest < 0 ? 0 : inputs.get(pathNearest).captureNanos);
+
+        boolean wasTooClose = tooClose;
+        if (Double.isNaN(pathClearanceMm)) {
+            tooClose = false;
+        } else {
+            tooClose = pathClearanceMm <= (tooClose ? OBSTACLE_ON_MM + OBSTACLE_OFF_DELTA_MM : OBSTACLE_ON_MM);
+        }
+        timestampMs = System.currentTimeMillis();
+        if (tooClose != wasTooClose) {
+            alertTopic.publish(new ObstacleAlert(tooClose, pathClearanceMm,
+                    pathNearest < 0 ? 0.0 : inputs.get(pathNearest).confidence(), captureNanos(), timestampMs));
+        }
+
+        if (topic.hasListeners()) {
+            topic.publish(snapshot());
+        } else {
+            topic.markPublished();
+        }
+        return tooClose;
+    }
+
+    public boolean isTooClose() {
+        return tooClose;
+    }
+
+    public double pathClearanceMm() {
+        return pathClearanceMm;
+    }
+
+    /** Capture (nanoTime) de la mesure qui fixe la distance libre, 0 si aucune. */
+    public long captureNanos() {
+        return pathNearest < 0 ? 0 : inputs.get(pathNearest).captureNanos;
+    }
+
+    /** Résultat du dernier fuse() (alloue: au rythme de l'IHM ou des abonnés). */
+    public ObstacleState snapshot() {
+        List<SectorEstimate> sectors = new ArrayList<>(sectorTracks.length);
+        for (Sector s : Sector.values()) {
+            int idx = sectorNearest[s.ordinal()];
+            if (idx < 0) {
+                sectors.add(new SectorEstimate(s, Double.NaN, 0.0, 0.0, null));
+            } else {
+                Input in = inputs.get(idx);
+                sectors.add(new SectorEstimate(s, in.distanceMm, in.confidence(),
+                        sectorTracks[s.ordinal()].speedMmS, in.name));
+            }
+        }
+        List<FusedRange> ranges = new ArrayList<>(inputs.size());
+        for (Input in : inputs) {
+            if (in.valid)
+                ranges.add(new FusedRange(in.name, in.angleDeg, in.distanceMm, in.sector, in.confidence(),
+                        in.confirmed));
+        }
+        double pathConfidence = pathNearest < 0 ? 0.0 : inputs.get(pathNearest).confidence();
+        return new ObstacleState(List.copyOf(sectors), List.copyOf(ranges), pathClearanceMm, pathConfidence,
+                pathTrack.speedMmS, tooClose, captureNanos(), timestampMs);
+    }
+
+    private static final class Input {
+        final String name;
+        final double angleDeg;
+        final double forwardMm;
+        final double leftMm;
+        final double cos;
+        final double sin;
+        final double baseConfidence;
+        final boolean confirmable;
+        final boolean facesForward;
+        final Sector sector;
+
+        boolean valid;
+        double distanceMm = Double.NaN;
+        long captureNanos;
+        double hitX; // mm devant le centre du rover
+        double hitY; // mm à gauche
+        boolean confirmed;
+
+        Input(String name, double angleDeg, double forwardMm, double leftMm, double baseConfidence,
+                boolean confirmable) {
+            this.name = name;
+            this.angleDeg = angleDeg;
+            this.forwardMm = forwardMm;
+            this.leftMm = leftMm;
+            this.cos = Math.cos(Math.toRadians(angleDeg));
+            this.sin = Math.sin(Math.toRadians(angleDeg));
+            this.baseConfidence = baseConfidence;
+            this.confirmable = confirmable;
+            this.facesForward = cos > 1e-9;
+            this.sector = Sector.of(angleDeg);
+        }
+
+        double confidence() {
+            return confirmed ? CONFIRMED_CONFIDENCE : baseConfidence;
+        }
+    }
+
+    /** Vitesse de rapprochement d'une distance suivie (dérivée lissée, remise à zéro au changement de source). */
+    private static final class Track {
+        int source = -1;
+        double lastMm = Double.NaN;
+        long lastNanos = 0;
+        double speedMmS = 0.0;
+
+        void update(int src, double mm, long captureNanos) {
+            if (Double.isNaN(mm) || src != source) {
+                source = src;
+                lastMm = mm;
+                lastNanos = captureNanos;
+                speedMmS = 0.0;
+                return;
+            }
+            if (captureNanos == lastNanos)
+                return; // pas de nouvelle mesure
+            long dt = captureNanos - lastNanos;
+            if (dt > 0 && dt <= SPEED_MAX_GAP_NS) {
+                double v = (lastMm - mm) * 1e9 / dt;
+                speedMmS += SPEED_ALPHA * (v - speedMmS);
+            } else {
+                speedMmS = 0.0;
+            }
+            lastMm = mm;
+            lastNanos = captureNanos;
+        }
+    }
+}
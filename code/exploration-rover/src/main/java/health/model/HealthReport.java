@@ -0,0 +1,18 @@
+package health.model;
+
+import java.util.List;
+
+/**
+ * Santé de tous les capteurs, publiée sur "sensors.health" (un élément par SensorId, dans l'ordre).
+ */
+public record HealthReport(List<SensorHealth> sensors, long timestampMs) {
+
+    public SensorHealth get(SensorId id) {
+        return sensors.get(id.ordinal());
+    }
+
+    /** true si le capteur a une valeur fraîche. Rapport absent (null): on ne peut rien garantir. */
+    public static boolean isFresh(HealthReport report, SensorId id) {
+        return report != null && report.get(id).isFresh();
+    }
+}
@@ -0,0 +1,8 @@
+package health.model;
+
+public enum HealthStatus {
+    MISSING, // aucune publication reçue
+    OK,
+    DEGRADED, // valeurs fraîches mais taux d'erreur élevé
+    STALE // pas de valeur valide depuis SensorId.staleAfterMs()
+}
@@ -0,0 +1,21 @@
+package health.model;
+
+/**
+ * Santé d'un capteur à un instant.
+ * rateHz: cadence effective reçue (moyenne glissante), jitterMs: écart moyen des inter-arrivées
+ * ageMs: temps depuis la dernière valeur valide (Long.MAX_VALUE si jamais), errorRate: 0..1
+ */
+public record SensorHealth(
+        SensorId sensor,
+        HealthStatus status,
+        double rateHz,
+        double jitterMs,
+        long ageMs,
+        double errorRate,
+        long samples) {
+
+    /** Valeur utilisable pour l'affichage et les alertes. */
+    public boolean isFresh() {
+        return status == HealthStatus.OK || status == HealthStatus.DEGRADED;
+    }
+}
@@ -0,0 +1,31 @@
+package health.model;
+
+/**
+ * Capteurs suivis par le moniteur de santé, avec leur topic et leur seuil de péremption.
+ * Seuils: plus lents que la cadence la plus lente de AdaptiveSampling (à l'arrêt).
+ */
+public enum SensorId {
+    SONAR("sonar.update", 1200),
+    TOF_LEFT("tof.left.update", 1000),
+    TOF_RIGHT("tof.right.update", 1000),
+    RANGES("ranges.update", 1000), // réseau de capteurs de distance (au moins une mesure valide)
+    HUMIDITY("humidity.update", 5000),
+    LIGHT("light.update", 5000);
+
+    private final String topic;
+    private final long staleAfterMs;
+
+    SensorId(String topic, long staleAfterMs) {
+        this.topic = topic;
+        this.staleAfterMs = staleAfterMs;
+    }
+
+    public String topic() {
+        return topic;
+    }
+
+    /** Au-delà de ce délai sans valeur valide, la mesure ne doit plus être utilisée. */
+    public long staleAfterMs() {
+        return staleAfterMs;
+    }
+}
@@ -0,0 +1,212 @@
+package health.services;
+
+import capteurs.model.HumidityState;
+import capteurs.model.LightState;
+import common.EventBus;
+import common.ScheduledTask;
+import common.SensorScheduler;
+import common.Topic;
+import distances.model.RangeArrayState;
+import health.model.HealthReport;
+import health.model.HealthStatus;
+import health.model.SensorHealth;
+import health.model.SensorId;
+import sonar.model.SonarState;
+import tof.model.TofState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Moniteur de santé des capteurs: écoute tous les topics capteurs et tient, par capteur,
+ * cadence effective, jitter des inter-arrivées, âge de la dernière valeur valide et taux d'erreur.
+ * - publie un {@link HealthReport} sur "sensors.health" toutes les REPORT_MS
+ * - {@link #isFresh(SensorId)}: requête directe (sans allocation) pour la logique de sécurité
+ * Seul endroit où la péremption des mesures est décidée (IHM, alerte obstacle...).
+ */
+public class SensorHealthMonitor {
+
+    public static final String TOPIC = "sensors.health";
+
+    private static final long REPORT_MS = 250;
+    private static final double ALPHA = 0.1; // moyennes glissantes (~10 derniers échantillons)
+    private static final double DEGRADED_ERROR_RATE = 0.25;
+
+    private final LongSupplier clockNanos;
+    private final Tracker[] trackers = new Tracker[SensorId.values().length];
+    private final Topic<HealthReport> topic = EventBus.topic(TOPIC, HealthReport.class);
+
+    private final Topic<SonarState> sonarTopic = EventBus.topic(SensorId.SONAR.topic(), SonarState.class);
+    private final Topic<TofState> tofLeftTopic = EventBus.topic(SensorId.TOF_LEFT.topic(), TofState.class);
+    private final Topic<TofState> tofRightTopic = EventBus.topic(SensorId.TOF_RIGHT.topic(), TofState.class);
+    private final Topic<RangeArrayState> rangesTopic = EventBus.topic(SensorId.RANGES.topic(),
+            RangeArrayState.class);
+    private final Topic<HumidityState> humidityTopic = EventBus.topic(SensorId.HUMIDITY.topic(), HumidityState.class);
+    private final Topic<LightState> lightTopic = EventBus.topic(SensorId.LIGHT.topic(), LightState.class);
+
+    private final Consumer<SonarState> onSonar = s -> track(SensorId.SONAR, s.attached(), s.lastError(),
+            s.distanceMm());
+    private final Consumer<TofState> onTofLeft = s -> track(SensorId.TOF_LEFT, s.attached(), s.lastError(),
+            s.distanceMm());
+    private final Consumer<TofState> onTofRight = s -> track(SensorId.TOF_RIGHT, s.attached(), s.lastError(),
+            s.distanceMm());
+    private final Consumer<RangeArrayState> onRanges = s -> track(SensorId.RANGES, true, null,
+            s.anyValid() ? 0.0 : Double.NaN);
+    private final Consumer<HumidityState> onHumidity = s -> track(SensorId.HUMIDITY, s.attached(), s.lastError(),
+            s.humidityPercent());
+    private final Consumer<LightState> onLight = s -> track(SensorId.LIGHT, s.attached(), s.lastError(),
+            s.illuminanceLux());
+
+    private ScheduledTask task;
+    private final HealthStatus[] lastStatus = new HealthStatus[SensorId.values().length];
+
+    public SensorHealthMonitor() {
+        this(System::nanoTime);
+    }
+
+    /** clockNanos: horloge monotone (replay: horloge enregistrée convertie en ns). */
+    public SensorHealthMonitor(LongSupplier clockNanos) {
+        this.clockNanos = clockNanos;
+        for (SensorId id : SensorId.values()) {
+            trackers[id.ordinal()] = new Tracker(id);
+        }
+    }
+
+    /** Abonnement aux topics capteurs + publication périodique du rapport. */
+    public synchronized void start() {
+        if (task != null)
+            return;
+        subscribe();
+        task = SensorScheduler.schedule("health", REPORT_MS, this::publish);
+    }
+
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        unsubscribe();
+    }
+
+    /** Abonnement seul (replay: le rapport est demandé via {@link #report()} au rythme de l'IHM). */
+    public void subscribe() {
+        sonarTopic.subscribe(onSonar);
+        tofLeftTopic.subscribe(onTofLeft);
+        tofRightTopic.subscribe(onTofRight);
+        rangesTopic.subscribe(onRanges);
+        humidityTopic.subscribe(onHumidity);
+        lightTopic.subscribe(onLight);
+    }
+
+    public void unsubscribe() {
+        sonarTopic.unsubscribe(onSonar);
+        tofLeftTopic.unsubscribe(onTofLeft);
+        tofRightTopic.unsubscribe(onTofRight);
+        rangesTopic.unsubscribe(onRanges);
+        humidityTopic.unsubscribe(onHumidity);
+        lightTopic.unsubscribe(onLight);
+    }
+
+    /** Valeur valide reçue depuis moins de staleAfterMs (sans allocation). */
+    public boolean isFresh(SensorId id) {
+        long last = trackers[id.ordinal()].lastValidNs;
+        return last != 0 && clockNanos.getAsLong() - last <= id.staleAfterMs() * 1_000_000L;
+    }
+
+    /** Rapport calculé maintenant. */
+    public HealthReport report() {
+        long now = clockNanos.getAsLong();
+        List<SensorHealth> list = new ArrayList<>(trackers.length);
+        for (Tracker t : trackers) {
+            list.add(t.snapshot(now));
+        }
+        return new HealthReport(List.copyOf(list), System.currentTimeMillis());
+    }
+
+    /** Une ligne console par capteur. */
+    public static String format(HealthReport report) {
+        StringBuilder sb = new StringBuilder();
+        for (SensorHealth h : report.sensors()) {
+            String age = h.ageMs() == Long.MAX_VALUE ? "-" : h.ageMs() + "ms";
+            sb.append(String.format(Locale.US,
+                    "[HEALTH] %-10s %-8s rate=%.1fHz jitter=%.1fms age=%s err=%.0f%% n=%d%n",
+                    h.sensor(), h.status(), h.rateHz(), h.jitterMs(), age, h.errorRate() * 100, h.samples()));
+        }
+        return sb.toString();
+    }
+
+    private void publish() {
+        HealthReport r = report();
+        topic.publish(r);
+        for (SensorHealth h : r.sensors()) {
+            int i = h.sensor().ordinal();
+            if (h.status() != lastStatus[i]) {
+                if (lastStatus[i] != null) {
+                    System.out.printf("[HEALTH] %s %s -> %s (%.1f Hz, err=%.0f%%)%n", h.sensor(), lastStatus[i],
+                            h.status(), h.rateHz(), h.errorRate() * 100);
+                }
+                lastStatus[i] = h.status();
+            }
+        }
+    }
+
+    private void track(SensorId id, boolean attached, String err, double value) {
+        boolean valid = attached && err == null && !Double.isNaN(value);
+        trackers[id.ordinal()].onSample(clockNanos.getAsLong(), valid, err != null || !attached);
+    }
+
+    /** Statistiques d'un capteur (écrivain: thread de publication du topic; lecteur: rapport). */
+    private static final class Tracker {
+
+        private final SensorId id;
+        private long samples = 0;
+        private long lastArrivalNs = 0;
+        private double meanIntervalMs = Double.NaN;
+        private double jitterMs = 0;
+        private double errorRate = 0;
+        volatile long lastValidNs = 0;
+
+        Tracker(SensorId id) {
+            this.id = id;
+        }
+
+        synchronized void onSample(long nowNs, boolean valid, boolean error) {
+            if (lastArrivalNs != 0) {
+                double interval = (nowNs - lastArrivalNs) / 1e6;
+                if (Double.isNaN(meanIntervalMs)) {
+                    meanIntervalMs = interval;
+                } else {
+                    jitterMs += ALPHA * (Math.abs(interval - meanIntervalMs) - jitterMs);
+                    meanIntervalMs += ALPHA * (interval - meanIntervalMs);
+                }
+            }
+            lastArrivalNs = nowNs;
+            samples++;
+            errorRate += ALPHA * ((error ? 1.0 : 0.0) - errorRate);
+            if (valid)
+                lastValidNs = nowNs;
+        }
+
+        synchronized SensorHealth snapshot(long nowNs) {
+            long age = lastValidNs == 0 ? Long.MAX_VALUE : (nowNs - lastValidNs) / 1_000_000;
+            // Cadence: si plus rien n'arrive, l'attente en cours compte comme un intervalle
+            double sinceLastMs = lastArrivalNs == 0 ? Double.NaN : (nowNs - lastArrivalNs) / 1e6;
+            double interval = Double.isNaN(meanIntervalMs) ? sinceLastMs : Math.max(meanIntervalMs, sinceLastMs);
+            double rate = Double.isNaN(interval) || interval <= 0 ? 0.0 : 1000.0 / interval;
+
+            HealthStatus status;
+            if (samples == 0)
+                status = HealthStatus.MISSING;
+            else if (age > id.staleAfterMs())
+                status = HealthStatus.STALE;
+            else if (errorRate > DEGRADED_ERROR_RATE)
+                status = HealthStatus.DEGRADED;
+            else
+                status = HealthStatus.OK;
+            return new SensorHealth(id, status, rate, jitterMs, age, errorRate, samples);
+        }
+    }
+}
@@ -4,12 +4,23 @@ import com.github.strikerx3.jxinput.XInputAxes;
 import com.github.strikerx3.jxinput.XInputButtons;
 import com.github.strikerx3.jxinput.XInputComponents;
 import com.github.strikerx3.jxinput.XInputDevice;
+import common.EventBus;
+import common.LatencyTrace;
+import common.ScheduledTask;
+import common.SensorScheduler;
+import common.Topic;
+import common.TopicPriority;
+import fusion.model.ObstacleAlert;
+import fusion.services.ObstacleFusion;
+import manette.model.EmergencyStopClick;
+import manette.model.InputFrame;
 import manette.model.ManetteModel;
 import manette.services.BatteryService;
 import manette.services.HapticsService;
 import manette.view.ManetteView;
 
 import java.lang.reflect.Field;
+import java.util.function.Consumer;
 
 /**
  * ManetteController:
@@ -19,12 +30,20 @@ import java.lang.reflect.Field;
  * - gère vibrations d'alertes:
  * - batterie faible
  * - perte de liaison rover (linkLost)
- * - obstacle trop proche (sonar) via model.isObstacleTooClose()
+ * - obstacle trop proche (fusion sonar + ToF) via model.isObstacleTooClose()
  *
  * + Lit aussi LT/RT (gâchettes) et les met dans le model (0..1)
+ * + Publie chaque poll complet sur "manette.input" (synchrone, sur le thread de polling dédié, sans
+ *   budget listener: jamais déporté) si quelqu'un écoute: la teleop peut piloter les moteurs dès la
+ *   lecture, sans second échantillonnage
+ * + Voie CRITICAL: publie le clic B sur "manette.estop" et vibre dès la réception d'"obstacle.alert"
+ *   (sans attendre le poll suivant)
  */
 public class ManetteController {
 
+    public static final String INPUT_TOPIC = "manette.input";
+    public static final String ESTOP_TOPIC = "manette.estop";
+
     private static final int PLAYER_INDEX = 0; // 0..3
     private static final int LOOP_MS = 50; // 20 FPS
     private static final float DEADZONE = 0.10f; // 10%
@@ -39,13 +58,22 @@ public class ManetteController {
 
     private final ManetteModel model;
     private final ManetteView view;
+    // Budget 0: le listener teleop fait des E/S moteurs, il ne doit jamais être déporté (et perdre des trames)
+    private final Topic<InputFrame> inputTopic = EventBus.topic(INPUT_TOPIC, InputFrame.class)
+            .setListenerBudgetMicros(0);
+    // E-stop: voie CRITICAL, sans budget (le listener arrête les moteurs: E/S réseau)
+    private final Topic<EmergencyStopClick> estopTopic = EventBus.topic(ESTOP_TOPIC, EmergencyStopClick.class)
+            .setPriority(TopicPriority.CRITICAL)
+            .setListenerBudgetMicros(0);
+    private final Topic<ObstacleAlert> alertTopic = EventBus.topic(ObstacleFusion.ALERT_TOPIC, ObstacleAlert.class);
+    private final Consumer<ObstacleAlert> onObstacleAlert = this::onObstacleAlert;
 
     private final BatteryService batteryService;
     private final HapticsService haptics;
 
     private XInputDevice device;
 
-    private volatile boolean running = false;
+    private ScheduledTask loop;
     private boolean wasConnected = false;
 
     private long nextReconnectAttemptAt = 0;
@@ -67,43 +95,43 @@ public class ManetteController {
         this.view = view;
         this.batteryService = new BatteryService(PLAYER_INDEX);
         this.haptics = new HapticsService(model);
+        // Sans abonné la trame n'est pas allouée: latest() la relit dans le modèle
+        inputTopic.setLatestSource(() -> new InputFrame(model.getLeftX(), model.getLeftTrigger(),
+                model.getRightTrigger(), model.getModeVitesse(), model.getPollNanos()));
 
         initDeviceIfNeeded(true);
     }
 
-    public void startDebugLoop() {
-        if (running)
+    /**
+     * Boucle de polling manette, sur son propre thread: en teleop "input" elle envoie les commandes
+     * moteurs (E/S réseau) et ne doit pas occuper un thread de lecture capteurs.
+     */
+    public synchronized void startDebugLoop() {
+        if (loop != null)
             return;
-        running = true;
-
-        Thread loop = new Thread(() -> {
-            System.out.println("[MANETTE] Loop démarrée.");
-            while (running) {
-                try {
-                    pollOnce();
-
-                    if (model.isConnected()) {
-                        view.renderConsole(model);
-                    }
-
-                    Thread.sleep(LOOP_MS);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                } catch (Throwable t) {
-                    System.out
-                            .println("[MANETTE] Erreur loop: " + t.getClass().getSimpleName() + " - " + t.getMessage());
+        System.out.println("[MANETTE] Loop démarrée.");
+        alertTopic.subscribe(onObstacleAlert);
+        loop = SensorScheduler.scheduleDedicated("manette", LOOP_MS, Thread.MAX_PRIORITY - 1, () -> {
+            try {
+                pollOnce();
+
+                if (model.isConnected()) {
+                    view.renderConsole(model);
                 }
+            } catch (Throwable t) {
+                System.out
+                        .println("[MANETTE] Erreur loop: " + t.getClass().getSimpleName() + " - " + t.getMessage());
             }
-            System.out.println("[MANETTE] Loop arrêtée.");
         });
-
-        loop.setDaemon(true);
-        loop.start();
     }
 
-    public void stop() {
-        running = false;
+    public synchronized void stop() {
+        if (loop != null) {
+            loop.cancel();
+            loop = null;
+            alertTopic.unsubscribe(onObstacleAlert);
+            System.out.println("[MANETTE] Loop arrêtée.");
+        }
         haptics.stopVibration();
     }
 
@@ -122,6 +150,7 @@ public class ManetteController {
         }
 
         boolean ok;
+        long polledAt = System.nanoTime();
         try {
             ok = device.poll();
         } catch (Throwable t) {
@@ -148,6 +177,7 @@ public class ManetteController {
         }
 
         model.setConnected(true);
+        model.setPollNanos(polledAt);
 
         // Lire composants
         XInputComponents c = device.getComponents();
@@ -182,9 +212,18 @@ public class ManetteController {
         // Edge: clic sur B => événement arrêt d'urgence
         if (b && !prevB) {
             model.fireEmergencyStopClick();
+            estopTopic.publish(new EmergencyStopClick(polledAt));
         }
         prevB = b;
 
+        // Trame d'entrée complète -> teleop (avant batterie / vibrations, plus lentes)
+        if (inputTopic.hasListeners()) {
+            inputTopic.publish(new InputFrame(model.getLeftX(), model.getLeftTrigger(), model.getRightTrigger(),
+                    model.getModeVitesse(), polledAt));
+        } else {
+            inputTopic.markPublished();
+        }
+
         // Batterie (poll toutes les 1s)
         if (now >= nextBatteryPollAt) {
             nextBatteryPollAt = now + BATTERY_POLL_MS;
@@ -258,8 +297,10 @@ public class ManetteController {
         lowBatteryWarned = false;
         linkLostWarned = false;
 
-        obstacleWarned = false;
-        nextObstacleVibAt = 0;
+        synchronized (this) {
+            obstacleWarned = false;
+            nextObstacleVibAt = 0;
+        }
 
         prevB = false;
     }
@@ -339,11 +380,33 @@ public class ManetteController {
             lowBatteryWarned = false;
         }
 
-        // --- Obstacle trop proche (sonar) ---
+        // --- Obstacle trop proche (fusion sonar + ToF) ---
+        handleObstacleVibration(now);
+
+        // --- Choc IMU (placeholder) ---
+        // TODO: quand vous aurez l'IMU:
+        // - ajouter un flag model.setShockDetected(true/false)
+        // - et déclencher une vibration spécifique ici.
+    }
+
+    /**
+     * Voie CRITICAL (thread EventBus-critical): l'alerte obstacle vibre dès sa levée,
+     * sans attendre le prochain poll.
+     */
+    private void onObstacleAlert(ObstacleAlert alert) {
+        if (!model.isConnected())
+            return;
+        model.setObstacleTooClose(alert.tooClose(), alert.captureNanos());
+        handleObstacleVibration(System.currentTimeMillis());
+    }
+
+    /** Vibration obstacle (thread de polling et voie CRITICAL). */
+    private synchronized void handleObstacleVibration(long now) {
         // On ne vibre pas “obstacle” si linkLost est actif (sinon ça spam / mélange).
         boolean obstacle = model.isObstacleTooClose();
         if (!model.isLinkLost() && obstacle) {
-            if (!obstacleWarned) {
+            boolean first = !obstacleWarned;
+            if (first) {
                 obstacleWarned = true;
                 nextObstacleVibAt = 0; // vib immédiate
                 System.out.println("[MANETTE] Obstacle proche -> vibration d'alerte.");
@@ -352,15 +415,12 @@ public class ManetteController {
                 nextObstacleVibAt = now + OBSTACLE_VIB_REPEAT_MS;
                 // pattern court “danger” (tu peux ajuster les valeurs)
                 haptics.pulseVibration(0, 35000, 180);
+                if (first)
+                    LatencyTrace.record(LatencyTrace.Stage.HAPTIC, model.getObstacleCaptureNanos());
             }
         } else {
             obstacleWarned = false;
             nextObstacleVibAt = 0;
         }
-
-        // --- Choc IMU (placeholder) ---
-        // TODO: quand vous aurez l'IMU:
-        // - ajouter un flag model.setShockDetected(true/false)
-        // - et déclencher une vibration spécifique ici.
     }
 }
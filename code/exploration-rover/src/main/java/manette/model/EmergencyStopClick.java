@@ -0,0 +1,8 @@
+package manette.model;
+
+/**
+ * Clic B (bascule arrêt d'urgence), publié sur "manette.estop" (voie CRITICAL) dès le poll.
+ * pollNanos: instant du poll qui a vu le front.
+ */
+public record EmergencyStopClick(long pollNanos) {
+}
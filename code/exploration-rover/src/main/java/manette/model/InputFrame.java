@@ -0,0 +1,14 @@
+package manette.model;
+
+/**
+ * Entrées manette d'un poll XInput complet, publiées sur "manette.input" (teleop déclenchée par l'entrée).
+ * pollNanos: instant du poll (System.nanoTime()), origine de la latence manette -> moteurs.
+ * Le clic B (arrêt d'urgence) reste un événement du {@link ManetteModel} (consommé une seule fois).
+ */
+public record InputFrame(
+        float leftX,
+        float leftTrigger,
+        float rightTrigger,
+        ManetteModel.ModeVitesse modeVitesse,
+        long pollNanos) {
+}
@@ -50,6 +50,10 @@ public class ManetteModel {
 
     // ===== Alerte obstacle =====
     private volatile boolean obstacleTooClose = false;
+    private volatile long obstacleCaptureNanos = 0; // capture de la mesure qui a levé l'alerte
+
+    // ===== Instant du dernier poll réussi (System.nanoTime) =====
+    private volatile long pollNanos = 0;
 
     // ===== Événements “edge” =====
     private final AtomicBoolean emergencyStopClick = new AtomicBoolean(false);
@@ -196,9 +200,28 @@ public class ManetteModel {
     }
 
     public void setObstacleTooClose(boolean obstacleTooClose) {
+        setObstacleTooClose(obstacleTooClose, 0);
+    }
+
+    /** captureNanos: instant de capture de la mesure; retenu seulement quand l'alerte se lève. */
+    public void setObstacleTooClose(boolean obstacleTooClose, long captureNanos) {
+        if (obstacleTooClose && !this.obstacleTooClose)
+            this.obstacleCaptureNanos = captureNanos;
         this.obstacleTooClose = obstacleTooClose;
     }
 
+    public long getObstacleCaptureNanos() {
+        return obstacleCaptureNanos;
+    }
+
+    public long getPollNanos() {
+        return pollNanos;
+    }
+
+    public void setPollNanos(long pollNanos) {
+        this.pollNanos = pollNanos;
+    }
+
     // ===== Event: arrêt d'urgence (clic B) =====
     public void fireEmergencyStopClick() {
         emergencyStopClick.set(true);
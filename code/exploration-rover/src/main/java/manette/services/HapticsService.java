@@ -1,8 +1,11 @@
 package manette.services;
 
 import com.github.strikerx3.jxinput.XInputDevice;
+import common.SensorScheduler;
 import manette.model.ManetteModel;
 
+import java.util.concurrent.ScheduledFuture;
+
 /**
  * Service de vibration (haptics).
  * - Ne plante jamais l'app si la manette / driver ne supporte pas la vibration.
@@ -12,6 +15,7 @@ public class HapticsService {
 
     private final ManetteModel model;
     private volatile XInputDevice device;
+    private ScheduledFuture<?> pendingStop; // fin de l'impulsion en cours
 
     public HapticsService(ManetteModel model) {
         this.model = model;
@@ -44,24 +48,19 @@ public class HapticsService {
         }
     }
 
-    /** Vibration courte puis arrêt automatique. */
-    public void pulseVibration(int leftMotor, int rightMotor, int durationMs) {
+    /**
+     * Vibration courte puis arrêt automatique (planifié sur l'ordonnanceur partagé,
+     * pas de thread par impulsion). Une nouvelle impulsion remplace la précédente.
+     */
+    public synchronized void pulseVibration(int leftMotor, int rightMotor, int durationMs) {
         XInputDevice d = device;
         if (!model.isConnected() || d == null)
             return;
 
+        if (pendingStop != null)
+            pendingStop.cancel(false);
         setVibration(leftMotor, rightMotor);
-
-        Thread t = new Thread(() -> {
-            try {
-                Thread.sleep(Math.max(0, durationMs));
-            } catch (InterruptedException ignored) {
-                Thread.currentThread().interrupt();
-            }
-            stopVibration();
-        });
-        t.setDaemon(true);
-        t.start();
+        pendingStop = SensorScheduler.delay(durationMs, this::stopVibration);
     }
 
     public void stopVibration() {
@@ -2,7 +2,10 @@ package mission.controller;
 
 import capteurs.model.HumidityState;
 import capteurs.model.LightState;
+import distances.model.RangeSensor;
 import filariane.controller.FilArianeController;
+import fusion.model.ObstacleState;
+import mission.journal.EventJournalWriter;
 import mission.model.MissionModel;
 import mission.report.MissionReportWriter;
 import sonar.model.SonarState;
@@ -12,26 +15,82 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Locale;
+import java.util.function.LongSupplier;
 
 public class MissionController {
-    private static final double SHOCK_THRESHOLD_MM = 250.0;
-    private static final double SHOCK_OFF_DELTA_MM = 60.0;
-
     private static final DateTimeFormatter ID_FORMAT =
             DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
 
+    private final LongSupplier clockMs;
     private final MissionModel model = new MissionModel();
     private final FilArianeController filArianeController = new FilArianeController(model.getFilArianeModel());
     private boolean obstacleNear = false;
+    private boolean journalEnabled = true;
+    private EventJournalWriter journal;
+    private List<RangeSensor> rangeSensors = List.of();
+
+    public MissionController() {
+        this(System::currentTimeMillis);
+    }
+
+    /** clockMs: horloge de la mission (temps réel, ou temps enregistré pendant un replay). */
+    public MissionController(LongSupplier clockMs) {
+        this.clockMs = clockMs;
+    }
 
     public synchronized void startNewMission() {
-        String id = LocalDateTime.now().format(ID_FORMAT);
-        model.startNewMission(id, System.currentTimeMillis());
+        long now = clockMs.getAsLong();
+        String id = LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZoneId.systemDefault()).format(ID_FORMAT);
+        model.startNewMission(id, now);
         filArianeController.reset();
         obstacleNear = false;
+        if (journalEnabled) {
+            openJournal(id);
+        }
+    }
+
+    /** Active/désactive le journal brut (.rvj) des prochaines missions (ex: désactivé en replay). */
+    public synchronized void setJournalEnabled(boolean enabled) {
+        this.journalEnabled = enabled;
+        if (!enabled) {
+            closeJournal();
+        }
+    }
+
+    /** Réseau de distance journalisé par les prochaines missions (table des capteurs du journal). */
+    public synchronized void setRangeSensors(List<RangeSensor> sensors) {
+        this.rangeSensors = List.copyOf(sensors);
+    }
+
+    /** Ferme le journal en cours (à appeler à l'arrêt de l'application). */
+    public synchronized void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("[MISSION] Journal close failed: " + e.getMessage());
+        }
+        journal = null;
+    }
+
+    private void openJournal(String missionId) {
+        closeJournal();
+        Path path = reportDir().resolve("mission-" + missionId + ".rvj");
+        try {
+            journal = new EventJournalWriter(path, rangeSensors);
+            journal.attach();
+        } catch (IOException e) {
+            journal = null;
+            System.out.println("[MISSION] Journal disabled: " + e.getMessage());
+        }
     }
 
     public synchronized void update(double leftCmd,
@@ -40,12 +99,13 @@ public class MissionController {
                                     TofState tofLeft,
                                     TofState tofRight,
                                     HumidityState humidity,
-                                    LightState light) {
+                                    LightState light,
+                                    ObstacleState obstacle) {
         if (!model.isRunning()) {
             return;
         }
 
-        filArianeController.updateFromCommands(leftCmd, rightCmd);
+        filArianeController.updateFromCommands(leftCmd, rightCmd, clockMs.getAsLong());
 
         if (humidity != null && humidity.attached()) {
             double hum = humidity.humidityPercent();
@@ -69,13 +129,9 @@ public class MissionController {
             double d = sonar.distanceMm();
             if (Double.isFinite(d) && d > 0) {
                 model.getSonarStats().add(d);
-                handleShock(d, sonar.timestampMs());
-            } else {
-                obstacleNear = false;
             }
-        } else {
-            obstacleNear = false;
         }
+        handleShock(obstacle);
 
         if (tofLeft != null && tofLeft.attached()) {
             double d = tofLeft.distanceMm();
@@ -96,19 +152,26 @@ public class MissionController {
         if (!model.isRunning()) {
             startNewMission();
         }
-        model.finish(System.currentTimeMillis());
+        Path pdfPath = generateReport(reportDir(), "mission-" + model.getMissionId());
+        startNewMission();
+        return pdfPath;
+    }
+
+    /**
+     * Termine la mission en cours et écrit baseName.pdf / baseName.json dans reportDir
+     * (sans redémarrer de mission). Retourne le chemin du PDF.
+     */
+    public synchronized Path generateReport(Path reportDir, String baseName) throws IOException {
+        model.finish(clockMs.getAsLong());
+        closeJournal();
 
-        Path reportDir = Paths.get(System.getProperty("user.dir"), "reports");
         Files.createDirectories(reportDir);
 
-        String baseName = "mission-" + model.getMissionId();
         Path pdfPath = reportDir.resolve(baseName + ".pdf");
         MissionReportWriter.writePdf(model, pdfPath);
 
         Path jsonPath = reportDir.resolve(baseName + ".json");
         MissionReportWriter.writeJson(model, jsonPath);
-
-        startNewMission();
         return pdfPath;
     }
 
@@ -116,19 +179,34 @@ public class MissionController {
         return model;
     }
 
-    private void handleShock(double distanceMm, long timestampMs) {
-        boolean nowNear = distanceMm <= SHOCK_THRESHOLD_MM;
-        if (nowNear && !obstacleNear) {
-            obstacleNear = true;
-            long ts = timestampMs > 0 ? timestampMs : System.currentTimeMillis();
-            String detail = String.format(Locale.US,
-                    "distance=%.0fmm (<= %.0fmm)", distanceMm, SHOCK_THRESHOLD_MM);
-            model.recordShockEvent(detail, distanceMm, ts);
+    public static Path reportDir() {
+        return Paths.get(System.getProperty("user.dir"), "reports");
+    }
+
+    /**
+     * Choc signalé par l'appelant (front montant de l'alerte relevé à la cadence de la fusion).
+     * Dans ce cas, update(...) reçoit obstacle = null.
+     */
+    public synchronized void recordShock(ObstacleState edge) {
+        if (!model.isRunning() || edge == null) {
             return;
         }
+        recordShockEvent(edge);
+    }
 
-        if (!nowNear && obstacleNear && distanceMm > (SHOCK_THRESHOLD_MM + SHOCK_OFF_DELTA_MM)) {
-            obstacleNear = false;
+    /** Un choc = front montant de l'alerte obstacle de la fusion (seuil et hystérésis décidés là-bas). */
+    private void handleShock(ObstacleState obstacle) {
+        boolean nowNear = obstacle != null && obstacle.tooClose();
+        if (nowNear && !obstacleNear) {
+            recordShockEvent(obstacle);
         }
+        obstacleNear = nowNear;
+    }
+
+    private void recordShockEvent(ObstacleState obstacle) {
+        double d = obstacle.pathClearanceMm();
+        String detail = String.format(Locale.US, "distance=%.0fmm (confiance %.0f%%)", d,
+                obstacle.pathConfidence() * 100);
+        model.recordShockEvent(detail, d, clockMs.getAsLong());
     }
 }
@@ -0,0 +1,146 @@
+package mission.journal;
+
+import distances.model.RangeSensor;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Lecture séquentielle d'un journal .rvj. Curseur réutilisable: next() avance,
+ * les getters lisent l'enregistrement courant (pas d'allocation par enregistrement).
+ * Lit aussi les journaux version 1 (en-tête de 64 octets, sans table de capteurs).
+ */
+public class EventJournalReader implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buf;
+    private final long startEpochMs;
+    private final long recordCount;
+    private final int dataStart;
+    private final List<RangeSensor> sensors;
+
+    private long index = -1;
+    private int pos = -1;
+
+    public EventJournalReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        long size = channel.size();
+        if (size < JournalFormat.HEADER_SIZE || size > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("journal invalide (taille=" + size + "): " + path);
+        }
+        buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+        if (buf.getInt(JournalFormat.H_MAGIC) != JournalFormat.MAGIC
+                || buf.getInt(JournalFormat.H_RECORD_SIZE) != JournalFormat.RECORD_SIZE) {
+            channel.close();
+            throw new IOException("pas un journal rover (.rvj): " + path);
+        }
+        int version = buf.getInt(JournalFormat.H_VERSION);
+        if (version < 1 || version > JournalFormat.VERSION) {
+            channel.close();
+            throw new IOException("version de journal non supportée (" + version + "): " + path);
+        }
+        dataStart = version == 1 ? JournalFormat.HEADER_SIZE_V1 : JournalFormat.HEADER_SIZE;
+        int sensorCount = version == 1 ? 0 : buf.getInt(JournalFormat.H_SENSOR_COUNT);
+        if (size < dataStart || sensorCount < 0 || sensorCount > JournalFormat.MAX_SENSORS) {
+            channel.close();
+            throw new IOException("en-tête de journal invalide: " + path);
+        }
+        sensors = JournalFormat.readSensors(buf, sensorCount);
+        startEpochMs = buf.getLong(JournalFormat.H_START_EPOCH_MS);
+
+        long count = buf.getLong(JournalFormat.H_RECORD_COUNT);
+        if (count <= 0) {
+            // Journal non fermé proprement (crash): on compte les enregistrements complets
+            count = 0;
+            long max = (size - dataStart) / JournalFormat.RECORD_SIZE;
+            while (count < max && buf.get(offsetOf(count) + JournalFormat.R_KIND) != 0) {
+                count++;
+            }
+        }
+        recordCount = count;
+    }
+
+    public long getStartEpochMs() {
+        return startEpochMs;
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /** Réseau de distance déclaré à l'enregistrement (vide: journal version 1 ou sans table). */
+    public List<RangeSensor> getSensors() {
+        return sensors;
+    }
+
+    public boolean next() {
+        if (index + 1 >= recordCount)
+            return false;
+        index++;
+        pos = offsetOf(index);
+        return true;
+    }
+
+    /** Revient avant le premier enregistrement. */
+    public void rewind() {
+        index = -1;
+        pos = -1;
+    }
+
+    public JournalKind kind() {
+        return JournalKind.fromCode(buf.get(pos + JournalFormat.R_KIND));
+    }
+
+    /** Nanos écoulées entre l'ouverture du journal et l'enregistrement. */
+    public long offsetNanos() {
+        return buf.getLong(pos + JournalFormat.R_OFFSET_NANOS);
+    }
+
+    public long timestampMs() {
+        return buf.getLong(pos + JournalFormat.R_TIMESTAMP_MS);
+    }
+
+    public boolean attached() {
+        return (buf.get(pos + JournalFormat.R_FLAGS) & JournalFormat.FLAG_ATTACHED) != 0;
+    }
+
+    /** Dernier enregistrement RANGE d'un cycle "ranges.update". */
+    public boolean endOfCycle() {
+        return (buf.get(pos + JournalFormat.R_FLAGS) & JournalFormat.FLAG_CYCLE_END) != 0;
+    }
+
+    public boolean hasError() {
+        return (buf.get(pos + JournalFormat.R_FLAGS) & JournalFormat.FLAG_ERROR) != 0;
+    }
+
+    public int aux() {
+        return buf.getShort(pos + JournalFormat.R_AUX);
+    }
+
+    public double v0() {
+        return buf.getDouble(pos + JournalFormat.R_V0);
+    }
+
+    public double v1() {
+        return buf.getDouble(pos + JournalFormat.R_V1);
+    }
+
+    public double v2() {
+        return buf.getDouble(pos + JournalFormat.R_V2);
+    }
+
+    private int offsetOf(long i) {
+        return (int) (dataStart + i * JournalFormat.RECORD_SIZE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
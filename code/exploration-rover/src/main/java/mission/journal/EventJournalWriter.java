@@ -0,0 +1,284 @@
+package mission.journal;
+
+import capteurs.model.HumidityState;
+import capteurs.model.LightState;
+import common.EventBus;
+import common.SensorScheduler;
+import common.Topic;
+import distances.model.RangeArrayState;
+import distances.model.RangeReading;
+import distances.model.RangeSensor;
+import rover.model.DriveCommand;
+import sonar.model.SonarState;
+import tof.model.TofState;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Enregistreur append-only: s'abonne aux topics capteurs + "rover.drive" et écrit
+ * chaque publication dans un fichier mappé en mémoire (enregistrements de taille fixe).
+ * Aucune allocation par événement: écriture directe dans le buffer mappé.
+ * Distances (sonar, ToF): v0 = mesure brute, v2 = valeur filtrée au moment de l'enregistrement.
+ * Avec une table de capteurs, tout le réseau de distance est journalisé par cycle ("ranges.update",
+ * un enregistrement RANGE par capteur), sinon seulement les ToF "left" / "right".
+ * Le bloc suivant est mappé d'avance hors des threads capteurs (SensorScheduler.submitBlocking):
+ * write() ne fait jamais de map() tant que le pré-mappage suit.
+ */
+public class EventJournalWriter implements AutoCloseable {
+
+    private static final long CHUNK_BYTES = 8L * 1024 * 1024; // remap tous les ~170k enregistrements
+    private static final int PAGE_BYTES = 4096;
+    private static final long PREMAP_AT = CHUNK_BYTES / 2; // bloc suivant demandé à mi-remplissage
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long startNanos;
+    private final int sensorCount;
+
+    private MappedByteBuffer header;
+    private MappedByteBuffer chunk;
+    private long chunkStart;
+    private CompletableFuture<MappedByteBuffer> nextChunk; // bloc suivant (nextChunkStart()) en cours de mappage
+    private boolean inlineRemapLogged = false;
+    private long recordCount = 0;
+    private boolean closed = false;
+    private boolean attached = false;
+
+    private final Topic<SonarState> sonarTopic = EventBus.topic(JournalKind.SONAR.topic(), SonarState.class);
+    private final Topic<TofState> tofLeftTopic = EventBus.topic(JournalKind.TOF_LEFT.topic(), TofState.class);
+    private final Topic<TofState> tofRightTopic = EventBus.topic(JournalKind.TOF_RIGHT.topic(), TofState.class);
+    private final Topic<HumidityState> humidityTopic = EventBus.topic(JournalKind.HUMIDITY.topic(), HumidityState.class);
+    private final Topic<LightState> lightTopic = EventBus.topic(JournalKind.LIGHT.topic(), LightState.class);
+    private final Topic<DriveCommand> driveTopic = EventBus.topic(JournalKind.DRIVE.topic(), DriveCommand.class);
+    private final Topic<RangeArrayState> rangesTopic = EventBus.topic(JournalKind.RANGE.topic(), RangeArrayState.class);
+
+    private final Consumer<SonarState> onSonar = s -> write(JournalKind.SONAR, s.timestampMs(),
+            flags(s.attached(), s.lastError()), 0, s.rawDistanceMm(), s.quality(), s.distanceMm());
+    private final Consumer<TofState> onTofLeft = s -> write(JournalKind.TOF_LEFT, s.timestampMs(),
+            flags(s.attached(), s.lastError()), 0, s.rawDistanceMm(), 0.0, s.distanceMm());
+    private final Consumer<TofState> onTofRight = s -> write(JournalKind.TOF_RIGHT, s.timestampMs(),
+            flags(s.attached(), s.lastError()), 0, s.rawDistanceMm(), 0.0, s.distanceMm());
+    private final Consumer<HumidityState> onHumidity = s -> write(JournalKind.HUMIDITY, s.timestampMs(),
+            flags(s.attached(), s.lastError()),
+            s.temperatureStatus() == null ? -1 : s.temperatureStatus().ordinal(),
+            s.humidityPercent(), s.temperatureCelsius(), 0.0);
+    private final Consumer<LightState> onLight = s -> write(JournalKind.LIGHT, s.timestampMs(),
+            flags(s.attached(), s.lastError()), 0, s.illuminanceLux(), 0.0, 0.0);
+    private final Consumer<DriveCommand> onDrive = c -> write(JournalKind.DRIVE, c.timestampMs(),
+            0, 0, c.leftCmd(), c.rightCmd(), 0.0);
+    private final Consumer<RangeArrayState> onRanges = this::writeRanges;
+
+    public EventJournalWriter(Path path) throws IOException {
+        this(path, List.of());
+    }
+
+    /** sensors: réseau de distance déclaré (table de l'en-tête, index des enregistrements RANGE). */
+    public EventJournalWriter(Path path, List<RangeSensor> sensors) throws IOException {
+        if (sensors.size() > JournalFormat.MAX_SENSORS)
+            throw new IOException("trop de capteurs de distance pour le journal: " + sensors.size()
+                    + " (max " + JournalFormat.MAX_SENSORS + ")");
+        try {
+            sensors.forEach(JournalFormat::sensorName);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+        this.path = path;
+        this.sensorCount = sensors.size();
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.startNanos = System.nanoTime();
+
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, JournalFormat.HEADER_SIZE);
+        header.putInt(JournalFormat.H_MAGIC, JournalFormat.MAGIC);
+        header.putInt(JournalFormat.H_VERSION, JournalFormat.VERSION);
+        header.putInt(JournalFormat.H_RECORD_SIZE, JournalFormat.RECORD_SIZE);
+        header.putLong(JournalFormat.H_START_EPOCH_MS, System.currentTimeMillis());
+        header.putLong(JournalFormat.H_RECORD_COUNT, 0L);
+        JournalFormat.writeSensors(header, sensors);
+
+        mapChunk(JournalFormat.HEADER_SIZE);
+    }
+
+    /**
+     * Branche l'enregistreur sur l'EventBus. Budget 0: le journal n'est jamais déporté
+     * en quarantaine, un enregistrement ne doit pas se perdre derrière une boîte aux lettres.
+     */
+    public synchronized void attach() {
+        if (attached || closed)
+            return;
+        attached = true;
+        sonarTopic.subscribe(onSonar, 0);
+        if (sensorCount > 0) {
+            rangesTopic.subscribe(onRanges, 0);
+        } else {
+            tofLeftTopic.subscribe(onTofLeft, 0);
+            tofRightTopic.subscribe(onTofRight, 0);
+        }
+        humidityTopic.subscribe(onHumidity, 0);
+        lightTopic.subscribe(onLight, 0);
+        driveTopic.subscribe(onDrive, 0);
+    }
+
+    public synchronized void detach() {
+        if (!attached)
+            return;
+        attached = false;
+        sonarTopic.unsubscribe(onSonar);
+        if (sensorCount > 0) {
+            rangesTopic.unsubscribe(onRanges);
+        } else {
+            tofLeftTopic.unsubscribe(onTofLeft);
+            tofRightTopic.unsubscribe(onTofRight);
+        }
+        humidityTopic.unsubscribe(onHumidity);
+        lightTopic.unsubscribe(onLight);
+        driveTopic.unsubscribe(onDrive);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    /** Un cycle du réseau: enregistrements RANGE consécutifs, le dernier marqué fin de cycle. */
+    private synchronized void writeRanges(RangeArrayState state) {
+        List<RangeReading> readings = state.readings();
+        int n = Math.min(readings.size(), sensorCount);
+        for (int i = 0; i < n; i++) {
+            RangeReading r = readings.get(i);
+            int f = flags(r.attached(), r.lastError()) | (i == n - 1 ? JournalFormat.FLAG_CYCLE_END : 0);
+            write(JournalKind.RANGE, state.timestampMs(), f, i, r.rawDistanceMm(), 0.0, r.distanceMm());
+        }
+    }
+
+    private synchronized void write(JournalKind kind, long timestampMs, int flags, int aux,
+            double v0, double v1, double v2) {
+        if (closed)
+            return;
+
+        long pos = JournalFormat.HEADER_SIZE + recordCount * JournalFormat.RECORD_SIZE;
+        try {
+            if (pos + JournalFormat.RECORD_SIZE > chunkStart + chunk.capacity()) {
+                nextChunk(pos);
+            } else if (nextChunk == null && pos - chunkStart >= PREMAP_AT) {
+                premapNext();
+            }
+        } catch (IOException e) {
+            System.out.println("[JOURNAL] remap FAILED: " + e.getMessage() + " -> journal fermé.");
+            closeQuietly();
+            return;
+        }
+
+        int i = (int) (pos - chunkStart);
+        chunk.putLong(i + JournalFormat.R_OFFSET_NANOS, System.nanoTime() - startNanos);
+        chunk.putLong(i + JournalFormat.R_TIMESTAMP_MS, timestampMs);
+        chunk.put(i + JournalFormat.R_FLAGS, (byte) flags);
+        chunk.putShort(i + JournalFormat.R_AUX, (short) aux);
+        chunk.putDouble(i + JournalFormat.R_V0, v0);
+        chunk.putDouble(i + JournalFormat.R_V1, v1);
+        chunk.putDouble(i + JournalFormat.R_V2, v2);
+        // kind en dernier: un enregistrement avec kind != 0 est complet
+        chunk.put(i + JournalFormat.R_KIND, kind.code);
+        recordCount++;
+    }
+
+    private void mapChunk(long from) throws IOException {
+        chunk = channel.map(FileChannel.MapMode.READ_WRITE, from, CHUNK_BYTES);
+        chunkStart = from;
+    }
+
+    /** Position du premier enregistrement qui ne tient plus dans le bloc courant. */
+    private long nextChunkStart() {
+        return chunkStart + (CHUNK_BYTES / JournalFormat.RECORD_SIZE) * JournalFormat.RECORD_SIZE;
+    }
+
+    /** Demande le mappage du bloc suivant sur le thread des opérations bloquantes. */
+    private void premapNext() {
+        long from = nextChunkStart();
+        CompletableFuture<MappedByteBuffer> f = new CompletableFuture<>();
+        nextChunk = f;
+        SensorScheduler.submitBlocking(() -> {
+            try {
+                MappedByteBuffer b;
+                synchronized (channel) { // pas de mappage (qui agrandit le fichier) après la troncature de close()
+                    b = channel.map(FileChannel.MapMode.READ_WRITE, from, CHUNK_BYTES);
+                }
+                for (int i = 0; i < b.capacity(); i += PAGE_BYTES)
+                    b.put(i, (byte) 0); // défauts de page pris ici, pas sur le thread capteur (kind 0 = vide)
+                f.complete(b);
+            } catch (Exception e) {
+                f.completeExceptionally(e);
+            }
+        });
+    }
+
+    /** Bascule sur le bloc pré-mappé; mappage en ligne seulement s'il n'est pas prêt. */
+    private void nextChunk(long from) throws IOException {
+        CompletableFuture<MappedByteBuffer> f = nextChunk;
+        nextChunk = null;
+        MappedByteBuffer ready = f != null && from == nextChunkStart() && f.isDone() && !f.isCompletedExceptionally()
+                ? f.join() : null;
+        if (ready != null) {
+            chunk = ready;
+            chunkStart = from;
+            return;
+        }
+        if (!inlineRemapLogged) {
+            inlineRemapLogged = true;
+            System.out.println("[JOURNAL] pré-mappage pas prêt -> remap en ligne à " + from + " octets.");
+        }
+        mapChunk(from);
+    }
+
+    private static int flags(boolean attached, String error) {
+        return (attached ? JournalFormat.FLAG_ATTACHED : 0) | (error != null ? JournalFormat.FLAG_ERROR : 0);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed)
+            return;
+        detach();
+        closed = true;
+        header.putLong(JournalFormat.H_RECORD_COUNT, recordCount);
+        header.force();
+        chunk.force();
+        // Les blocs mappés agrandissent le fichier: on le ramène aux enregistrements écrits
+        synchronized (channel) {
+            try {
+                channel.truncate(JournalFormat.HEADER_SIZE + recordCount * JournalFormat.RECORD_SIZE);
+            } catch (IOException e) {
+                System.out.println("[JOURNAL] troncature impossible: " + e.getMessage()
+                        + " (le lecteur s'en tient au nombre d'enregistrements de l'en-tête).");
+            } finally {
+                channel.close();
+            }
+        }
+        System.out.println("[JOURNAL] Fermé: " + path.getFileName() + " (" + recordCount + " enregistrements)");
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException ignored) {
+        }
+    }
+}
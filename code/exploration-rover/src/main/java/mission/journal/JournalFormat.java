@@ -0,0 +1,111 @@
+package mission.journal;
+
+import distances.model.RangeSensor;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Format binaire du journal d'événements (.rvj).
+ *
+ * En-tête (version 2: 64 octets + table des capteurs de distance, 2112 octets; version 1: 64 octets):
+ * magic(int) version(int) recordSize(int) sensorCount(int) startEpochMs(long) recordCount(long)
+ * puis MAX_SENSORS entrées de 64 octets: nom(32 octets UTF-8, complété par des 0) hubPort(int)
+ * canal(int) angleDeg(double) avantMm(double) gaucheMm(double)
+ *
+ * Enregistrement (48 octets, taille fixe):
+ * offsetNanos(long) timestampMs(long) kind(byte) flags(byte) aux(short) reserved(int)
+ * v0(double) v1(double) v2(double)
+ * RANGE: aux = index du capteur dans la table, un cycle "ranges.update" = enregistrements
+ * consécutifs, le dernier marqué FLAG_CYCLE_END.
+ */
+final class JournalFormat {
+
+    static final int MAGIC = 0x52564A31; // "RVJ1"
+    static final int VERSION = 2;
+    static final int RECORD_SIZE = 48;
+
+    static final int MAX_SENSORS = 32;
+    static final int SENSOR_ENTRY_SIZE = 64;
+    static final int SENSOR_NAME_BYTES = 32;
+    static final int HEADER_SIZE_V1 = 64;
+    static final int HEADER_SIZE = HEADER_SIZE_V1 + MAX_SENSORS * SENSOR_ENTRY_SIZE;
+
+    // En-tête
+    static final int H_MAGIC = 0;
+    static final int H_VERSION = 4;
+    static final int H_RECORD_SIZE = 8;
+    static final int H_SENSOR_COUNT = 12;
+    static final int H_START_EPOCH_MS = 16;
+    static final int H_RECORD_COUNT = 24;
+    static final int H_SENSORS = 64;
+
+    // Entrée de la table des capteurs
+    static final int S_NAME = 0;
+    static final int S_HUB_PORT = 32;
+    static final int S_CHANNEL = 36;
+    static final int S_ANGLE = 40;
+    static final int S_FORWARD = 48;
+    static final int S_LEFT = 56;
+
+    // Enregistrement
+    static final int R_OFFSET_NANOS = 0;
+    static final int R_TIMESTAMP_MS = 8;
+    static final int R_KIND = 16;
+    static final int R_FLAGS = 17;
+    static final int R_AUX = 18;
+    static final int R_V0 = 24;
+    static final int R_V1 = 32;
+    static final int R_V2 = 40;
+
+    static final int FLAG_ATTACHED = 1;
+    static final int FLAG_ERROR = 2;
+    static final int FLAG_CYCLE_END = 4;
+
+    private JournalFormat() {
+    }
+
+    /** Nom encodé d'un capteur; IllegalArgumentException s'il ne tient pas dans la table. */
+    static byte[] sensorName(RangeSensor sensor) {
+        byte[] name = sensor.name().getBytes(StandardCharsets.UTF_8);
+        if (name.length >= SENSOR_NAME_BYTES)
+            throw new IllegalArgumentException("nom de capteur trop long pour le journal (max "
+                    + (SENSOR_NAME_BYTES - 1) + " octets): " + sensor.name());
+        return name;
+    }
+
+    static void writeSensors(ByteBuffer header, List<RangeSensor> sensors) {
+        for (int i = 0; i < sensors.size(); i++) {
+            RangeSensor s = sensors.get(i);
+            int e = H_SENSORS + i * SENSOR_ENTRY_SIZE;
+            byte[] name = sensorName(s);
+            for (int b = 0; b < SENSOR_NAME_BYTES; b++)
+                header.put(e + S_NAME + b, b < name.length ? name[b] : 0);
+            header.putInt(e + S_HUB_PORT, s.hubPort());
+            header.putInt(e + S_CHANNEL, s.channel());
+            header.putDouble(e + S_ANGLE, s.angleDeg());
+            header.putDouble(e + S_FORWARD, s.forwardMm());
+            header.putDouble(e + S_LEFT, s.leftMm());
+        }
+        header.putInt(H_SENSOR_COUNT, sensors.size());
+    }
+
+    static List<RangeSensor> readSensors(ByteBuffer header, int count) {
+        List<RangeSensor> sensors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int e = H_SENSORS + i * SENSOR_ENTRY_SIZE;
+            int len = 0;
+            while (len < SENSOR_NAME_BYTES && header.get(e + S_NAME + len) != 0)
+                len++;
+            byte[] name = new byte[len];
+            for (int b = 0; b < len; b++)
+                name[b] = header.get(e + S_NAME + b);
+            sensors.add(new RangeSensor(new String(name, StandardCharsets.UTF_8),
+                    header.getInt(e + S_HUB_PORT), header.getInt(e + S_CHANNEL),
+                    header.getDouble(e + S_ANGLE), header.getDouble(e + S_FORWARD), header.getDouble(e + S_LEFT)));
+        }
+        return List.copyOf(sensors);
+    }
+}
@@ -0,0 +1,39 @@
+package mission.journal;
+
+/**
+ * Type d'enregistrement du journal (code stocké sur un octet, 0 = fin / vide).
+ */
+public enum JournalKind {
+    SONAR(1, "sonar.update"),
+    TOF_LEFT(2, "tof.left.update"),
+    TOF_RIGHT(3, "tof.right.update"),
+    HUMIDITY(4, "humidity.update"),
+    LIGHT(5, "light.update"),
+    DRIVE(6, "rover.drive"),
+    /** Mesure d'un capteur du réseau de distance (aux = index dans la table de l'en-tête). */
+    RANGE(7, "ranges.update");
+
+    private static final JournalKind[] BY_CODE = new JournalKind[8];
+
+    static {
+        for (JournalKind k : values()) {
+            BY_CODE[k.code] = k;
+        }
+    }
+
+    final byte code;
+    private final String topic;
+
+    JournalKind(int code, String topic) {
+        this.code = (byte) code;
+        this.topic = topic;
+    }
+
+    public String topic() {
+        return topic;
+    }
+
+    static JournalKind fromCode(int code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
@@ -0,0 +1,184 @@
+package mission.journal;
+
+import capteurs.model.HumidityState;
+import capteurs.model.LightState;
+import capteurs.model.TemperatureStatus;
+import common.DistanceFilter;
+import common.EventBus;
+import common.Topic;
+import distances.model.RangeArrayState;
+import distances.model.RangeReading;
+import distances.model.RangeSensor;
+import rover.model.DriveCommand;
+import sonar.model.SonarState;
+import tof.model.TofState;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Rejoue un journal .rvj sur l'EventBus en respectant les instants enregistrés.
+ * speed = 1.0 temps réel, N = N fois plus vite, <= 0 = aussi vite que possible.
+ * getReplayTimeMs() sert d'horloge aux contrôleurs (mission, fil d'Ariane) pendant le replay.
+ * Les distances brutes (v0) repassent par les mêmes filtres que les services: un journal peut
+ * être rejoué avec d'autres réglages ({@link #setFilters}).
+ * Réseau de distance (RANGE): chaque mesure est republiée sur le topic de son capteur, et chaque
+ * cycle complet sur "ranges.update", capteurs lus dans la table de l'en-tête.
+ */
+public class JournalReplayer {
+
+    private static final String REPLAY_ERROR = "replay: erreur enregistrée";
+    private static final TemperatureStatus[] TEMP_STATUS = TemperatureStatus.values();
+
+    private final Path path;
+    private final double speed;
+
+    private final Topic<SonarState> sonarTopic = EventBus.topic(JournalKind.SONAR.topic(), SonarState.class);
+    private final Topic<TofState> tofLeftTopic = EventBus.topic(JournalKind.TOF_LEFT.topic(), TofState.class);
+    private final Topic<TofState> tofRightTopic = EventBus.topic(JournalKind.TOF_RIGHT.topic(), TofState.class);
+    private final Topic<HumidityState> humidityTopic = EventBus.topic(JournalKind.HUMIDITY.topic(), HumidityState.class);
+    private final Topic<LightState> lightTopic = EventBus.topic(JournalKind.LIGHT.topic(), LightState.class);
+    private final Topic<DriveCommand> driveTopic = EventBus.topic(JournalKind.DRIVE.topic(), DriveCommand.class);
+    private final Topic<RangeArrayState> rangesTopic = EventBus.topic(JournalKind.RANGE.topic(), RangeArrayState.class);
+
+    private DistanceFilter sonarFilter = new DistanceFilter(DistanceFilter.Config.SONAR);
+    private DistanceFilter tofLeftFilter = new DistanceFilter(DistanceFilter.Config.TOF);
+    private DistanceFilter tofRightFilter = new DistanceFilter(DistanceFilter.Config.TOF);
+    private DistanceFilter.Config tofConfig = DistanceFilter.Config.TOF;
+
+    // Réseau de distance du journal en cours (run())
+    private List<RangeSensor> sensors = List.of();
+    private List<Topic<TofState>> rangeTopics = List.of();
+    private DistanceFilter[] rangeFilters = new DistanceFilter[0];
+    private final List<RangeReading> cycle = new ArrayList<>();
+
+    private volatile boolean running = false;
+    private volatile long replayTimeMs = 0;
+    private Consumer<JournalKind> onRecord;
+
+    public JournalReplayer(Path path, double speed) {
+        this.path = path;
+        this.speed = speed;
+    }
+
+    /** Appelé après chaque enregistrement republié (thread du replay). */
+    public void setOnRecord(Consumer<JournalKind> onRecord) {
+        this.onRecord = onRecord;
+    }
+
+    /** Filtres appliqués aux distances rejouées (avant run()). */
+    public void setFilters(DistanceFilter.Config sonar, DistanceFilter.Config tof) {
+        sonarFilter = new DistanceFilter(sonar);
+        tofLeftFilter = new DistanceFilter(tof);
+        tofRightFilter = new DistanceFilter(tof);
+        tofConfig = tof;
+    }
+
+    /** Horloge "enregistrée": timestamp du dernier enregistrement rejoué. */
+    public long getReplayTimeMs() {
+        return replayTimeMs;
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Rejoue le journal (bloquant). Retourne le nombre d'enregistrements publiés.
+     */
+    public long run() throws IOException {
+        try (EventJournalReader reader = new EventJournalReader(path)) {
+            running = true;
+            replayTimeMs = reader.getStartEpochMs();
+            openRanges(reader.getSensors());
+            long wallStart = System.nanoTime();
+            long published = 0;
+
+            while (running && reader.next()) {
+                if (speed > 0) {
+                    long due = wallStart + (long) (reader.offsetNanos() / speed);
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+
+                JournalKind kind = reader.kind();
+                if (kind == null) {
+                    continue;
+                }
+                if (reader.timestampMs() > 0) {
+                    replayTimeMs = reader.timestampMs();
+                }
+                publish(kind, reader);
+                published++;
+
+                Consumer<JournalKind> hook = onRecord;
+                if (hook != null) {
+                    hook.accept(kind);
+                }
+            }
+            running = false;
+            return published;
+        }
+    }
+
+    private void publish(JournalKind kind, EventJournalReader r) {
+        String err = r.hasError() ? REPLAY_ERROR : null;
+        long cap = System.nanoTime(); // instant de republication: les latences mesurent la chaîne rejouée
+        switch (kind) {
+            case SONAR -> sonarTopic.publish(new SonarState(filter(sonarFilter, r, err), r.v0(), r.v1(),
+                    r.attached(), r.timestampMs(), cap, err));
+            case TOF_LEFT -> tofLeftTopic.publish(new TofState(filter(tofLeftFilter, r, err), r.v0(),
+                    r.attached(), r.timestampMs(), cap, err));
+            case TOF_RIGHT -> tofRightTopic.publish(new TofState(filter(tofRightFilter, r, err), r.v0(),
+                    r.attached(), r.timestampMs(), cap, err));
+            case HUMIDITY -> {
+                int s = r.aux();
+                TemperatureStatus status = s >= 0 && s < TEMP_STATUS.length ? TEMP_STATUS[s] : TemperatureStatus.UNKNOWN;
+                humidityTopic.publish(new HumidityState(r.v0(), r.v1(), status, r.attached(), r.timestampMs(), err));
+            }
+            case LIGHT -> lightTopic.publish(new LightState(r.v0(), r.attached(), r.timestampMs(), err));
+            case DRIVE -> driveTopic.publish(new DriveCommand(r.v0(), r.v1(), r.timestampMs()));
+            case RANGE -> publishRange(r, err, cap);
+        }
+    }
+
+    private void openRanges(List<RangeSensor> declared) {
+        sensors = declared;
+        List<Topic<TofState>> topics = new ArrayList<>(declared.size());
+        rangeFilters = new DistanceFilter[declared.size()];
+        for (int i = 0; i < declared.size(); i++) {
+            topics.add(EventBus.topic(declared.get(i).topic(), TofState.class));
+            rangeFilters[i] = new DistanceFilter(tofConfig);
+        }
+        rangeTopics = topics;
+        cycle.clear();
+    }
+
+    private void publishRange(EventJournalReader r, String err, long cap) {
+        int i = r.aux();
+        if (i < 0 || i >= sensors.size())
+            return; // index hors de la table: enregistrement ignoré
+        double distance = filter(rangeFilters[i], r, err);
+        rangeTopics.get(i).publish(new TofState(distance, r.v0(), r.attached(), r.timestampMs(), cap, err));
+        cycle.add(new RangeReading(sensors.get(i), distance, r.v0(), r.attached(), cap, err));
+        if (r.endOfCycle()) {
+            rangesTopic.publish(new RangeArrayState(List.copyOf(cycle), r.timestampMs()));
+            cycle.clear();
+        }
+    }
+
+    /** Même règle que les services: filtre remis à zéro sur erreur / capteur détaché. */
+    private static double filter(DistanceFilter f, EventJournalReader r, String err) {
+        if (!r.attached() || err != null) {
+            f.reset();
+            return Double.NaN;
+        }
+        return f.update(r.v0(), r.timestampMs());
+    }
+}
@@ -0,0 +1,187 @@
+package mission.journal;
+
+import capteurs.model.HumidityState;
+import capteurs.model.LightState;
+import common.ConflatedTopic;
+import common.EventBus;
+import distances.model.RangeSensor;
+import fusion.model.ObstacleState;
+import fusion.services.ObstacleFusion;
+import health.model.SensorId;
+import health.services.SensorHealthMonitor;
+import javafx.application.Platform;
+import mission.controller.MissionController;
+import rover.model.DriveCommand;
+import rover.model.RoverModel;
+import sonar.model.SonarState;
+import tof.model.TofState;
+import view.UiSnapshot;
+import view.View;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Replay hors-ligne d'une mission (sans hub Phidget ni manette).
+ *
+ * Usage: ReplayMain fichier.rvj [vitesse|max] [--ui]
+ * - vitesse: 1 = temps réel (défaut), 10 = 10x, max = aussi vite que possible
+ * - --ui: affiche le tableau de bord JavaFX (radar + fil d'Ariane) pendant le replay
+ *
+ * Régénère le rapport (reports/replay-&lt;journal&gt;.pdf/.json) via le vrai MissionController.
+ * Fusion rejouée avec le réseau de distance enregistré dans le journal; journal sans table
+ * (version 1): -Drover.ranges, sinon l'implantation standard gauche/droite.
+ */
+public class ReplayMain {
+
+    private static final long UI_PERIOD_MS = 200; // même cadence que la boucle teleop de Main
+    private static final long UI_MIN_WALL_MS = 33; // évite d'inonder le thread FX en replay rapide
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: ReplayMain <journal.rvj> [vitesse|max] [--ui]");
+            return;
+        }
+        Path journal = Paths.get(args[0]);
+        double speed = 1.0;
+        boolean withUi = false;
+        for (int i = 1; i < args.length; i++) {
+            if ("--ui".equals(args[i])) {
+                withUi = true;
+            } else if ("max".equalsIgnoreCase(args[i])) {
+                speed = 0.0;
+            } else {
+                speed = Double.parseDouble(args[i]);
+            }
+        }
+
+        List<RangeSensor> sensors;
+        try (EventJournalReader reader = new EventJournalReader(journal)) {
+            sensors = reader.getSensors();
+        }
+        boolean sensorsFromJournal = !sensors.isEmpty();
+        if (!sensorsFromJournal) {
+            try {
+                String spec = System.getProperty("rover.ranges");
+                sensors = spec == null || spec.isBlank() ? RangeSensor.defaults(0, 0) : RangeSensor.parse(spec);
+            } catch (IllegalArgumentException e) {
+                System.out.println("[REPLAY] " + e.getMessage());
+                return;
+            }
+        }
+
+        JournalReplayer replayer = new JournalReplayer(journal, speed);
+        MissionController mission = new MissionController(replayer::getReplayTimeMs);
+        mission.setJournalEnabled(false);
+
+        // JavaFX chargé uniquement avec --ui (replay headless possible sans JavaFX)
+        Consumer<UiSnapshot> ui = withUi ? FxSink.start() : null;
+
+        ConflatedTopic<SonarState> sonar = EventBus.latest(JournalKind.SONAR.topic(), SonarState.class);
+        ConflatedTopic<TofState> tofLeft = EventBus.latest(JournalKind.TOF_LEFT.topic(), TofState.class);
+        ConflatedTopic<TofState> tofRight = EventBus.latest(JournalKind.TOF_RIGHT.topic(), TofState.class);
+        ConflatedTopic<HumidityState> humidity = EventBus.latest(JournalKind.HUMIDITY.topic(), HumidityState.class);
+        ConflatedTopic<LightState> light = EventBus.latest(JournalKind.LIGHT.topic(), LightState.class);
+        ConflatedTopic<DriveCommand> drive = EventBus.latest(JournalKind.DRIVE.topic(), DriveCommand.class);
+
+        // Péremption jugée sur l'horloge du journal (pas l'horloge murale: replay accéléré)
+        SensorHealthMonitor health = new SensorHealthMonitor(() -> replayer.getReplayTimeMs() * 1_000_000L);
+        health.subscribe();
+
+        // Fusion rejouée comme en direct, un input par capteur déclaré (mesures lues sur son topic)
+        ObstacleFusion fusion = new ObstacleFusion();
+        int sonarInput = fusion.addSonar("sonar");
+        int[] rangeInputs = new int[sensors.size()];
+        List<ConflatedTopic<TofState>> rangeStates = new ArrayList<>(sensors.size());
+        SensorId[] rangeHealth = new SensorId[sensors.size()];
+        for (int i = 0; i < rangeInputs.length; i++) {
+            RangeSensor sensor = sensors.get(i);
+            rangeInputs[i] = fusion.addTof(sensor);
+            rangeStates.add(EventBus.latest(sensor.topic(), TofState.class));
+            rangeHealth[i] = healthId(sensor, sensorsFromJournal);
+        }
+
+        long[] nextTickAt = {0};
+        long[] lastUiWallMs = {0};
+        boolean[] started = {false};
+
+        replayer.setOnRecord(kind -> {
+            long now = replayer.getReplayTimeMs();
+            if (!started[0]) {
+                started[0] = true;
+                mission.startNewMission();
+            }
+            if (now < nextTickAt[0]) {
+                return;
+            }
+            nextTickAt[0] = now + UI_PERIOD_MS;
+
+            DriveCommand cmd = drive.get();
+            double left = cmd == null ? 0.0 : cmd.leftCmd();
+            double right = cmd == null ? 0.0 : cmd.rightCmd();
+            SonarState s = sonar.get();
+            TofState tl = tofLeft.get();
+            TofState tr = tofRight.get();
+            if (s != null)
+                fusion.observe(sonarInput, s.distanceMm(), s.attached() && s.lastError() == null
+                        && health.isFresh(SensorId.SONAR), s.captureNanos());
+            for (int i = 0; i < rangeInputs.length; i++) {
+                TofState r = rangeStates.get(i).get();
+                if (r != null)
+                    fusion.observe(rangeInputs[i], r.distanceMm(), r.attached() && r.lastError() == null
+                            && health.isFresh(rangeHealth[i]), r.captureNanos());
+            }
+            fusion.fuse();
+            ObstacleState obstacle = fusion.snapshot();
+            mission.update(left, right, s, tl, tr, humidity.get(), light.get(), obstacle);
+
+            long wall = System.currentTimeMillis();
+            if (ui != null && wall - lastUiWallMs[0] >= UI_MIN_WALL_MS) {
+                lastUiWallMs[0] = wall;
+                UiSnapshot snap = new UiSnapshot(true, RoverModel.SpeedMode.NORMAL, false, left, right,
+                        s, tl, tr, humidity.get(), light.get(), obstacle, health.report(), now);
+                ui.accept(snap);
+            }
+        });
+
+        long t0 = System.nanoTime();
+        long count = replayer.run();
+        double wallSec = (System.nanoTime() - t0) / 1e9;
+
+        if (!started[0]) {
+            System.out.println("[REPLAY] Journal vide: " + journal);
+            return;
+        }
+
+        String stem = journal.getFileName().toString().replaceFirst("\\.rvj$", "");
+        Path pdf = mission.generateReport(MissionController.reportDir(), "replay-" + stem);
+        System.out.printf("[REPLAY] %d événements en %.2fs (%.0f evt/s). Rapport: %s%n",
+                count, wallSec, count / Math.max(1e-9, wallSec), pdf.toAbsolutePath());
+    }
+
+    /**
+     * Fraîcheur d'un capteur rejoué: cycles "ranges.update" du journal comme en direct, sinon
+     * (journal version 1) le topic individuel des ToF gauche/droite.
+     */
+    private static SensorId healthId(RangeSensor sensor, boolean rangeCycles) {
+        if (!rangeCycles) {
+            if ("left".equals(sensor.name()))
+                return SensorId.TOF_LEFT;
+            if ("right".equals(sensor.name()))
+                return SensorId.TOF_RIGHT;
+        }
+        return SensorId.RANGES;
+    }
+
+    private static final class FxSink {
+        static Consumer<UiSnapshot> start() {
+            View view = new View();
+            view.start();
+            return snap -> Platform.runLater(() -> view.updateUi(snap));
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package rover.controller;
 
+import common.EventBus;
+import common.LatencyTrace;
+import common.Topic;
+import common.TopicPriority;
+import rover.model.DriveCommand;
+import rover.model.EmergencyStopEvent;
 import rover.model.RoverModel;
 
 /**
@@ -8,6 +14,13 @@ import rover.model.RoverModel;
 public class RoverController {
 
     private final RoverModel model;
+    private final Topic<DriveCommand> driveTopic = EventBus.topic("rover.drive", DriveCommand.class);
+    private final Topic<EmergencyStopEvent> estopTopic = EventBus.topic("rover.estop", EmergencyStopEvent.class)
+            .setPriority(TopicPriority.CRITICAL);
+
+    // Dernière commande publiée: pas de DriveCommand alloué à chaque tick si rien ne change
+    private double lastLeft = Double.NaN;
+    private double lastRight = Double.NaN;
 
     public RoverController(RoverModel model) {
         this.model = model;
@@ -23,11 +36,22 @@ public class RoverController {
     }
 
     public void applyDriveCommand(double left, double right) {
+        applyDriveCommand(left, right, 0);
+    }
+
+    /**
+     * inputNanos: poll manette à l'origine de la commande (0: inconnu). La latence poll -> setTargetVelocity
+     * est enregistrée juste après l'envoi aux moteurs, avant la publication "rover.drive".
+     */
+    public void applyDriveCommand(double left, double right, long inputNanos) {
         try {
-            model.setWheelSpeeds(left, right);
+            if (model.setWheelSpeeds(left, right) && inputNanos > 0) {
+                LatencyTrace.record(LatencyTrace.Stage.DRIVE, inputNanos);
+            }
         } catch (Exception e) {
             System.out.println("[ROVER] Erreur moteurs: " + e.getMessage());
         }
+        publishDrive();
     }
 
     public void stop() {
@@ -35,6 +59,7 @@ public class RoverController {
             model.stop();
         } catch (Exception ignored) {
         }
+        publishDrive();
     }
 
     public void emergencyStop() {
@@ -43,11 +68,14 @@ public class RoverController {
             System.out.println("[ROVER] EMERGENCY STOP");
         } catch (Exception ignored) {
         }
+        estopTopic.publish(new EmergencyStopEvent(true, System.currentTimeMillis()));
+        publishDrive();
     }
 
     public void resetEmergencyStop() {
         model.resetEmergencyStop();
         System.out.println("[ROVER] EmergencyStop reset");
+        estopTopic.publish(new EmergencyStopEvent(false, System.currentTimeMillis()));
     }
 
     public boolean isEmergencyStop() {
@@ -57,4 +85,15 @@ public class RoverController {
     public void setSpeedMode(RoverModel.SpeedMode mode) {
         model.setSpeedMode(mode);
     }
+
+    /** Publie "rover.drive" seulement quand la commande appliquée change. */
+    private synchronized void publishDrive() {
+        double left = model.getLeftCmd();
+        double right = model.getRightCmd();
+        if (left == lastLeft && right == lastRight)
+            return;
+        lastLeft = left;
+        lastRight = right;
+        driveTopic.publish(new DriveCommand(left, right, System.currentTimeMillis()));
+    }
 }
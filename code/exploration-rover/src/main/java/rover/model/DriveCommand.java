@@ -0,0 +1,10 @@
+package rover.model;
+
+/**
+ * Commande moteurs effectivement appliquée (après mode lent / clamp), publiée sur "rover.drive".
+ */
+public record DriveCommand(
+        double leftCmd,
+        double rightCmd,
+        long timestampMs) {
+}
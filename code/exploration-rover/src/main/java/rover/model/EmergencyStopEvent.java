@@ -0,0 +1,9 @@
+package rover.model;
+
+/**
+ * Signal d'arrêt d'urgence (active=true) ou de reset (active=false), publié sur "rover.estop".
+ */
+public record EmergencyStopEvent(
+        boolean active,
+        long timestampMs) {
+}
@@ -17,16 +17,17 @@ public class RoverModel {
     private final Connection connection;
     private final MotorService motorService;
 
-    private boolean emergencyStop = false;
-    private SpeedMode speedMode = SpeedMode.NORMAL;
+    // Écrits par le thread de contrôle, lus par l'IHM / la mission / la cadence adaptative
+    private volatile boolean emergencyStop = false;
+    private volatile SpeedMode speedMode = SpeedMode.NORMAL;
 
     // Commande normalisée -1..1
     private double maxCmd = 1.0;
     private double slowFactor = 0.4;
 
     // Debug / état
-    private double leftCmd = 0.0;
-    private double rightCmd = 0.0;
+    private volatile double leftCmd = 0.0;
+    private volatile double rightCmd = 0.0;
 
     public RoverModel(Connection connection, MotorService motorService) {
         this.connection = connection;
@@ -70,11 +71,12 @@ public class RoverModel {
         stop();
     }
 
-    public void setWheelSpeeds(double left, double right) throws Exception {
+    /** Retourne true si la commande a été envoyée aux moteurs (connecté, pas d'e-stop). */
+    public boolean setWheelSpeeds(double left, double right) throws Exception {
         if (!isConnected())
-            return;
+            return false;
         if (emergencyStop)
-            return;
+            return false;
 
         // mode lent
         if (speedMode == SpeedMode.SLOW) {
@@ -89,6 +91,7 @@ public class RoverModel {
         rightCmd = right;
 
         motorService.setWheelSpeeds(left, right);
+        return true;
     }
 
     public void stop() throws Exception {
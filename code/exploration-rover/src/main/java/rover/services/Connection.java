@@ -1,12 +1,15 @@
 package rover.services;
 
-import com.phidget22.DCMotor;
-import com.phidget22.Net;
-import com.phidget22.PhidgetException;
+import common.MotorSink;
+import common.SensorBackend;
+import common.SensorBackends;
+import common.SensorException;
 
 /**
  * Connection au serveur Phidget Network + ouverture des canaux moteurs.
  * V1: uniquement DCMotor (DCC1003) via HUB5000 (Network VINT Hub).
+ * Les moteurs passent par le {@link SensorBackend} partagé avec les capteurs
+ * (PhidgetSession en réel, rover simulé sinon).
  */
 public class Connection {
 
@@ -19,40 +22,33 @@ public class Connection {
     private final String ip;
     private final int port;
     private final int motorHubPort;
+    private final SensorBackend backend;
 
     private boolean connected = false;
-    private DCMotor leftMotor;
-    private DCMotor rightMotor;
+    private MotorSink leftMotor;
+    private MotorSink rightMotor;
 
     public Connection(String serverName, String ip, int port, int motorHubPort) {
         this.serverName = serverName;
         this.ip = ip;
         this.port = port;
         this.motorHubPort = motorHubPort;
+        this.backend = SensorBackends.of(serverName, ip, port);
     }
 
-    public synchronized void connect() throws PhidgetException {
+    public synchronized void connect() throws SensorException {
         if (connected)
             return;
 
-        // Nettoie un ancien server du même nom (relance app)
-        try {
-            Net.removeServer(serverName);
-        } catch (Exception ignored) {
-        }
-
-        // Déclare le serveur Phidget Network (publish ON côté hub)
-        Net.addServer(serverName, ip, port, "", 0);
+        // Déclare le serveur Phidget Network (publish ON côté hub), partagé avec les capteurs
+        backend.acquire();
 
         try {
             leftMotor = openMotor(motorHubPort, LEFT_MOTOR_CHANNEL);
             rightMotor = openMotor(motorHubPort, RIGHT_MOTOR_CHANNEL);
-        } catch (PhidgetException e) {
+        } catch (SensorException e) {
             safeCloseMotors();
-            try {
-                Net.removeServer(serverName);
-            } catch (Exception ignored) {
-            }
+            backend.release();
             throw e;
         }
 
@@ -71,35 +67,24 @@ public class Connection {
         } catch (Exception ignored) {
         }
 
-        try {
-            if (leftMotor != null)
-                leftMotor.close();
-        } catch (Exception ignored) {
-        }
-        try {
-            if (rightMotor != null)
-                rightMotor.close();
-        } catch (Exception ignored) {
-        }
-
-        leftMotor = null;
-        rightMotor = null;
-
-        try {
-            Net.removeServer(serverName);
-        } catch (Exception ignored) {
-        }
+        safeCloseMotors();
+        backend.release();
 
         connected = false;
         System.out.println("[ROVER] Déconnecté.");
     }
 
+    /** Moteurs ouverts ET lien réseau vivant (backend non DOWN). */
     public boolean isConnected() {
-        return connected;
+        return connected && !backend.isLinkDown();
     }
 
-    public void setWheelSpeeds(double left, double right) throws PhidgetException {
-        if (!connected || leftMotor == null || rightMotor == null)
+    public SensorBackend getBackend() {
+        return backend;
+    }
+
+    public void setWheelSpeeds(double left, double right) throws SensorException {
+        if (!isConnected() || leftMotor == null || rightMotor == null)
             return;
 
         left = clamp(left);
@@ -109,7 +94,7 @@ public class Connection {
         rightMotor.setTargetVelocity(right);
     }
 
-    public void stop() throws PhidgetException {
+    public void stop() throws SensorException {
         if (!connected)
             return;
         safeStop();
@@ -117,20 +102,15 @@ public class Connection {
 
     // ===== Helpers =====
 
-    private void safeStop() throws PhidgetException {
+    private void safeStop() throws SensorException {
         if (leftMotor != null)
             leftMotor.setTargetVelocity(0.0);
         if (rightMotor != null)
             rightMotor.setTargetVelocity(0.0);
     }
 
-    private DCMotor openMotor(int hubPort, int channel) throws PhidgetException {
-        DCMotor m = new DCMotor();
-        m.setServerName(serverName);
-        m.setHubPort(hubPort);
-        m.setChannel(channel);
-
-        // IMPORTANT: ne pas appeler setIsHubPortDevice(true) ici
+    private MotorSink openMotor(int hubPort, int channel) throws SensorException {
+        MotorSink m = backend.motor(hubPort, channel);
         m.open(5000);
         return m;
     }
@@ -140,18 +120,10 @@ public class Connection {
     }
 
     private void safeCloseMotors() {
-        try {
-            if (leftMotor != null) {
-                leftMotor.close();
-            }
-        } catch (Exception ignored) {
-        }
-        try {
-            if (rightMotor != null) {
-                rightMotor.close();
-            }
-        } catch (Exception ignored) {
-        }
+        if (leftMotor != null)
+            leftMotor.close();
+        if (rightMotor != null)
+            rightMotor.close();
         leftMotor = null;
         rightMotor = null;
     }
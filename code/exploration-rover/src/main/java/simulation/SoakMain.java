@@ -0,0 +1,185 @@
+package simulation;
+
+import capteurs.services.HumidityService;
+import capteurs.services.LightService;
+import common.ControlLoop;
+import common.EventBusMetrics;
+import common.LatencyTrace;
+import common.RoverConfig;
+import common.SensorSample;
+import common.SensorScheduler;
+import distances.model.RangeSensor;
+import distances.services.RangeArrayService;
+import fusion.services.ObstacleFusion;
+import health.model.HealthReport;
+import health.model.SensorId;
+import health.services.SensorHealthMonitor;
+import rover.services.Connection;
+import rover.services.MotorService;
+import simulation.model.CaveMap;
+import simulation.model.NoiseModel;
+import simulation.services.SimulatedRover;
+import sonar.services.SonarService;
+
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Soak test headless sur le rover simulé (sans hub, sans manette, sans JavaFX).
+ *
+ * Usage: SoakMain [durée_s] [--faults] [--cave fichier.txt]
+ * - durée_s: 60 par défaut
+ * - --faults: coupe le lien 5 s toutes les 30 s (reconnexion / backoff des services)
+ * Bruit: propriétés rover.sim.* (voir NoiseModel). Capteurs de distance: rover.ranges (voir RangeSensor).
+ * Dump SCHED / EventBus / LAT toutes les 10 s.
+ * Code de sortie 1 si un service n'a jamais publié de mesure.
+ */
+public class SoakMain {
+
+    private static final int LOOP_MS = 50; // même cadence que la boucle teleop
+    private static final int REPORT_MS = 10_000;
+    private static final long FAULT_EVERY_MS = 30_000;
+    private static final long FAULT_LENGTH_MS = 5_000;
+    private static final double AVOID_MM = 500; // pivot sur place sous cette distance (sonar)
+    private static final double SIDE_MM = 200; // correction de trajectoire sous cette distance (ToF)
+
+    public static void main(String[] args) throws Exception {
+        long durationMs = 60_000;
+        boolean faults = false;
+        String cavePath = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--faults".equals(args[i])) {
+                faults = true;
+            } else if ("--cave".equals(args[i]) && i + 1 < args.length) {
+                cavePath = args[++i];
+            } else {
+                durationMs = Long.parseLong(args[i]) * 1000;
+            }
+        }
+
+        CaveMap cave = cavePath == null ? CaveMap.defaultCave() : CaveMap.load(Paths.get(cavePath));
+        SimulatedRover sim = new SimulatedRover(cave, NoiseModel.fromProperties());
+        sim.install();
+        RoverConfig config = new RoverConfig("127.0.0.1", 5661, "MaxRover", 4, 3, 2, 1, 5, 0);
+        List<RangeSensor> rangeSensors = RangeSensor.fromProperties(config);
+        sim.mountDefaults(config);
+        sim.mountRanges(rangeSensors);
+        sim.start();
+
+        Connection connection = new Connection(config.serverName(), config.ip(), config.port(),
+                config.motorHubPort());
+        connection.connect();
+        MotorService motors = new MotorService(connection);
+        motors.setDebug(false);
+
+        SonarService sonar = new SonarService(config.serverName(), config.ip(), config.port(), config.sonarHubPort());
+        RangeArrayService ranges = new RangeArrayService(config.serverName(), config.ip(), config.port(),
+                rangeSensors);
+        int leftIndex = ranges.indexOf("left");
+        int rightIndex = ranges.indexOf("right");
+        HumidityService hum = new HumidityService(config.serverName(), config.ip(), config.port(),
+                config.temperaturePort());
+        LightService light = new LightService(config.serverName(), config.ip(), config.port(), config.lightHubPort());
+        SensorHealthMonitor health = new SensorHealthMonitor();
+        health.start();
+        sonar.start();
+        ranges.start();
+        hum.start();
+        light.start();
+
+        EventBusMetrics.startReporter(REPORT_MS);
+        SensorScheduler.startReporter(REPORT_MS);
+        LatencyTrace.startReporter(REPORT_MS);
+
+        SensorSample front = new SensorSample();
+        SensorSample left = new SensorSample();
+        SensorSample right = new SensorSample();
+        ObstacleFusion fusion = new ObstacleFusion();
+        int sonarInput = fusion.addSonar("sonar");
+        int leftInput = leftIndex >= 0 ? fusion.addTof(rangeSensors.get(leftIndex)) : -1;
+        int rightInput = rightIndex >= 0 ? fusion.addTof(rangeSensors.get(rightIndex)) : -1;
+        long alerts = 0;
+        ControlLoop loop = new ControlLoop("soak", LOOP_MS);
+        loop.startReporter(REPORT_MS);
+        long start = System.currentTimeMillis();
+        long nextPoseAt = start;
+        int pivot = 0; // +1 gauche, -1 droite
+        while (System.currentTimeMillis() - start < durationMs) {
+            long now = System.currentTimeMillis();
+            long t = now - start;
+            if (faults) {
+                sim.setLinkDown(t % FAULT_EVERY_MS >= FAULT_EVERY_MS - FAULT_LENGTH_MS);
+            }
+
+            // Évitement simple: tout droit, on tourne vers le côté le plus dégagé près d'un mur
+            sonar.getSlot().read(front);
+            if (leftIndex >= 0)
+                ranges.getSlot(leftIndex).read(left);
+            if (rightIndex >= 0)
+                ranges.getSlot(rightIndex).read(right);
+            fusion.observe(sonarInput, front, health.isFresh(SensorId.SONAR));
+            if (leftInput >= 0)
+                fusion.observe(leftInput, left, health.isFresh(SensorId.RANGES));
+            if (rightInput >= 0)
+                fusion.observe(rightInput, right, health.isFresh(SensorId.RANGES));
+            boolean wasTooClose = fusion.isTooClose();
+            if (fusion.fuse() && !wasTooClose)
+                alerts++;
+            double d = front.value0();
+            double l;
+            double r;
+            if (pivot == 0 && !Double.isNaN(d) && d < AVOID_MM) {
+                pivot = left.value0() < right.value0() ? -1 : 1; // NaN (rien en vue) = dégagé
+            } else if (pivot != 0 && (Double.isNaN(d) || d > AVOID_MM * 2)) {
+                pivot = 0; // hystérésis: on pivote jusqu'à avoir de la place devant
+            }
+            if (pivot != 0) {
+                l = -0.4 * pivot;
+                r = 0.4 * pivot;
+            } else if (left.value0() < SIDE_MM) {
+                l = 0.5; // mur à gauche: on s'écarte vers la droite
+                r = 0.2;
+            } else if (right.value0() < SIDE_MM) {
+                l = 0.2;
+                r = 0.5;
+            } else {
+                l = 0.6;
+                r = 0.6;
+            }
+            motors.setWheelSpeeds(l, r);
+
+            if (now >= nextPoseAt) {
+                nextPoseAt = now + 1000;
+                System.out.printf("[SIM] t=%ds pos=(%.0f, %.0f) cap=%.0f° sonar=%.0f libre=%.0f alertes=%d contacts=%d%n",
+                        t / 1000, sim.x(), sim.y(), sim.headingDeg(), d, fusion.pathClearanceMm(), alerts,
+                        sim.collisions());
+            }
+            if (!loop.awaitNextTick())
+                break;
+        }
+
+        // Santé relevée avant l'arrêt des services (sinon tout apparaît périmé)
+        HealthReport finalHealth = health.report();
+        health.stop();
+        motors.stop();
+        sonar.stop();
+        ranges.stop();
+        hum.stop();
+        light.stop();
+        connection.disconnect();
+        sim.stop();
+
+        System.out.print(SensorScheduler.format(SensorScheduler.snapshot()));
+        System.out.print(EventBusMetrics.format(EventBusMetrics.snapshot()));
+        System.out.print(LatencyTrace.format(LatencyTrace.snapshot()));
+        System.out.print(ControlLoop.format(loop.snapshot()));
+        System.out.print(SensorHealthMonitor.format(finalHealth));
+        boolean ok = sonar.getSlot().sequence() > 0;
+        for (int i = 0; i < ranges.sensors().size(); i++) {
+            ok &= ranges.getSlot(i).sequence() > 0;
+        }
+        System.out.println("[SIM] soak terminé: " + (ok ? "OK" : "ÉCHEC (capteur muet)") + " contacts="
+                + sim.collisions());
+        System.exit(ok ? 0 : 1);
+    }
+}
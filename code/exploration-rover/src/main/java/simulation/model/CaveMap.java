@@ -0,0 +1,137 @@
+package simulation.model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Géométrie 2D de la grotte simulée: un ensemble de murs (segments, en mm).
+ * Fichier texte: une ligne "x1 y1 x2 y2" par mur, '#' pour les commentaires.
+ * Le rover démarre à (startX, startY), cap startHeadingDeg (0 = axe X, sens trigo).
+ */
+public final class CaveMap {
+
+    private final double[] walls; // x1, y1, x2, y2 à la suite
+    private final double startX;
+    private final double startY;
+    private final double startHeadingDeg;
+
+    public CaveMap(List<double[]> segments, double startX, double startY, double startHeadingDeg) {
+        this.walls = new double[segments.size() * 4];
+        for (int i = 0; i < segments.size(); i++) {
+            System.arraycopy(segments.get(i), 0, walls, i * 4, 4);
+        }
+        this.startX = startX;
+        this.startY = startY;
+        this.startHeadingDeg = startHeadingDeg;
+    }
+
+    /**
+     * Charge un fichier de murs. Ligne optionnelle "start x y capDeg" pour la position initiale
+     * (défaut: 500 500 0).
+     */
+    public static CaveMap load(Path file) throws IOException {
+        List<double[]> segments = new ArrayList<>();
+        double sx = 500, sy = 500, sh = 0;
+        int lineNo = 0;
+        for (String raw : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            lineNo++;
+            String line = raw.strip();
+            int hash = line.indexOf('#');
+            if (hash >= 0)
+                line = line.substring(0, hash).strip();
+            if (line.isEmpty())
+                continue;
+            String[] f = line.split("\\s+");
+            try {
+                if ("start".equals(f[0]) && f.length == 4) {
+                    sx = Double.parseDouble(f[1]);
+                    sy = Double.parseDouble(f[2]);
+                    sh = Double.parseDouble(f[3]);
+                } else if (f.length == 4) {
+                    segments.add(new double[] { Double.parseDouble(f[0]), Double.parseDouble(f[1]),
+                            Double.parseDouble(f[2]), Double.parseDouble(f[3]) });
+                } else {
+                    throw new IOException(file + ":" + lineNo + ": attendu \"x1 y1 x2 y2\" ou \"start x y cap\"");
+                }
+            } catch (NumberFormatException e) {
+                throw new IOException(file + ":" + lineNo + ": nombre invalide", e);
+            }
+        }
+        return new CaveMap(segments, sx, sy, sh);
+    }
+
+    /** Galerie par défaut: couloir de 8 m avec un coude, un rétrécissement et un pilier. */
+    public static CaveMap defaultCave() {
+        List<double[]> s = new ArrayList<>();
+        // couloir principal (1,2 m de large) puis coude vers le haut
+        s.add(new double[] { 0, 0, 6000, 0 });
+        s.add(new double[] { 0, 1200, 4800, 1200 });
+        s.add(new double[] { 0, 0, 0, 1200 });
+        s.add(new double[] { 6000, 0, 6000, 4000 });
+        s.add(new double[] { 4800, 1200, 4800, 4000 });
+        s.add(new double[] { 4800, 4000, 6000, 4000 });
+        // rétrécissement (600 mm de passage)
+        s.add(new double[] { 2500, 0, 2700, 350 });
+        s.add(new double[] { 2700, 350, 2900, 0 });
+        s.add(new double[] { 2500, 1200, 2700, 950 });
+        s.add(new double[] { 2700, 950, 2900, 1200 });
+        // pilier au milieu du coude
+        s.add(new double[] { 5300, 2400, 5500, 2400 });
+        s.add(new double[] { 5500, 2400, 5500, 2600 });
+        s.add(new double[] { 5500, 2600, 5300, 2600 });
+        s.add(new double[] { 5300, 2600, 5300, 2400 });
+        return new CaveMap(s, 500, 600, 0);
+    }
+
+    public int wallCount() {
+        return walls.length / 4;
+    }
+
+    public double startX() {
+        return startX;
+    }
+
+    public double startY() {
+        return startY;
+    }
+
+    public double startHeadingDeg() {
+        return startHeadingDeg;
+    }
+
+    /** Distance (mm) jusqu'au premier mur dans la direction (dx, dy) unitaire, +inf si aucun. */
+    public double raycast(double x, double y, double dx, double dy) {
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < walls.length; i += 4) {
+            double ax = walls[i], ay = walls[i + 1];
+            double ex = walls[i + 2] - ax, ey = walls[i + 3] - ay;
+            double denom = dx * ey - dy * ex;
+            if (Math.abs(denom) < 1e-9)
+                continue; // parallèle
+            double wx = ax - x, wy = ay - y;
+            double t = (wx * ey - wy * ex) / denom; // le long du rayon
+            double u = (wx * dy - wy * dx) / denom; // le long du mur
+            if (t >= 0 && u >= 0 && u <= 1 && t < best)
+                best = t;
+        }
+        return best;
+    }
+
+    /** Distance (mm) du point au mur le plus proche (collisions). */
+    public double clearance(double x, double y) {
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < walls.length; i += 4) {
+            double ax = walls[i], ay = walls[i + 1];
+            double ex = walls[i + 2] - ax, ey = walls[i + 3] - ay;
+            double len2 = ex * ex + ey * ey;
+            double u = len2 == 0 ? 0 : Math.max(0, Math.min(1, ((x - ax) * ex + (y - ay) * ey) / len2));
+            double px = ax + u * ex - x, py = ay + u * ey - y;
+            best = Math.min(best, Math.sqrt(px * px + py * py));
+        }
+        return best;
+    }
+}
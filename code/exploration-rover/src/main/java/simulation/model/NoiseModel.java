@@ -0,0 +1,51 @@
+package simulation.model;
+
+import java.util.SplittableRandom;
+
+/**
+ * Modèle de bruit des capteurs simulés.
+ * - bruit gaussien: sigma = sigmaMm + sigmaRel * distance
+ * - dropout: mesure perdue (NaN), ex. écho absorbé
+ * - outlier: valeur aberrante uniforme dans la portée (réflexion parasite)
+ * Chaque canal tire son propre générateur via {@link #random(String)}: runs reproductibles à seed égale.
+ */
+public record NoiseModel(double sigmaMm, double sigmaRel, double dropoutProb, double outlierProb, long seed) {
+
+    public static final NoiseModel NONE = new NoiseModel(0, 0, 0, 0, 0);
+
+    /**
+     * Lit rover.sim.sigma (mm, défaut 5), rover.sim.sigmaRel (0.01), rover.sim.dropout (0.01),
+     * rover.sim.outliers (0.002), rover.sim.seed (42).
+     */
+    public static NoiseModel fromProperties() {
+        return new NoiseModel(
+                Double.parseDouble(System.getProperty("rover.sim.sigma", "5")),
+                Double.parseDouble(System.getProperty("rover.sim.sigmaRel", "0.01")),
+                Double.parseDouble(System.getProperty("rover.sim.dropout", "0.01")),
+                Double.parseDouble(System.getProperty("rover.sim.outliers", "0.002")),
+                Long.parseLong(System.getProperty("rover.sim.seed", "42")));
+    }
+
+    /** Générateur dédié à un canal (seed dérivée du nom du canal). */
+    public SplittableRandom random(String channel) {
+        return new SplittableRandom(seed * 31 + channel.hashCode());
+    }
+
+    /** Distance bruitée (mm entiers, comme le matériel); au-delà de la portée: saturée à maxRangeMm. */
+    public double distance(double trueMm, double minRangeMm, double maxRangeMm, SplittableRandom r) {
+        if (dropoutProb > 0 && r.nextDouble() < dropoutProb)
+            return Double.NaN;
+        if (outlierProb > 0 && r.nextDouble() < outlierProb)
+            return Math.rint(minRangeMm + r.nextDouble() * (maxRangeMm - minRangeMm));
+        if (trueMm >= maxRangeMm)
+            return maxRangeMm;
+        double sigma = sigmaMm + sigmaRel * trueMm;
+        double d = trueMm + r.nextGaussian() * sigma;
+        return Math.rint(Math.max(minRangeMm, Math.min(maxRangeMm, d)));
+    }
+
+    /** Valeur d'environnement (humidité, température, lux) avec un bruit gaussien d'écart-type sigma. */
+    public double around(double value, double sigma, SplittableRandom r) {
+        return value + r.nextGaussian() * sigma;
+    }
+}
@@ -0,0 +1,25 @@
+package simulation.model;
+
+/**
+ * Position d'un capteur de distance sur le rover simulé.
+ * angleDeg: orientation par rapport à l'avant (positif = vers la gauche)
+ * forwardMm / leftMm: décalage depuis le centre du rover
+ */
+public record SensorMount(
+        double angleDeg,
+        double forwardMm,
+        double leftMm,
+        double minRangeMm,
+        double maxRangeMm,
+        int minDataIntervalMs) {
+
+    /** DST1200 (sonar), à l'avant. */
+    public static SensorMount sonar(double angleDeg) {
+        return new SensorMount(angleDeg, 150, 0, 40, 10_000, 100);
+    }
+
+    /** DST1001 (ToF IR), portée courte. */
+    public static SensorMount tof(double angleDeg, double leftMm) {
+        return new SensorMount(angleDeg, 140, leftMm, 1, 650, 25);
+    }
+}
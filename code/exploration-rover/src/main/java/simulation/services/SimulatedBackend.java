@@ -0,0 +1,231 @@
+package simulation.services;
+
+import common.MotorSink;
+import common.ScheduledTask;
+import common.SensorBackend;
+import common.SensorException;
+import common.SensorScheduler;
+import common.SensorSource;
+import simulation.model.SensorMount;
+
+import java.util.SplittableRandom;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Backend capteurs/moteurs du {@link SimulatedRover}: mêmes contrats que le matériel Phidget
+ * (open bloquant, événements de changement à la cadence dataInterval, erreurs si détaché).
+ */
+final class SimulatedBackend implements SensorBackend {
+
+    private static final String SERVER_NAME = "sim";
+
+    // Ambiance de grotte
+    private static final double HUMIDITY_PCT = 85.0;
+    private static final double TEMPERATURE_C = 11.0;
+    private static final double LIGHT_LUX = 0.5;
+    private static final int ENV_MIN_INTERVAL_MS = 100;
+
+    private final SimulatedRover rover;
+
+    SimulatedBackend(SimulatedRover rover) {
+        this.rover = rover;
+    }
+
+    @Override
+    public String serverName() {
+        return SERVER_NAME;
+    }
+
+    @Override
+    public void acquire() {
+    }
+
+    @Override
+    public void release() {
+    }
+
+    @Override
+    public boolean isLinkDown() {
+        return rover.isLinkDown();
+    }
+
+    @Override
+    public SensorSource distance(int hubPort, int channel) {
+        return new Channel("dist." + hubPort + "." + channel, hubPort, channel, null);
+    }
+
+    @Override
+    public SensorSource humidity(int hubPort, int channel) {
+        return env("hum." + hubPort + "." + channel, HUMIDITY_PCT, 0.5);
+    }
+
+    @Override
+    public SensorSource temperature(int hubPort, int channel) {
+        return env("temp." + hubPort + "." + channel, TEMPERATURE_C, 0.1);
+    }
+
+    @Override
+    public SensorSource light(int hubPort, int channel) {
+        return env("lux." + hubPort + "." + channel, LIGHT_LUX, 0.05);
+    }
+
+    @Override
+    public MotorSink motor(int hubPort, int channel) {
+        return new MotorSink() {
+            private volatile boolean open;
+
+            @Override
+            public void open(int timeoutMs) {
+                open = true;
+            }
+
+            @Override
+            public void close() {
+                open = false;
+                rover.setWheel(channel, 0);
+            }
+
+            @Override
+            public void setTargetVelocity(double velocity) throws SensorException {
+                if (!open)
+                    throw new SensorException("channel closed", "CLOSED");
+                if (rover.isLinkDown())
+                    throw new SensorException("Not Attached", "NOT_ATTACHED");
+                rover.setWheel(channel, velocity);
+            }
+        };
+    }
+
+    private SensorSource env(String name, double value, double sigma) {
+        return new Channel(name, -1, -1, r -> rover.noise().around(value, sigma, r));
+    }
+
+    /**
+     * Canal simulé. env == null: capteur de distance (doit être déclaré via SimulatedRover.mount,
+     * sinon open() expire comme un port vide); sinon valeur d'environnement.
+     */
+    private final class Channel implements SensorSource {
+
+        private final String name;
+        private final int hubPort;
+        private final int channel;
+        private final Env env;
+        private final SplittableRandom random;
+
+        private volatile SensorMount mount;
+        private volatile boolean open;
+        private volatile DoubleConsumer listener;
+        private volatile double trigger = 0;
+        private volatile int dataIntervalMs = 250;
+        private ScheduledTask events;
+        private double lastEventValue = Double.NaN;
+
+        Channel(String name, int hubPort, int channel, Env env) {
+            this.name = name;
+            this.hubPort = hubPort;
+            this.channel = channel;
+            this.env = env;
+            this.random = rover.noise().random(name);
+        }
+
+        @Override
+        public void open(int timeoutMs) throws SensorException {
+            if (env == null) {
+                SensorMount m = rover.mountAt(hubPort, channel);
+                if (m == null) {
+                    sleep(timeoutMs); // rien sur ce port: même attente qu'un vrai hub
+                    throw new SensorException("Timed Out", "TIMEOUT");
+                }
+                mount = m;
+                dataIntervalMs = Math.max(dataIntervalMs, m.minDataIntervalMs());
+            }
+            open = true;
+            synchronized (this) {
+                if (listener != null && events == null)
+                    events = SensorScheduler.schedule("sim." + name, dataIntervalMs, this::emit);
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            open = false;
+            if (events != null) {
+                events.cancel();
+                events = null;
+            }
+        }
+
+        @Override
+        public boolean isAttached() {
+            return open && !rover.isLinkDown();
+        }
+
+        @Override
+        public double read() throws SensorException {
+            if (!open)
+                throw new SensorException("channel closed", "CLOSED");
+            if (rover.isLinkDown())
+                throw new SensorException("Not Attached", "NOT_ATTACHED");
+            return measure();
+        }
+
+        @Override
+        public void setChangeListener(DoubleConsumer listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public int getMinDataInterval() {
+            SensorMount m = mount;
+            return m != null ? m.minDataIntervalMs() : ENV_MIN_INTERVAL_MS;
+        }
+
+        @Override
+        public synchronized void setDataInterval(int ms) {
+            dataIntervalMs = Math.max(getMinDataInterval(), ms);
+            if (events != null)
+                events.setPeriodMs(dataIntervalMs);
+        }
+
+        @Override
+        public void setChangeTrigger(double trigger) {
+            this.trigger = trigger;
+        }
+
+        private double measure() {
+            synchronized (random) {
+                if (env != null)
+                    return env.sample(random);
+                SensorMount m = mount;
+                return rover.noise().distance(rover.trueRange(m), m.minRangeMm(), m.maxRangeMm(), random);
+            }
+        }
+
+        /** Événement "changement" à la cadence dataInterval, filtré par le seuil comme le matériel. */
+        private void emit() {
+            DoubleConsumer l = listener;
+            if (!open || l == null || rover.isLinkDown())
+                return;
+            double v = measure();
+            if (Double.isNaN(v))
+                return; // écho perdu: pas d'événement
+            if (!Double.isNaN(lastEventValue) && Math.abs(v - lastEventValue) < trigger)
+                return;
+            lastEventValue = v;
+            l.accept(v);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Env {
+        double sample(SplittableRandom r);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package simulation.services;
+
+import common.RoverConfig;
+import common.ScheduledTask;
+import common.SensorBackends;
+import common.SensorScheduler;
+import distances.model.RangeSensor;
+import simulation.model.CaveMap;
+import simulation.model.NoiseModel;
+import simulation.model.SensorMount;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rover simulé dans une grotte 2D: remplace le hub Phidget (tests de charge, soak, CI sans matériel).
+ * - cinématique différentielle intégrée toutes les STEP_MS à partir des vitesses moteurs
+ * - collisions: le rover s'arrête contre les murs (rotation sur place toujours possible)
+ * - capteurs de distance: lancer de rayon dans la {@link CaveMap} + {@link NoiseModel}
+ * Activation: -Drover.backend=sim (voir {@link #installFromProperties()}).
+ */
+public final class SimulatedRover {
+
+    private static final long STEP_MS = 20;
+    private static final double MAX_SPEED_MM_S = 500; // commande 1.0
+    private static final double WHEEL_BASE_MM = 300;
+    private static final double RADIUS_MM = 160;
+
+    private final CaveMap cave;
+    private final NoiseModel noise;
+    private final SimulatedBackend backend;
+    private final Map<Long, SensorMount> mounts = new ConcurrentHashMap<>();
+
+    private double x;
+    private double y;
+    private double heading; // rad
+    private double leftCmd;
+    private double rightCmd;
+    private long collisions = 0;
+    private boolean blocked = false;
+    private long lastStepNs = 0;
+    private volatile boolean linkDown = false;
+    private ScheduledTask task;
+
+    public SimulatedRover(CaveMap cave, NoiseModel noise) {
+        this.cave = cave;
+        this.noise = noise;
+        this.x = cave.startX();
+        this.y = cave.startY();
+        this.heading = Math.toRadians(cave.startHeadingDeg());
+        this.backend = new SimulatedBackend(this);
+    }
+
+    /**
+     * Si -Drover.backend=sim: crée le rover (grotte rover.sim.cave ou galerie par défaut,
+     * bruit rover.sim.*), l'installe comme backend de tout le process et le démarre.
+     * À appeler avant la création des services et de la Connection. Renvoie null sinon.
+     */
+    public static SimulatedRover installFromProperties() throws IOException {
+        if (!"sim".equalsIgnoreCase(System.getProperty("rover.backend", "phidget")))
+            return null;
+        String cavePath = System.getProperty("rover.sim.cave");
+        CaveMap cave = cavePath == null ? CaveMap.defaultCave() : CaveMap.load(Paths.get(cavePath));
+        SimulatedRover sim = new SimulatedRover(cave, NoiseModel.fromProperties());
+        sim.install();
+        sim.start();
+        return sim;
+    }
+
+    /** Tous les SensorBackends.of(...) renvoient désormais ce rover (quel que soit le serverName). */
+    public void install() {
+        SensorBackends.use((serverName, ip, port) -> backend, "sim (" + cave.wallCount() + " murs, " + noise + ")");
+    }
+
+    /** Implantation du rover réel: sonar devant, ToF gauche/droite à ±20° (voir RangeSensor.defaults). */
+    public void mountDefaults(RoverConfig config) {
+        mount(config.sonarHubPort(), 0, SensorMount.sonar(0));
+        mount(config.tofLeftHubPort(), 0, SensorMount.tof(20, 90));
+        mount(config.tofRightHubPort(), 0, SensorMount.tof(-20, -90));
+    }
+
+    /** Réseau de capteurs de distance déclaré (DST1001 à leur position; remplace les ToF par défaut). */
+    public void mountRanges(List<RangeSensor> sensors) {
+        for (RangeSensor rs : sensors) {
+            SensorMount tof = SensorMount.tof(rs.angleDeg(), rs.leftMm());
+            mount(rs.hubPort(), rs.channel(), new SensorMount(rs.angleDeg(), rs.forwardMm(), rs.leftMm(),
+                    tof.minRangeMm(), tof.maxRangeMm(), tof.minDataIntervalMs()));
+        }
+    }
+
+    /** Déclare un capteur de distance; un port sans capteur échoue à l'open() comme sur le vrai hub. */
+    public void mount(int hubPort, int channel, SensorMount mount) {
+        mounts.put(key(hubPort, channel), mount);
+    }
+
+    SensorMount mountAt(int hubPort, int channel) {
+        return mounts.get(key(hubPort, channel));
+    }
+
+    NoiseModel noise() {
+        return noise;
+    }
+
+    public synchronized void start() {
+        if (task != null)
+            return;
+        lastStepNs = System.nanoTime();
+        task = SensorScheduler.schedule("sim.world", STEP_MS, this::step);
+        System.out.printf("[SIM] rover simulé démarré en (%.0f, %.0f) mm%n", x, y);
+    }
+
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /** Coupure réseau simulée: canaux détachés, lien DOWN (teste la reprise des services). */
+    public void setLinkDown(boolean down) {
+        if (linkDown != down)
+            System.out.println("[SIM] lien " + (down ? "coupé" : "rétabli"));
+        linkDown = down;
+    }
+
+    public boolean isLinkDown() {
+        return linkDown;
+    }
+
+    /** Moteur gauche = canal 0, droit = canal 1 (comme la Connection). */
+    synchronized void setWheel(int channel, double velocity) {
+        if (channel == 0)
+            leftCmd = velocity;
+        else
+            rightCmd = velocity;
+    }
+
+    public synchronized double x() {
+        return x;
+    }
+
+    public synchronized double y() {
+        return y;
+    }
+
+    public synchronized double headingDeg() {
+        return Math.toDegrees(heading);
+    }
+
+    /** Nombre de contacts avec un mur depuis le démarrage. */
+    public synchronized long collisions() {
+        return collisions;
+    }
+
+    /** Distance vraie (mm, sans bruit) vue par un capteur, +inf si aucun mur. */
+    synchronized double trueRange(SensorMount m) {
+        double c = Math.cos(heading), s = Math.sin(heading);
+        double sx = x + m.forwardMm() * c - m.leftMm() * s;
+        double sy = y + m.forwardMm() * s + m.leftMm() * c;
+        double a = heading + Math.toRadians(m.angleDeg());
+        return cave.raycast(sx, sy, Math.cos(a), Math.sin(a));
+    }
+
+    private synchronized void step() {
+        long nowNs = System.nanoTime();
+        double dt = (nowNs - lastStepNs) / 1e9;
+        lastStepNs = nowNs;
+        if (linkDown) {
+            return; // plus de commandes reçues: le hub coupe les moteurs (failsafe)
+        }
+
+        double vl = leftCmd * MAX_SPEED_MM_S;
+        double vr = rightCmd * MAX_SPEED_MM_S;
+        double v = (vl + vr) / 2;
+        heading += (vr - vl) / WHEEL_BASE_MM * dt;
+
+        double nx = x + v * Math.cos(heading) * dt;
+        double ny = y + v * Math.sin(heading) * dt;
+        if (cave.clearance(nx, ny) >= RADIUS_MM) {
+            x = nx;
+            y = ny;
+            blocked = false;
+        } else if (v != 0 && !blocked) {
+            blocked = true;
+            collisions++;
+        }
+    }
+
+    private static long key(int hubPort, int channel) {
+        return ((long) hubPort << 32) | (channel & 0xffffffffL);
+    }
+}
@@ -1,14 +1,15 @@
 package sonar.controller;
 
 import common.EventBus;
+import common.Topic;
+import common.TopicPriority;
 import sonar.model.SonarRisk;
 import sonar.model.SonarState;
 
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 /**
- * Reçoit "sonar.update", garde le dernier état,
+ * Reçoit "sonar.update", expose le dernier état (slot conflaté du topic)
  * et génère des events de risque (ex: obstacle proche).
  */
 public class SonarController {
@@ -16,8 +17,11 @@ public class SonarController {
     private static final double DEFAULT_THRESHOLD_MM = 350.0; // à ajuster
     private static final int RISK_REPEAT_MS = 800; // anti-spam
 
-    private final AtomicReference<SonarState> latest = new AtomicReference<>();
-    private final Consumer<Object> subscriber = this::handleEvent;
+    private final Topic<SonarState> sonarTopic = EventBus.topic("sonar.update", SonarState.class);
+    // Alerte obstacle: voie critique, jamais retardée par un listener lent
+    private final Topic<SonarRisk> riskTopic = EventBus.topic("sonar.risk", SonarRisk.class)
+            .setPriority(TopicPriority.CRITICAL);
+    private final Consumer<SonarState> subscriber = this::handleEvent;
 
     private volatile double thresholdMm = DEFAULT_THRESHOLD_MM;
 
@@ -26,14 +30,13 @@ public class SonarController {
     private long nextRiskAt = 0;
 
     public SonarController() {
-        EventBus.subscribe("sonar.update", subscriber);
+        sonarTopic.subscribe(subscriber);
     }
 
-    private void handleEvent(Object payload) {
-        if (!(payload instanceof SonarState s))
+    private void handleEvent(SonarState s) {
+        if (s == null)
             return;
 
-        latest.set(s);
         evaluateRisk(s);
     }
 
@@ -54,14 +57,14 @@ public class SonarController {
         if (nowNear && !obstacleNear) {
             obstacleNear = true;
             nextRiskAt = now + RISK_REPEAT_MS;
-            EventBus.publish("sonar.risk", new SonarRisk("OBSTACLE_NEAR", s.distanceMm(), thresholdMm, now));
+            riskTopic.publish(new SonarRisk("OBSTACLE_NEAR", s.distanceMm(), thresholdMm, now));
             return;
         }
 
         // Toujours NEAR => répétition throttlée
         if (nowNear && obstacleNear && now >= nextRiskAt) {
             nextRiskAt = now + RISK_REPEAT_MS;
-            EventBus.publish("sonar.risk", new SonarRisk("OBSTACLE_NEAR", s.distanceMm(), thresholdMm, now));
+            riskTopic.publish(new SonarRisk("OBSTACLE_NEAR", s.distanceMm(), thresholdMm, now));
             return;
         }
 
@@ -72,7 +75,7 @@ public class SonarController {
     }
 
     public SonarState getLatestState() {
-        return latest.get();
+        return sonarTopic.latest().get();
     }
 
     public double getThresholdMm() {
@@ -84,6 +87,6 @@ public class SonarController {
     }
 
     public void dispose() {
-        EventBus.unsubscribe("sonar.update", subscriber);
+        sonarTopic.unsubscribe(subscriber);
     }
 }
@@ -1,14 +1,20 @@
 package sonar.model;
 
+import common.DistanceSource;
+
 /**
  * Snapshot sonar publié sur l'EventBus.
- * distanceMm: dernière distance lue (mm) ou NaN si inconnue
+ * distanceMm: distance filtrée (mm, voir DistanceFilter) ou NaN si inconnue
+ * rawDistanceMm: dernière mesure brute du capteur (mm) ou NaN
+ * timestampMs: heure murale (rapports); captureNanos: System.nanoTime() à la réception (latences)
  * quality: placeholder (si un jour vous avez une info qualité), -1 = inconnu
  */
 public record SonarState(
         double distanceMm,
+        double rawDistanceMm,
         double quality,
         boolean attached,
         long timestampMs,
-        String lastError) {
+        long captureNanos,
+        String lastError) implements DistanceSource {
 }
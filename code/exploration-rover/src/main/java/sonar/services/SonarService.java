@@ -1,28 +1,41 @@
 package sonar.services;
 
-import com.phidget22.DistanceSensor;
-import com.phidget22.Net;
-import com.phidget22.PhidgetException;
+import common.DistanceFilter;
 import common.EventBus;
+import common.LatencyTrace;
+import common.PhidgetSensorService;
+import common.SampleSlot;
+import common.SensorException;
+import common.SensorSample;
+import common.SensorSource;
+import common.Topic;
 import sonar.model.SonarState;
 
-public class SonarService {
+/**
+ * Service sonar (DST1200). Mode événementiel par défaut: chaque DistanceChange est publié
+ * dès réception (cadence native du capteur); la boucle LOOP_MS ne sert plus que de
+ * filet de sécurité (capteur muet, détaché, erreur).
+ */
+public class SonarService extends PhidgetSensorService {
 
     private static final int DEFAULT_PORT = 5661;
     private static final int DEFAULT_HUB_PORT = 5; // <-- vérifie dans Control Panel
     private static final int DEFAULT_CHANNEL = 0;
     private static final int LOOP_MS = 250;
+    private static final long EVENT_FALLBACK_MS = 500; // sans événement depuis -> on repasse au polling
 
-    private final String serverName; // alias local PhidgetNet (peut être "ROVERG1")
-    private final String ip;
-    private final int port;
     private final int hubPort;
     private final int channel;
 
-    private volatile boolean running = false;
+    private final Topic<SonarState> topic = EventBus.topic("sonar.update", SonarState.class);
+    // Dernière mesure en primitives (value0 = distance filtrée, value1 = brute), lue sans allocation
+    private final SampleSlot slot = new SampleSlot();
+    private volatile DistanceFilter filter = new DistanceFilter(DistanceFilter.Config.SONAR);
 
-    private DistanceSensor sonar;
-    private double lastValidDistance = Double.NaN;
+    private volatile boolean eventDriven = true;
+    private volatile long lastEventAtMs = 0;
+
+    private volatile SensorSource sonar;
 
     public SonarService(String serverName, String ip) {
         this(serverName, ip, DEFAULT_PORT, DEFAULT_HUB_PORT, DEFAULT_CHANNEL);
@@ -33,119 +46,74 @@ public class SonarService {
     }
 
     public SonarService(String serverName, String ip, int port, int hubPort, int channel) {
-        this.serverName = serverName;
-        this.ip = ip;
-        this.port = port;
+        super("SONAR", "sonar", "sonar.update", LOOP_MS, serverName, ip, port);
         this.hubPort = hubPort;
         this.channel = channel;
+        topic.setLatestSource(this::readState);
+    }
+
+    /** Publication sur événement DistanceChange (défaut) ou polling seul. À appeler avant start(). */
+    public void setEventDriven(boolean eventDriven) {
+        this.eventDriven = eventDriven;
     }
 
-    public synchronized void start() {
-        if (running)
-            return;
-        running = true;
-
-        Thread t = new Thread(() -> {
-            System.out.println(
-                    "[SONAR] Service démarré (publie sonar.update). server=" + serverName + " ip=" + ip + ":" + port);
-
-            while (running) {
-                long ts = System.currentTimeMillis();
-                boolean attached = false;
-                String err = null;
-
-                try {
-                    ensureOpen();
-
-                    // si ensureOpen a échoué, sonar == null
-                    if (sonar == null) {
-                        err = "sonar not open";
-                        lastValidDistance = Double.NaN;
-                    } else {
-                        try {
-                            attached = sonar.getAttached();
-                        } catch (Throwable ignored) {
-                        }
-
-                        try {
-                            double d = sonar.getDistance(); // mm
-                            if (!Double.isNaN(d) && d > 0) {
-                                lastValidDistance = d;
-                            } else {
-                                lastValidDistance = Double.NaN;
-                            }
-                        } catch (PhidgetException e) {
-                            err = "sonar getDistance: " + e.getDescription() + " (code=" + e.getErrorCode() + ")";
-                            lastValidDistance = Double.NaN;
-                        }
-                    }
-                } catch (PhidgetException e) {
-                    err = "sonar error: " + e.getDescription() + " (code=" + e.getErrorCode() + ")";
-                    safeClose();
-                    lastValidDistance = Double.NaN;
-                } catch (Throwable t0) {
-                    err = "sonar error: " + t0.getClass().getSimpleName() + " - " + t0.getMessage();
-                    safeClose();
-                    lastValidDistance = Double.NaN;
-                }
-
-                EventBus.publish("sonar.update", new SonarState(
-                        lastValidDistance,
-                        -1.0,
-                        attached,
-                        ts,
-                        err));
-
-                sleep(LOOP_MS);
-            }
-
-            safeClose();
-            System.out.println("[SONAR] Service arrêté.");
-        });
-
-        t.setDaemon(true);
-        t.start();
+    /** Réglage du filtre (DistanceFilter.Config.NONE = valeurs brutes). À appeler avant start(). */
+    public void setFilter(DistanceFilter.Config config) {
+        this.filter = new DistanceFilter(config);
     }
 
-    public synchronized void stop() {
-        running = false;
+    public SampleSlot getSlot() {
+        return slot;
     }
 
-    private void ensureOpen() throws PhidgetException {
-        if (sonar != null)
-            return;
+    @Override
+    protected boolean isOpen() {
+        return sonar != null;
+    }
+
+    @Override
+    protected void sample(long ts) throws SensorException {
+        SensorSource s = sonar;
+        boolean attached = s.isAttached();
+        String err = null;
+        double distance;
 
-        // Ajoute le serveur UNE FOIS (si déjà ajouté -> exception => on ignore)
         try {
-            Net.addServer(serverName, ip, port, "", 0);
-        } catch (PhidgetException e) {
-            // Souvent "Duplicate" ou équivalent: pas grave si déjà présent.
-            // On log seulement si tu veux:
-            // System.out.println("[SONAR] Net.addServer: " + e.getDescription() + " (code="
-            // + e.getErrorCode() + ")");
+            double d = s.read(); // mm
+            distance = (!Double.isNaN(d) && d > 0) ? d : Double.NaN;
+        } catch (SensorException e) {
+            err = "sonar getDistance: " + e.getDescription() + " (code=" + e.getErrorCode() + ")";
+            distance = Double.NaN;
         }
 
-        DistanceSensor s = new DistanceSensor();
-        s.setServerName(serverName);
-        s.setHubPort(hubPort);
-        s.setChannel(channel);
+        long fallbackMs = Math.max(EVENT_FALLBACK_MS, 2 * periodMs());
+        boolean eventsAlive = eventDriven && err == null && ts - lastEventAtMs <= fallbackMs;
+        if (!eventsAlive) {
+            publishSample(distance, attached, ts, System.nanoTime(), err);
+        }
+    }
 
-        // Pour VINT capteurs
-        try {
-            s.setIsHubPortDevice(true);
-        } catch (PhidgetException ignored) {
+    @Override
+    protected void publishError(long ts, String err) {
+        publishSample(Double.NaN, false, ts, System.nanoTime(), err);
+    }
+
+    @Override
+    protected void open() throws SensorException {
+        SensorSource s = backend().distance(hubPort, channel);
+
+        if (eventDriven) {
+            s.setChangeListener(this::onDistanceChange);
         }
 
+        s.open(5000);
+
+        // Cadence native calée sur la période courante (min matériel en mouvement):
+        // c'est elle qui borne la latence de l'alerte obstacle
         try {
-            s.open(5000);
-        } catch (PhidgetException e) {
-            System.out.println("[SONAR] open FAILED: " + e.getDescription() + " (code=" + e.getErrorCode()
-                    + ") server=" + serverName + " ip=" + ip + ":" + port + " hubPort=" + hubPort + " ch=" + channel);
-            try {
-                s.close();
-            } catch (Exception ignored) {
-            }
-            throw e;
+            s.setDataInterval(dataIntervalMs(s.getMinDataInterval()));
+        } catch (SensorException e) {
+            System.out.println("[SONAR] dataInterval warn: " + e.getDescription());
         }
 
         sonar = s;
@@ -153,23 +121,61 @@ public class SonarService {
                 + " ch=" + channel);
     }
 
-    private void safeClose() {
-        try {
-            if (sonar != null)
-                sonar.close();
-        } catch (Exception ignored) {
-        }
+    @Override
+    protected void close() {
+        SensorSource s = sonar;
         sonar = null;
+        // Le serveur (partagé avec le rover) reste inscrit: c'est le backend qui le gère
+        closeChannel(s);
+    }
 
-        // IMPORTANT: NE PAS Net.removeServer(serverName) ici, sinon tu casses le rover
-        // qui utilise le même serverName.
+    @Override
+    protected void onPeriodChanged(long periodMs) throws SensorException {
+        SensorSource s = sonar;
+        if (s != null)
+            s.setDataInterval(dataIntervalMs(s.getMinDataInterval()));
     }
 
-    private void sleep(int ms) {
-        try {
-            Thread.sleep(ms);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+    private void onDistanceChange(double d) {
+        long cap = System.nanoTime();
+        long ts = System.currentTimeMillis();
+        lastEventAtMs = ts;
+        publishSample(d > 0 ? d : Double.NaN, true, ts, cap, null);
+    }
+
+    /** Écriture unique slot + topic (thread de polling et thread d'événements du backend). */
+    private synchronized void publishSample(double rawMm, boolean attached, long ts, long captureNanos, String err) {
+        double filtered;
+        if (attached && err == null) {
+            filtered = filter.update(rawMm, captureNanos / 1_000_000); // horloge monotone (Kalman)
+        } else {
+            filter.reset(); // pas de valeur filtrée "fantôme" après une coupure
+            filtered = Double.NaN;
+        }
+        slot.write(filtered, rawMm, attached, ts, captureNanos, err);
+        // SonarState construit seulement si quelqu'un écoute (journal, SonarController...),
+        // sinon latest() le reconstruit depuis le slot à la lecture
+        if (topic.hasListeners()) {
+            topic.publish(new SonarState(
+                    filtered,
+                    rawMm,
+                    -1.0,
+                    attached,
+                    ts,
+                    captureNanos,
+                    err));
+        } else {
+            topic.markPublished();
         }
+        LatencyTrace.record(LatencyTrace.Stage.PUBLISH, captureNanos);
+    }
+
+    /** Dernière mesure du slot en SonarState (latest() quand rien n'est publié faute d'abonnés). */
+    private SonarState readState() {
+        SensorSample sample = new SensorSample();
+        if (!slot.read(sample))
+            return null;
+        return new SonarState(sample.value0(), sample.value1(), -1.0, sample.attached(), sample.timestampMs(),
+                sample.captureNanos(), sample.lastError());
     }
 }
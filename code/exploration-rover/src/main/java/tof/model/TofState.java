@@ -1,11 +1,17 @@
 package tof.model;
 
+import common.DistanceSource;
+
 /**
  * Snapshot pour un capteur IR ToF (DST1001).
+ * distanceMm: distance filtrée (mm), rawDistanceMm: mesure brute.
+ * captureNanos: System.nanoTime() à la réception (âge de la mesure, latences).
  */
 public record TofState(
         double distanceMm,
+        double rawDistanceMm,
         boolean attached,
         long timestampMs,
-        String lastError) {
+        long captureNanos,
+        String lastError) implements DistanceSource {
 }
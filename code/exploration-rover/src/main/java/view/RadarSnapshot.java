@@ -1,14 +1,11 @@
 package view;
 
-import sonar.model.SonarState;
-import tof.model.TofState;
+import fusion.model.ObstacleState;
 
 /**
  * Donn\xE9es utilis\xE9es par la vue radar.
  */
 public record RadarSnapshot(
-        SonarState sonar,
-        TofState tofLeft,
-        TofState tofRight,
+        ObstacleState obstacle,
         long createdAtMs) {
 }
@@ -1,16 +1,17 @@
 package view;
 
+import fusion.model.FusedRange;
+import fusion.model.ObstacleState;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
-import sonar.model.SonarState;
-import tof.model.TofState;
 
 import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Radar 2D (cone avant -20/0/+20) pour sonar + deux DST1001.
+ * Radar 2D de l'estimation fusionnée: un rayon et un point par capteur à son angle de montage
+ * (sonar au centre). Sans estimation: cone avant -20/0/+20.
  */
 public class RadarView {
 
@@ -18,7 +19,6 @@ public class RadarView {
     private static final double MAX_VALID_MM = 1200.0; // au-delà on ignore (capteur "voit plus")
     private static final double DANGER_MM = 200.0;
     private static final double ALERT_MM = 400.0;
-    private static final long STALE_MS = 1000;
     private static final double MARGIN_PX = 24.0;
     private static final double ANGLE_LEFT = -20.0;
     private static final double ANGLE_RIGHT = 20.0;
@@ -40,7 +40,6 @@ public class RadarView {
             return;
         }
 
-        long now = System.currentTimeMillis();
         GraphicsContext gc = canvas.getGraphicsContext2D();
         gc.setFill(Color.web("#000a0f"));
         gc.fillRect(0, 0, w, h);
@@ -52,16 +51,17 @@ public class RadarView {
         double cx = w * 0.5;
         double cy = h - MARGIN_PX;
 
-        drawRange(gc, cx, cy, scale, w, h);
+        drawRange(gc, cx, cy, scale, w, h, snap.obstacle());
         drawRover(gc, cx, cy);
 
-        List<RadarHit> hits = buildHits(snap, now);
+        List<RadarHit> hits = buildHits(snap);
         for (RadarHit hit : hits) {
             drawHit(gc, cx, cy, scale, hit);
         }
     }
 
-    private void drawRange(GraphicsContext gc, double cx, double cy, double scale, double w, double h) {
+    private void drawRange(GraphicsContext gc, double cx, double cy, double scale, double w, double h,
+            ObstacleState obstacle) {
         double maxR = RANGE_MM * scale;
 
         // Fond très simple
@@ -73,11 +73,18 @@ public class RadarView {
             gc.strokeOval(cx - rr, cy - rr, rr * 2, rr * 2);
         }
 
-        // Cone simple (3 traits)
+        // Un trait par capteur (sonar au centre)
         Color beam = Color.web("#2ee58f"); // vert principal de l'UI
-        drawRay(gc, cx, cy, maxR, ANGLE_LEFT, beam);
         drawRay(gc, cx, cy, maxR, 0.0, beam.brighter());
-        drawRay(gc, cx, cy, maxR, ANGLE_RIGHT, beam);
+        if (obstacle != null) {
+            for (FusedRange r : obstacle.ranges()) {
+                if (r.angleDeg() != 0.0)
+                    drawRay(gc, cx, cy, maxR, radarAngle(r), beam);
+            }
+        } else {
+            drawRay(gc, cx, cy, maxR, ANGLE_LEFT, beam);
+            drawRay(gc, cx, cy, maxR, ANGLE_RIGHT, beam);
+        }
 
         // Labels distance (côté droit)
         gc.setFill(Color.web("#a8f0d3"));
@@ -145,90 +152,39 @@ public class RadarView {
         gc.fillText(String.format("%.0f", hit.distanceMm), sx + 10, sy - 8);
     }
 
-    private List<RadarHit> buildHits(RadarSnapshot snap, long now) {
+    /** Points issus de la fusion (validité, fraîcheur et confirmation déjà décidées). */
+    private List<RadarHit> buildHits(RadarSnapshot snap) {
         List<RadarHit> list = new ArrayList<>();
-
-        SonarState sonar = snap.sonar();
-        TofState left = snap.tofLeft();
-        TofState right = snap.tofRight();
-
-        RadarHit sonarHit = null;
-        if (isValid(sonar, now)) {
-            double d = Math.min(RANGE_MM, sonar.distanceMm());
-            sonarHit = new RadarHit(0.0, d, d, Source.SONAR, false);
-            list.add(sonarHit);
+        ObstacleState obstacle = snap.obstacle();
+        if (obstacle == null) {
+            return list;
         }
-
-        RadarHit leftHit = addTof(list, left, now, ANGLE_LEFT, Source.LEFT);
-        RadarHit rightHit = addTof(list, right, now, ANGLE_RIGHT, Source.RIGHT);
-
-        if (sonarHit != null) {
-            double tol = 150.0;
-            if (leftHit != null && Math.abs(leftHit.distanceMm - sonarHit.distanceMm) <= tol) {
-                sonarHit.confirmed = true;
-                leftHit.confirmed = true;
-            }
-            if (rightHit != null && Math.abs(rightHit.distanceMm - sonarHit.distanceMm) <= tol) {
-                sonarHit.confirmed = true;
-                rightHit.confirmed = true;
-            }
+        for (FusedRange r : obstacle.ranges()) {
+            if (r.distanceMm() > MAX_VALID_MM)
+                continue;
+            double d = Math.min(RANGE_MM, r.distanceMm());
+            double angleRad = Math.toRadians(radarAngle(r));
+            list.add(new RadarHit(Math.sin(angleRad) * d, Math.cos(angleRad) * d, d, r.confirmed()));
         }
-
         return list;
     }
 
-    private RadarHit addTof(List<RadarHit> list, TofState s, long now, double angleDeg, Source src) {
-        if (!isValid(s, now)) {
-            return null;
-        }
-        double d = Math.min(RANGE_MM, s.distanceMm());
-        double angleRad = Math.toRadians(angleDeg);
-        double x = Math.sin(angleRad) * d;
-        double y = Math.cos(angleRad) * d;
-        RadarHit hit = new RadarHit(x, y, d, src, false);
-        list.add(hit);
-        return hit;
-    }
-
-    private boolean isValid(TofState s, long now) {
-        if (s == null)
-            return false;
-        double d = s.distanceMm();
-        if (Double.isNaN(d) || d <= 0)
-            return false;
-        if (d > MAX_VALID_MM)
-            return false;
-        return now - s.timestampMs() <= STALE_MS;
-    }
-
-    private boolean isValid(SonarState s, long now) {
-        if (s == null)
-            return false;
-        double d = s.distanceMm();
-        if (Double.isNaN(d) || d <= 0)
-            return false;
-        if (d > MAX_VALID_MM)
-            return false;
-        return now - s.timestampMs() <= STALE_MS;
+    /** Montage: angle positif = gauche; radar: angle positif = droite de l'écran. */
+    private static double radarAngle(FusedRange r) {
+        return -r.angleDeg();
     }
 
     private static final class RadarHit {
         final double xMm;
         final double yMm;
         final double distanceMm;
-        final Source source;
-        boolean confirmed;
+        final boolean confirmed;
 
-        RadarHit(double xMm, double yMm, double distanceMm, Source source, boolean confirmed) {
+        RadarHit(double xMm, double yMm, double distanceMm, boolean confirmed) {
             this.xMm = xMm;
             this.yMm = yMm;
             this.distanceMm = distanceMm;
-            this.source = source;
             this.confirmed = confirmed;
         }
     }
-
-    private enum Source {
-        SONAR, LEFT, RIGHT
-    }
 }
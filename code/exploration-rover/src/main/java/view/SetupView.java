@@ -1,6 +1,7 @@
 package view;
 
 import common.RoverConfig;
+import common.SensorException;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -12,7 +13,6 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 import rover.services.Connection;
-import com.phidget22.PhidgetException;
 
 import java.io.IOException;
 import java.net.URL;
@@ -297,7 +297,7 @@ public class SetupView implements Initializable {
         }
 
         String message = null;
-        if (e instanceof PhidgetException pe) {
+        if (e instanceof SensorException pe) {
             message = pe.getDescription();
             if (message == null || message.isBlank()) {
                 message = pe.getMessage();
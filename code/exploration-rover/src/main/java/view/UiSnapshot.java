@@ -2,6 +2,8 @@ package view;
 
 import capteurs.model.HumidityState;
 import capteurs.model.LightState;
+import fusion.model.ObstacleState;
+import health.model.HealthReport;
 import rover.model.RoverModel;
 import sonar.model.SonarState;
 import tof.model.TofState;
@@ -19,5 +21,8 @@ public record UiSnapshot(
                 TofState tofLeftState,
                 TofState tofRightState,
                 HumidityState humidityState,
-                LightState lightState) {
+                LightState lightState,
+                ObstacleState obstacle, // fusion sonar + ToF (null: non disponible)
+                HealthReport health, // péremption des capteurs (null: inconnue)
+                long createdAtMs) {
 }
@@ -6,6 +6,8 @@ import capteurs.model.TemperatureStatus;
 import filariane.controller.FilArianeController;
 import filariane.model.FilArianeModel;
 import filariane.view.FilArianeView;
+import fusion.model.ObstacleState;
+import fusion.model.Sector;
 import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.fxml.FXML;
@@ -19,7 +21,6 @@ import javafx.scene.control.Label;
 import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 import sonar.model.SonarState;
-import tof.model.TofState;
 
 import java.io.IOException;
 import java.net.URL;
@@ -35,7 +36,6 @@ public class View implements Initializable, IView {
     private static final String MSG_WARN_STYLE = "-fx-text-fill: red;";
     private static final String MSG_INFO_STYLE = "-fx-text-fill: #f5c46b;";
     private static final String NA = "?";
-    private static final long DIST_STALE_MS = 1000;
 
     @FXML
     private Label lblTemperature;
@@ -208,11 +208,7 @@ public class View implements Initializable, IView {
         updateRadarSuggestion(snap);
 
         if (radarView != null) {
-            RadarSnapshot radarSnap = new RadarSnapshot(
-                    snap.sonarState(),
-                    snap.tofLeftState(),
-                    snap.tofRightState(),
-                    System.currentTimeMillis());
+            RadarSnapshot radarSnap = new RadarSnapshot(snap.obstacle(), snap.createdAtMs());
             radarView.render(radarSnap);
         }
 
@@ -303,8 +299,11 @@ public class View implements Initializable, IView {
         if (lblRadarHint == null) {
             return;
         }
-        double left = freshValue(snap.tofLeftState());
-        double right = freshValue(snap.tofRightState());
+        ObstacleState obstacle = snap.obstacle();
+        double left = obstacle == null ? Double.POSITIVE_INFINITY
+                : obstacle.rangeOr(Sector.LEFT, Double.POSITIVE_INFINITY);
+        double right = obstacle == null ? Double.POSITIVE_INFINITY
+                : obstacle.rangeOr(Sector.RIGHT, Double.POSITIVE_INFINITY);
 
         String hint;
         if (Double.isInfinite(left) && Double.isInfinite(right)) {
@@ -319,17 +318,6 @@ public class View implements Initializable, IView {
         lblRadarHint.setText(hint);
     }
 
-    private double freshValue(TofState s) {
-        if (s == null || !s.attached()) {
-            return Double.POSITIVE_INFINITY;
-        }
-        if (System.currentTimeMillis() - s.timestampMs() > DIST_STALE_MS) {
-            return Double.POSITIVE_INFINITY;
-        }
-        return Double.isNaN(s.distanceMm()) || s.distanceMm() <= 0
-                ? Double.POSITIVE_INFINITY
-                : s.distanceMm();
-    }
 
     private void setMessage(String text, String style) {
         if (lblMessage == null) {
@@ -344,7 +332,7 @@ public class View implements Initializable, IView {
             return;
         }
 
-        filArianeController.updateFromCommands(snap.leftCmd(), snap.rightCmd());
+        filArianeController.updateFromCommands(snap.leftCmd(), snap.rightCmd(), snap.createdAtMs());
 
         if (lblFilArianeStats != null) {
             FilArianeModel.Pose pose = filArianeController.getModel().getCurrentPose();
@@ -0,0 +1,78 @@
+package common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * DistanceFilter avec la config ToF (25 Hz): rejet des aberrations, relock sur un vrai saut,
+ * remise à zéro sur mesures absentes, lissage Kalman effectif.
+ */
+class DistanceFilterTest {
+
+    private static final long PERIOD_MS = 40;
+
+    private long ts = 0;
+
+    private double feed(DistanceFilter f, double raw) {
+        ts += PERIOD_MS;
+        return f.update(raw, ts);
+    }
+
+    @Test
+    void isolatedSpikeIsRejected() {
+        DistanceFilter f = new DistanceFilter(DistanceFilter.Config.TOF);
+        for (int i = 0; i < 20; i++)
+            feed(f, 1000);
+
+        double out = feed(f, 3000);
+
+        assertEquals(1000, out, 1.0);
+        assertEquals(1, f.rejected());
+        assertEquals(1000, feed(f, 1000), 1.0);
+    }
+
+    @Test
+    void persistentJumpRelocks() {
+        DistanceFilter f = new DistanceFilter(DistanceFilter.Config.TOF);
+        for (int i = 0; i < 20; i++)
+            feed(f, 1000);
+
+        double first = feed(f, 500); // première mesure du saut: traitée comme aberration
+        double second = feed(f, 500); // écart persistant: le filtre repart de la mesure
+
+        assertEquals(1000, first, 1.0);
+        assertEquals(500, second, 1.0);
+        assertEquals(500, feed(f, 500), 1.0);
+    }
+
+    @Test
+    void missingSamplesResetTheFilter() {
+        DistanceFilter f = new DistanceFilter(DistanceFilter.Config.TOF);
+        for (int i = 0; i < 20; i++)
+            feed(f, 1000);
+
+        assertEquals(1000, feed(f, Double.NaN), 1.0); // absence isolée: dernière valeur gardée
+        for (int i = 1; i < DistanceFilter.Config.TOF.medianWindow(); i++)
+            feed(f, Double.NaN);
+
+        assertTrue(Double.isNaN(f.last()));
+        assertEquals(400, feed(f, 400), 0.0); // pas de valeur "fantôme" de l'ancienne distance
+    }
+
+    @Test
+    void kalmanSmoothsMeasurementNoise() {
+        DistanceFilter f = new DistanceFilter(DistanceFilter.Config.TOF);
+        for (int i = 0; i < 20; i++)
+            feed(f, 1000);
+
+        // Bruit ±10 mm par paires (passe la médiane 3): le Kalman doit l'atténuer nettement
+        double maxDev = 0;
+        for (int i = 0; i < 60; i++) {
+            double raw = (i / 2) % 2 == 0 ? 1010 : 990;
+            maxDev = Math.max(maxDev, Math.abs(feed(f, raw) - 1000));
+        }
+        assertTrue(maxDev < 8, "écart max " + maxDev + " mm: Kalman quasi transparent");
+    }
+}
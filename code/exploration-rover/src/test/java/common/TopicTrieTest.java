@@ -0,0 +1,121 @@
+package common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Motifs de topics ("*" = un segment, "#" = zéro ou plusieurs) et leur résolution dans l'EventBus:
+ * abonnements par motif et directs indépendants, pas de topic créé pour un nom que personne n'attend.
+ */
+class TopicTrieTest {
+
+    private final Consumer<Object> a = p -> { };
+    private final Consumer<Object> b = p -> { };
+
+    @Test
+    void detectsPatterns() {
+        assertTrue(TopicTrie.isPattern("tof.*.update"));
+        assertTrue(TopicTrie.isPattern("#"));
+        assertFalse(TopicTrie.isPattern("tof.left.update"));
+        assertFalse(TopicTrie.isPattern("tof.left*.update")); // "*" seulement comme segment entier
+    }
+
+    @Test
+    void matchesSegments() {
+        assertTrue(TopicTrie.matches("tof.*.update", "tof.left.update"));
+        assertFalse(TopicTrie.matches("tof.*.update", "tof.update"));
+        assertFalse(TopicTrie.matches("tof.*.update", "tof.left.rear.update"));
+        assertTrue(TopicTrie.matches("capteurs.#", "capteurs"));
+        assertTrue(TopicTrie.matches("capteurs.#", "capteurs.humidity.update"));
+        assertTrue(TopicTrie.matches("#", "sonar.update"));
+        assertFalse(TopicTrie.matches("sonar.update", "sonar.update.raw"));
+    }
+
+    @Test
+    void trieMatchesWithoutDuplicates() {
+        TopicTrie trie = new TopicTrie();
+        trie.insert("tof.*.update", a);
+        trie.insert("tof.#", a);
+        trie.insert("sonar.#", b);
+
+        assertEquals(Set.of(a), trie.match("tof.left.update"));
+        assertEquals(1, trie.match("tof.left.update").size());
+        assertEquals(Set.of(b), trie.match("sonar.update"));
+        assertTrue(trie.match("light.update").isEmpty());
+    }
+
+    @Test
+    void removeKeepsOtherPatterns() {
+        TopicTrie trie = new TopicTrie();
+        trie.insert("tof.*.update", a);
+        trie.insert("tof.#", a);
+
+        trie.remove("tof.*.update", a);
+        assertEquals(Set.of(a), trie.match("tof.left.update"));
+
+        trie.remove("tof.#", a);
+        assertTrue(trie.match("tof.left.update").isEmpty());
+        trie.remove("absent.*", a); // sans effet
+    }
+
+    @Test
+    void rejectsInvalidPatterns() {
+        TopicTrie trie = new TopicTrie();
+        assertThrows(IllegalArgumentException.class, () -> trie.insert("#.update", a));
+        assertThrows(IllegalArgumentException.class, () -> trie.insert("tof..update", a));
+    }
+
+    @Test
+    void unsubscribePatternKeepsDirectSubscription() {
+        AtomicInteger calls = new AtomicInteger();
+        Consumer<Object> l = p -> calls.incrementAndGet();
+        Topic<Object> t = EventBus.topic("trie.test.direct", Object.class);
+        t.subscribe(l);
+        EventBus.subscribePattern("trie.test.*", l);
+
+        EventBus.unsubscribePattern("trie.test.*", l);
+        t.publish("x");
+
+        assertEquals(1, calls.get());
+        t.unsubscribe(l);
+    }
+
+    @Test
+    void unsubscribeKeepsPatternSubscription() {
+        AtomicInteger calls = new AtomicInteger();
+        Consumer<Object> l = p -> calls.incrementAndGet();
+        Topic<Object> t = EventBus.topic("trie.test.pattern", Object.class);
+        EventBus.subscribePattern("trie.test.*", l);
+        t.subscribe(l);
+
+        t.unsubscribe(l);
+        t.publish("x");
+
+        assertEquals(1, calls.get());
+        EventBus.unsubscribePattern("trie.test.*", l);
+    }
+
+    @Test
+    void publishToUnknownTopicCreatesItOnlyForAMatchingPattern() {
+        List<Object> got = new ArrayList<>();
+        Consumer<Object> l = got::add;
+        EventBus.subscribePattern("trie.lazy.*", l);
+
+        EventBus.publish("trie.other.update", "ignored");
+        EventBus.publish("trie.lazy.update", "delivered");
+
+        assertEquals(List.of("delivered"), got);
+        assertTrue(EventBus.allTopics().stream().noneMatch(t -> t.name().equals("trie.other.update")));
+        EventBus.unsubscribePattern("trie.lazy.*", l);
+    }
+}
@@ -0,0 +1,39 @@
+package distances.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/** Déclaration -Drover.ranges: position de montage complète et validation. */
+class RangeSensorTest {
+
+    @Test
+    void parsesFullMountingPose() {
+        List<RangeSensor> l = RangeSensor.parse("left:5:0:20:140:90; rear:2:1:180:-140:0");
+
+        assertEquals(new RangeSensor("left", 5, 0, 20, 140, 90), l.get(0));
+        assertEquals(new RangeSensor("rear", 2, 1, 180, -140, 0), l.get(1));
+    }
+
+    @Test
+    void frontSensorWithoutPoseSitsAtTheNose() {
+        RangeSensor s = RangeSensor.parse("front:3:0:0").get(0);
+
+        assertEquals(140, s.forwardMm(), 0.0);
+        assertEquals(0, s.leftMm(), 0.0);
+    }
+
+    @Test
+    void rejectsInvalidDeclarations() {
+        assertThrows(IllegalArgumentException.class, () -> RangeSensor.parse("rear:2:1:180")); // position requise
+        assertThrows(IllegalArgumentException.class, () -> RangeSensor.parse("left:5:0:20:90")); // ancien format
+        assertThrows(IllegalArgumentException.class, () -> RangeSensor.parse("left:9:0:20"));
+        assertThrows(IllegalArgumentException.class, () -> RangeSensor.parse("left:5:0:270"));
+        assertThrows(IllegalArgumentException.class, () -> RangeSensor.parse("left:5:0:20:5000:0"));
+        assertThrows(IllegalArgumentException.class, () -> RangeSensor.parse("left:x:0:20"));
+        assertThrows(IllegalArgumentException.class, () -> RangeSensor.parse(" ; "));
+    }
+}
@@ -0,0 +1,42 @@
+package fusion.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Couloir du rover: seuls les capteurs tournés vers l'avant comptent pour la distance libre
+ * et l'alerte obstacle.
+ */
+class ObstacleFusionTest {
+
+    @Test
+    void rearSensorNeverRaisesTheFrontAlert() {
+        ObstacleFusion fusion = new ObstacleFusion();
+        int sonar = fusion.addSonar("sonar");
+        int rear = fusion.addSensor("rear", 180.0, -140.0, 0.0, ObstacleFusion.TOF_CONFIDENCE);
+        int rearAtNose = fusion.addSensor("rear-nose", 180.0, 140.0, 0.0, ObstacleFusion.TOF_CONFIDENCE);
+
+        fusion.observe(sonar, 2000, true, System.nanoTime());
+        fusion.observe(rear, 100, true, System.nanoTime());
+        fusion.observe(rearAtNose, 100, true, System.nanoTime()); // point d'impact dans le châssis
+
+        assertFalse(fusion.fuse());
+        assertEquals(2000, fusion.pathClearanceMm(), 1e-6);
+    }
+
+    @Test
+    void frontObstacleStillRaisesTheAlert() {
+        ObstacleFusion fusion = new ObstacleFusion();
+        int sonar = fusion.addSonar("sonar");
+        int rear = fusion.addSensor("rear", 180.0, -140.0, 0.0, ObstacleFusion.TOF_CONFIDENCE);
+
+        fusion.observe(sonar, 200, true, System.nanoTime());
+        fusion.observe(rear, 3000, true, System.nanoTime());
+
+        assertTrue(fusion.fuse());
+        assertEquals(200, fusion.pathClearanceMm(), 1e-6);
+    }
+}